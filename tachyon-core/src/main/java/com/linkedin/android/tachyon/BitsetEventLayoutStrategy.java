@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Takes columns the same way as {@link GreedyEventLayoutStrategy}, but on a grid of five minute
+ * slots. Each column keeps a bit per slot that is set once an event takes it, so whether an event
+ * fits in a column is checked a word at a time rather than against every other event. Events are
+ * rounded out to whole slots, so events less than five minutes apart may not share a column.
+ */
+public class BitsetEventLayoutStrategy implements EventLayoutStrategy {
+
+    static final int SLOT_MINUTES = 5;
+
+    /**
+     * The slots taken in each column, a column's words follow the previous column's words.
+     */
+    @NonNull
+    private long[] occupancy = new long[0];
+
+    @Override
+    public int layoutCluster(@NonNull int[] startMinutes,
+                             @NonNull int[] endMinutes,
+                             @NonNull int[] positions,
+                             int from,
+                             int to,
+                             @NonNull int[] startColumns,
+                             @NonNull int[] endColumns) {
+        int clusterStartMinute = Integer.MAX_VALUE;
+        int clusterEndMinute = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            clusterStartMinute = Math.min(clusterStartMinute, startMinutes[positions[i]]);
+            clusterEndMinute = Math.max(clusterEndMinute, endMinutes[positions[i]]);
+        }
+
+        // A cluster can never need more columns than it has events
+        int slotCount = getSlot(clusterEndMinute - clusterStartMinute + SLOT_MINUTES - 1);
+        int wordCount = (slotCount + Long.SIZE - 1) >>> 6;
+        int occupancySize = (to - from) * wordCount;
+        if (occupancy.length < occupancySize) {
+            occupancy = new long[occupancySize];
+        }
+        Arrays.fill(occupancy, 0, occupancySize, 0);
+
+        int columnCount = 0;
+        for (int i = from; i < to; i++) {
+            int position = positions[i];
+            int firstSlot = getSlot(startMinutes[position] - clusterStartMinute);
+            int lastSlot = getSlot(endMinutes[position] - clusterStartMinute + SLOT_MINUTES - 1);
+
+            int column = 0;
+            while (column < columnCount && !isFree(column, wordCount, firstSlot, lastSlot)) {
+                column++;
+            }
+
+            occupy(column, wordCount, firstSlot, lastSlot);
+            startColumns[position] = column;
+            columnCount = Math.max(columnCount, column + 1);
+        }
+
+        // Stretch each event over the following columns for as long as its slots are free
+        for (int i = from; i < to; i++) {
+            int position = positions[i];
+            int firstSlot = getSlot(startMinutes[position] - clusterStartMinute);
+            int lastSlot = getSlot(endMinutes[position] - clusterStartMinute + SLOT_MINUTES - 1);
+
+            int endColumn = startColumns[position] + 1;
+            while (endColumn < columnCount && isFree(endColumn, wordCount, firstSlot, lastSlot)) {
+                endColumn++;
+            }
+
+            endColumns[position] = endColumn;
+        }
+
+        return columnCount;
+    }
+
+    @Override
+    public boolean sharesColumnCount() {
+        return true;
+    }
+
+    /**
+     * @return true if none of the slots from the first slot up to the last slot, exclusive, are
+     * taken in the given column
+     */
+    private boolean isFree(int column, int wordCount, int firstSlot, int lastSlot) {
+        int offset = column * wordCount;
+        int firstWord = firstSlot >>> 6;
+        int lastWord = (lastSlot - 1) >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            if ((occupancy[offset + word] & getMask(word, firstWord, lastWord, firstSlot, lastSlot)) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void occupy(int column, int wordCount, int firstSlot, int lastSlot) {
+        int offset = column * wordCount;
+        int firstWord = firstSlot >>> 6;
+        int lastWord = (lastSlot - 1) >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            occupancy[offset + word] |= getMask(word, firstWord, lastWord, firstSlot, lastSlot);
+        }
+    }
+
+    private static long getMask(int word, int firstWord, int lastWord, int firstSlot, int lastSlot) {
+        long mask = -1L;
+        if (word == firstWord) {
+            mask &= -1L << (firstSlot & 63);
+        }
+
+        if (word == lastWord) {
+            mask &= -1L >>> (63 - ((lastSlot - 1) & 63));
+        }
+
+        return mask;
+    }
+
+    private static int getSlot(int minutes) {
+        return minutes / SLOT_MINUTES;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Lays out the events of many days at once without creating a {@code DayView} for each of them,
+ * for screens like a month grid or an agenda that need the columns or bounds of events ahead of
+ * time. The columns of every day match the ones a day view with the same hour range and
+ * {@link EventLayoutStrategy} would compute, and the bounds are computed by the same
+ * {@link EventGeometry}, apart from the dividers.
+ * <p>
+ * Days are split into chunks laid out in parallel on an executor, for example a
+ * {@code ForkJoinPool} or {@code AsyncTask.THREAD_POOL_EXECUTOR}, while the calling thread lays
+ * out chunks as well until every chunk is done. Each chunk reuses its own buffers and strategy
+ * across its days, so laying out a day only allocates its result. Instances can be shared
+ * between threads.
+ */
+public class BulkEventLayout {
+
+    /**
+     * The number of chunks per available processor, more than one so threads that finish early
+     * can pick up the work of slower ones.
+     */
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    /**
+     * Creates a strategy for each chunk of days, since strategies may keep scratch buffers.
+     */
+    public interface StrategyFactory {
+
+        @NonNull
+        EventLayoutStrategy createStrategy();
+    }
+
+    private static final StrategyFactory GREEDY_STRATEGY_FACTORY = new StrategyFactory() {
+        @NonNull
+        @Override
+        public EventLayoutStrategy createStrategy() {
+            return new GreedyEventLayoutStrategy();
+        }
+    };
+
+    private final int width;
+    /**
+     * Only read once set up, so it can be shared by every thread laying out days.
+     */
+    @NonNull
+    private final EventGeometry geometry;
+    @NonNull
+    private final StrategyFactory strategyFactory;
+
+    /**
+     * Creates a layout that lays out events like a day view using the default strategy.
+     *
+     * @see #BulkEventLayout(int, int, int, int, int, StrategyFactory)
+     */
+    public BulkEventLayout(int startHour, int endHour, int width, int height, int eventMargin) {
+        this(startHour, endHour, width, height, eventMargin, GREEDY_STRATEGY_FACTORY);
+    }
+
+    /**
+     * @param startHour       the first hour of the day, from 0 to 23
+     * @param endHour         the last hour of the day, from 1 to 24
+     * @param width           the width of the area the events are laid out in
+     * @param height          the height of the area the events are laid out in, covering the
+     *                        whole hour range
+     * @param eventMargin     the margin around each event
+     * @param strategyFactory creates the strategies the events are laid out with
+     */
+    public BulkEventLayout(int startHour,
+                           int endHour,
+                           int width,
+                           int height,
+                           int eventMargin,
+                           @NonNull StrategyFactory strategyFactory) {
+        this.width = width;
+        this.strategyFactory = strategyFactory;
+
+        geometry = new EventGeometry(eventMargin, 0);
+        geometry.setHourRange(startHour, endHour);
+        float minuteHeight = (float) height / (geometry.getEndMinute() - geometry.getStartMinute());
+        geometry.setEventArea(false, width, 0, 0, width, minuteHeight);
+    }
+
+    /**
+     * Lays out the given days on the calling thread.
+     */
+    @NonNull
+    public List<DayEventLayout> layout(@NonNull List<? extends List<EventTimeRange>> days) {
+        return layout(days, null);
+    }
+
+    /**
+     * Lays out the given days, blocking until every day is laid out.
+     *
+     * @param days     the time ranges of the events of each day
+     * @param executor the executor days are laid out on alongside the calling thread, or null to
+     *                 only use the calling thread
+     * @return the layout of each day, in the order of the given days
+     */
+    @NonNull
+    public List<DayEventLayout> layout(@NonNull final List<? extends List<EventTimeRange>> days,
+                                       @Nullable Executor executor) {
+        final DayEventLayout[] layouts = new DayEventLayout[days.size()];
+        if (executor == null || days.size() <= 1) {
+            layoutDays(days, 0, days.size(), layouts);
+            return Arrays.asList(layouts);
+        }
+
+        int processorCount = Runtime.getRuntime().availableProcessors();
+        final int chunkCount = Math.min(days.size(), processorCount * CHUNKS_PER_PROCESSOR);
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final CountDownLatch doneLatch = new CountDownLatch(chunkCount);
+
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                EventColumnLayout columnLayout = null;
+                int chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                    try {
+                        if (columnLayout == null) {
+                            columnLayout = new EventColumnLayout(strategyFactory.createStrategy());
+                        }
+
+                        int from = (int) ((long) chunk * days.size() / chunkCount);
+                        int to = (int) ((long) (chunk + 1) * days.size() / chunkCount);
+                        for (int i = from; i < to; i++) {
+                            layouts[i] = layoutDay(days.get(i), columnLayout);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }
+        };
+
+        // The calling thread works through the chunks as well, so the layout finishes even if the
+        // executor is busy with other work
+        for (int i = 1; i < Math.min(chunkCount, processorCount); i++) {
+            executor.execute(worker);
+        }
+        worker.run();
+
+        awaitUninterruptibly(doneLatch);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        return Arrays.asList(layouts);
+    }
+
+    private void layoutDays(@NonNull List<? extends List<EventTimeRange>> days,
+                            int from,
+                            int to,
+                            @NonNull DayEventLayout[] layouts) {
+        EventColumnLayout columnLayout = new EventColumnLayout(strategyFactory.createStrategy());
+        for (int i = from; i < to; i++) {
+            layouts[i] = layoutDay(days.get(i), columnLayout);
+        }
+    }
+
+    @NonNull
+    private DayEventLayout layoutDay(@NonNull List<EventTimeRange> timeRanges,
+                                     @NonNull EventColumnLayout columnLayout) {
+        int size = timeRanges.size();
+        int[] values = new int[size * DayEventLayout.STRIDE];
+        DirectionalRect rect = new DirectionalRect();
+
+        // Only events within the hour range are laid out, the positions of the others are left
+        // empty in the result
+        int inDayCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (geometry.isInDay(timeRanges.get(i))) {
+                inDayCount++;
+            }
+        }
+
+        columnLayout.setSize(inDayCount);
+        int[] positions = new int[inDayCount];
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            EventTimeRange timeRange = timeRanges.get(i);
+            if (geometry.isInDay(timeRange)) {
+                positions[index] = i;
+                columnLayout.setTimeRange(index++, timeRange.getStartMinute(), timeRange.getEndMinute());
+            }
+        }
+        columnLayout.layout();
+
+        for (int i = 0; i < inDayCount; i++) {
+            int columnCount = columnLayout.getColumnCount(i);
+            int startColumn = columnLayout.getStartColumn(i);
+            int endColumn = columnLayout.getEndColumn(i);
+            EventTimeRange timeRange = timeRanges.get(positions[i]);
+
+            geometry.setColumnRect(rect, timeRange.getStartMinute(), timeRange.getEndMinute(), startColumn, endColumn,
+                    geometry.getColumnWidth(columnCount));
+
+            DayEventLayout.set(values, positions[i], startColumn, endColumn, columnCount, rect.getLeft(),
+                    rect.getTop(), rect.getRight(), rect.getBottom());
+        }
+
+        return new DayEventLayout(width, values);
+    }
+
+    private static void awaitUninterruptibly(@NonNull CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Stacks overlapping events on top of each other rather than side by side. Each event is offset
+ * from the start by the column it would take with {@link GreedyEventLayoutStrategy}, and stretches
+ * all the way to the end, so every event stays wide and only the events it overlaps cover it.
+ */
+public class CascadingEventLayoutStrategy extends GreedyEventLayoutStrategy {
+
+    /**
+     * The width of the narrowest event, in columns. The offset of each level of overlap is one
+     * column.
+     */
+    private static final int MIN_SPAN = 2;
+
+    @Override
+    public int layoutCluster(@NonNull int[] startMinutes,
+                             @NonNull int[] endMinutes,
+                             @NonNull int[] positions,
+                             int from,
+                             int to,
+                             @NonNull int[] startColumns,
+                             @NonNull int[] endColumns) {
+        int columnCount = assignStartColumns(startMinutes, endMinutes, positions, from, to, startColumns);
+
+        // Events that don't overlap anything keep the full width
+        if (columnCount == 1) {
+            for (int i = from; i < to; i++) {
+                endColumns[positions[i]] = 1;
+            }
+
+            return 1;
+        }
+
+        int cascadeColumnCount = columnCount - 1 + MIN_SPAN;
+        for (int i = from; i < to; i++) {
+            endColumns[positions[i]] = cascadeColumnCount;
+        }
+
+        return cascadeColumnCount;
+    }
+
+    @Override
+    public boolean sharesColumnCount() {
+        return false;
+    }
+}
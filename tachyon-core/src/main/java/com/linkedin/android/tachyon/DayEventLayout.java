@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The layout of the events of a single day computed by {@link BulkEventLayout}. Values are looked
+ * up by the position of the event in the list of time ranges the day was laid out from. Events
+ * outside of the hour range of the layout are not in the day, and have no columns and an empty
+ * rect.
+ * <p>
+ * Rects are relative to the top start corner of the area the events are drawn in, use
+ * {@link #getRect(int, boolean, DirectionalRect)} to get them for left-to-right or right-to-left
+ * mode.
+ */
+public class DayEventLayout {
+
+    private static final int START_COLUMN = 0;
+    private static final int END_COLUMN = 1;
+    private static final int COLUMN_COUNT = 2;
+    private static final int START = 3;
+    private static final int TOP = 4;
+    private static final int END = 5;
+    private static final int BOTTOM = 6;
+    static final int STRIDE = 7;
+
+    private final int width;
+    @NonNull
+    private final int[] values;
+
+    DayEventLayout(int width, @NonNull int[] values) {
+        this.width = width;
+        this.values = values;
+    }
+
+    /**
+     * @return the number of events in the day, including the ones outside of its hour range
+     */
+    public int size() {
+        return values.length / STRIDE;
+    }
+
+    /**
+     * @return true if the event at the given position is within the hour range of the layout
+     */
+    public boolean isInDay(int position) {
+        return getColumnCount(position) > 0;
+    }
+
+    public int getStartColumn(int position) {
+        return values[position * STRIDE + START_COLUMN];
+    }
+
+    public int getEndColumn(int position) {
+        return values[position * STRIDE + END_COLUMN];
+    }
+
+    /**
+     * @return the number of columns the start and end columns of the event are relative to
+     */
+    public int getColumnCount(int position) {
+        return values[position * STRIDE + COLUMN_COUNT];
+    }
+
+    public int getStart(int position) {
+        return values[position * STRIDE + START];
+    }
+
+    public int getTop(int position) {
+        return values[position * STRIDE + TOP];
+    }
+
+    public int getEnd(int position) {
+        return values[position * STRIDE + END];
+    }
+
+    public int getBottom(int position) {
+        return values[position * STRIDE + BOTTOM];
+    }
+
+    /**
+     * Sets the given rect to the bounds of the event at the given position.
+     */
+    public void getRect(int position, boolean isRtl, @NonNull DirectionalRect outRect) {
+        outRect.set(isRtl, width, getStart(position), getTop(position), getEnd(position), getBottom(position));
+    }
+
+    /**
+     * Sets the values of the event at the given position, the arguments are in the order of the
+     * values in the backing array.
+     */
+    static void set(@NonNull int[] values,
+                    int position,
+                    int startColumn,
+                    int endColumn,
+                    int columnCount,
+                    int start,
+                    int top,
+                    int end,
+                    int bottom) {
+        int offset = position * STRIDE;
+        values[offset + START_COLUMN] = startColumn;
+        values[offset + END_COLUMN] = endColumn;
+        values[offset + COLUMN_COUNT] = columnCount;
+        values[offset + START] = start;
+        values[offset + TOP] = top;
+        values[offset + END] = end;
+        values[offset + BOTTOM] = bottom;
+    }
+}
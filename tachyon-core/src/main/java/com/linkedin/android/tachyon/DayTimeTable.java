@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Converts instants to the minutes events of one day are laid out with, in one time zone. The
+ * offsets of the day and any daylight saving time transitions within it are looked up once when
+ * the table is created, after which converting a time is plain integer arithmetic, without any
+ * {@link java.util.Calendar} or allocation.
+ * <p>
+ * Layout minutes follow the wall clock, minute 60 is where 1:00 AM is drawn. When daylight saving
+ * time begins, the skipped hour is left empty and an event across it is drawn through it, from
+ * its wall clock start to its wall clock end. When it ends, both passes through the repeated hour
+ * land on the same minutes, and an event whose wall clock end comes before its start because the
+ * clocks went back is drawn for its real duration rather than collapsing to the shortest event.
+ * Instances are immutable and can be shared between threads.
+ */
+public class DayTimeTable {
+
+    private static final long MILLIS_PER_MINUTE = 60 * 1000;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    /**
+     * The wall clock time of the start of the day, in milliseconds since the local epoch.
+     */
+    private final long wallStartMillis;
+    private final long startMillis;
+    private final long endMillis;
+    private final int startOffset;
+    /**
+     * The instants the offset changes within the day, and the offset from each of them on.
+     */
+    @NonNull
+    private final long[] transitionMillis;
+    @NonNull
+    private final int[] transitionOffsets;
+
+    /**
+     * @param timeZone the time zone the day is in
+     * @param millis   any instant within the day
+     */
+    public DayTimeTable(@NonNull TimeZone timeZone, long millis) {
+        long wallMillis = millis + timeZone.getOffset(millis);
+        wallStartMillis = floorDiv(wallMillis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+        startMillis = toMillis(timeZone, wallStartMillis);
+        endMillis = toMillis(timeZone, wallStartMillis + MILLIS_PER_DAY);
+        startOffset = timeZone.getOffset(startMillis);
+
+        // Transitions are found by sampling the offset every hour, then narrowing down each change
+        int transitionCount = 0;
+        long[] transitionMillis = new long[2];
+        int[] transitionOffsets = new int[2];
+        long previousMillis = startMillis;
+        int previousOffset = startOffset;
+        while (previousMillis < endMillis) {
+            long nextMillis = Math.min(previousMillis + MILLIS_PER_HOUR, endMillis);
+            int nextOffset = timeZone.getOffset(nextMillis);
+            if (nextOffset != previousOffset) {
+                long low = previousMillis;
+                long high = nextMillis;
+                while (high - low > 1) {
+                    long middle = (low + high) >>> 1;
+                    if (timeZone.getOffset(middle) == previousOffset) {
+                        low = middle;
+                    } else {
+                        high = middle;
+                    }
+                }
+
+                if (transitionCount == transitionMillis.length) {
+                    transitionMillis = Arrays.copyOf(transitionMillis, transitionCount * 2);
+                    transitionOffsets = Arrays.copyOf(transitionOffsets, transitionCount * 2);
+                }
+                transitionMillis[transitionCount] = high;
+                transitionOffsets[transitionCount++] = nextOffset;
+            }
+
+            previousMillis = nextMillis;
+            previousOffset = nextOffset;
+        }
+
+        this.transitionMillis = Arrays.copyOf(transitionMillis, transitionCount);
+        this.transitionOffsets = Arrays.copyOf(transitionOffsets, transitionCount);
+    }
+
+    /**
+     * @return the first instant of the day
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return the first instant of the next day
+     */
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * @return the real length of the day in minutes, one hour shorter or longer than usual on the
+     * days daylight saving time begins or ends
+     */
+    public int getMinuteCount() {
+        return (int) ((endMillis - startMillis) / MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * @return the offset from UTC in effect at the given instant, instants outside of the day use
+     * the offset of its nearest edge
+     */
+    public int getOffset(long millis) {
+        int offset = startOffset;
+        for (int i = 0; i < transitionMillis.length && millis >= transitionMillis[i]; i++) {
+            offset = transitionOffsets[i];
+        }
+
+        return offset;
+    }
+
+    /**
+     * @return the layout minute of the given instant, negative before the day and past the last
+     * minute after it
+     */
+    public int getMinute(long millis) {
+        // Clamped so instants far away from the day stay in range
+        millis = Math.max(startMillis - MILLIS_PER_DAY, Math.min(millis, endMillis + MILLIS_PER_DAY));
+        return (int) floorDiv(millis + getOffset(millis) - wallStartMillis, MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * @return the earliest instant the wall clock shows the given layout minute, or the instant
+     * the clocks go forward for the minutes they skip
+     */
+    public long getMillis(int minute) {
+        long wallMillis = wallStartMillis + minute * MILLIS_PER_MINUTE;
+        if (getOffset(wallMillis - startOffset) == startOffset) {
+            return wallMillis - startOffset;
+        }
+
+        int previousOffset = startOffset;
+        for (int i = 0; i < transitionMillis.length; i++) {
+            int offset = transitionOffsets[i];
+            if (wallMillis >= transitionMillis[i] + previousOffset && wallMillis < transitionMillis[i] + offset) {
+                return transitionMillis[i];
+            }
+
+            if (getOffset(wallMillis - offset) == offset) {
+                return wallMillis - offset;
+            }
+            previousOffset = offset;
+        }
+
+        return wallMillis - previousOffset;
+    }
+
+    /**
+     * @return the layout time range of an event between the given instants
+     */
+    @NonNull
+    public EventTimeRange toTimeRange(long startMillis, long endMillis) {
+        int startMinute = getMinute(startMillis);
+        int endMinute = getMinute(endMillis);
+        if (endMinute <= startMinute && endMillis > startMillis) {
+            // The clocks went back during the event
+            long durationMinutes = (endMillis - startMillis) / MILLIS_PER_MINUTE;
+            endMinute = (int) Math.min(startMinute + durationMinutes, getMinute(endMillis + MILLIS_PER_DAY));
+        }
+
+        return new EventTimeRange(startMinute, endMinute);
+    }
+
+    /**
+     * @return the layout time range of the given event
+     */
+    @NonNull
+    public EventTimeRange toTimeRange(@NonNull EpochTimeRange timeRange) {
+        return toTimeRange(timeRange.getStartMillis(), timeRange.getEndMillis());
+    }
+
+    /**
+     * @return the first instant the wall clock shows the given time, or the instant the clocks go
+     * forward past it
+     */
+    static long toMillis(@NonNull TimeZone timeZone, long wallMillis) {
+        // The offsets a day away from the wall clock time are the ones in effect around it
+        int earlyOffset = timeZone.getOffset(wallMillis - MILLIS_PER_DAY);
+        int lateOffset = timeZone.getOffset(wallMillis + MILLIS_PER_DAY);
+        long earlyMillis = wallMillis - earlyOffset;
+        long lateMillis = wallMillis - lateOffset;
+        if (timeZone.getOffset(earlyMillis) == earlyOffset) {
+            return timeZone.getOffset(lateMillis) == lateOffset ? Math.min(earlyMillis, lateMillis) : earlyMillis;
+        } else if (timeZone.getOffset(lateMillis) == lateOffset) {
+            return lateMillis;
+        }
+
+        // Skipped by the clocks going forward, find the instant they did
+        long low = Math.min(earlyMillis, lateMillis);
+        long high = Math.max(earlyMillis, lateMillis);
+        while (high - low > 1) {
+            long middle = (low + high) >>> 1;
+            if (timeZone.getOffset(middle) == earlyOffset) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+
+        return high;
+    }
+
+    static long floorDiv(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        return dividend % divisor < 0 ? quotient - 1 : quotient;
+    }
+}
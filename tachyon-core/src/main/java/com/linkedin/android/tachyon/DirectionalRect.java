@@ -8,7 +8,7 @@
 package com.linkedin.android.tachyon;
 
 /**
- * Similar to {@link android.graphics.Rect} but provides the
+ * Similar to {@code android.graphics.Rect} but provides the
  * {@link #set(boolean, int, int, int, int, int)} method to handle right-to-left mode.
  */
 public class DirectionalRect {
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Represents the start and end time of a calendar event as instants, in milliseconds since the
+ * epoch. A {@link DayTimeTable} converts it to the {@link EventTimeRange} of a given day.
+ */
+public class EpochTimeRange {
+
+    private final long startMillis;
+    private final long endMillis;
+
+    public EpochTimeRange(long startMillis, long endMillis) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        EpochTimeRange range = (EpochTimeRange) o;
+        return startMillis == range.startMillis && endMillis == range.endMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (startMillis ^ (startMillis >>> 32)) + (int) (endMillis ^ (endMillis >>> 32));
+    }
+}
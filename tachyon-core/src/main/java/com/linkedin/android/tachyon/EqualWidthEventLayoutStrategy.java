@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Columns are taken the same way as {@link GreedyEventLayoutStrategy}, but each event only spans
+ * its own column, and each cluster is split into only as many columns as it needs. Every event of
+ * a cluster ends up with the same width.
+ */
+public class EqualWidthEventLayoutStrategy extends GreedyEventLayoutStrategy {
+
+    @Override
+    public int layoutCluster(@NonNull int[] startMinutes,
+                             @NonNull int[] endMinutes,
+                             @NonNull int[] positions,
+                             int from,
+                             int to,
+                             @NonNull int[] startColumns,
+                             @NonNull int[] endColumns) {
+        int columnCount = assignStartColumns(startMinutes, endMinutes, positions, from, to, startColumns);
+        for (int i = from; i < to; i++) {
+            int position = positions[i];
+            endColumns[position] = startColumns[position] + 1;
+        }
+
+        return columnCount;
+    }
+
+    @Override
+    public boolean sharesColumnCount() {
+        return false;
+    }
+}
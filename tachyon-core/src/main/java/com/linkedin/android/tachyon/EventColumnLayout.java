@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Assigns columns to a set of events, which are split into clusters of events that transitively
+ * overlap each other, since events only compete for columns within their cluster. Each cluster is
+ * laid out by an {@link EventLayoutStrategy}.
+ * <p>
+ * Everything is kept in arrays that are only grown when needed, so an instance can lay out any
+ * number of days one after the other without allocating. Instances aren't thread-safe.
+ */
+public class EventColumnLayout {
+
+    @NonNull
+    private final EventLayoutStrategy strategy;
+
+    private int size;
+    @NonNull
+    private int[] startMinutes = new int[0];
+    @NonNull
+    private int[] endMinutes = new int[0];
+    @NonNull
+    private int[] startColumns = new int[0];
+    @NonNull
+    private int[] endColumns = new int[0];
+    @NonNull
+    private int[] clusterColumnCounts = new int[0];
+    @NonNull
+    private long[] sortBuffer = new long[0];
+
+    /**
+     * The positions of the events grouped by cluster, in ascending order within each cluster.
+     */
+    @NonNull
+    private int[] clusterPositions = new int[0];
+    /**
+     * The index of the first position of each cluster within {@link #clusterPositions}, followed
+     * by the total number of positions.
+     */
+    @NonNull
+    private int[] clusterOffsets = new int[1];
+    private int clusterCount;
+    private int columnCount;
+
+    public EventColumnLayout() {
+        this(new GreedyEventLayoutStrategy());
+    }
+
+    public EventColumnLayout(@NonNull EventLayoutStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sets the number of events, the time range of each event must be set before the next layout.
+     */
+    public void setSize(int size) {
+        this.size = size;
+        if (startMinutes.length < size) {
+            startMinutes = new int[size];
+            endMinutes = new int[size];
+            startColumns = new int[size];
+            endColumns = new int[size];
+            clusterColumnCounts = new int[size];
+            sortBuffer = new long[size];
+            clusterPositions = new int[size];
+            clusterOffsets = new int[size + 1];
+        }
+    }
+
+    public void setTimeRange(int position, int startMinute, int endMinute) {
+        // Empty time ranges still take up a minute so they overlap what they're drawn over
+        startMinutes[position] = startMinute;
+        endMinutes[position] = Math.max(endMinute, startMinute + 1);
+    }
+
+    /**
+     * @return true if the event at the given position overlaps the given time range
+     */
+    public boolean overlaps(int position, int startMinute, int endMinute) {
+        endMinute = Math.max(endMinute, startMinute + 1);
+        return startMinutes[position] < endMinute && startMinute < endMinutes[position];
+    }
+
+    /**
+     * Lays out every event.
+     */
+    public void layout() {
+        findClusters();
+
+        columnCount = 0;
+        for (int i = 0; i < clusterCount; i++) {
+            layoutCluster(i);
+        }
+    }
+
+    /**
+     * Lays out the clusters of the given events again, after their time ranges changed.
+     *
+     * @param affected whether each event's time range changed, or it was in the cluster of one that
+     *                 did before the change, filled with whether each event was laid out again
+     * @return true if every column span changed, which happens when the clusters share a column
+     * count and it changed
+     */
+    public boolean layout(@NonNull boolean[] affected) {
+        findClusters();
+
+        int previousColumnCount = columnCount;
+        columnCount = 0;
+        for (int i = 0; i < clusterCount; i++) {
+            int from = clusterOffsets[i];
+            int to = clusterOffsets[i + 1];
+
+            boolean clusterAffected = false;
+            for (int j = from; j < to && !clusterAffected; j++) {
+                clusterAffected = affected[clusterPositions[j]];
+            }
+
+            if (clusterAffected) {
+                for (int j = from; j < to; j++) {
+                    affected[clusterPositions[j]] = true;
+                }
+
+                layoutCluster(i);
+            }
+
+            columnCount = Math.max(columnCount, clusterColumnCounts[clusterPositions[from]]);
+        }
+
+        return strategy.sharesColumnCount() && columnCount != previousColumnCount;
+    }
+
+    public int getStartColumn(int position) {
+        return startColumns[position];
+    }
+
+    /**
+     * @return the end column of the event, events reaching the end of a cluster narrower than
+     * the shared column count are stretched over the extra columns
+     */
+    public int getEndColumn(int position) {
+        int endColumn = endColumns[position];
+        return strategy.sharesColumnCount() && endColumn == clusterColumnCounts[position] ? columnCount : endColumn;
+    }
+
+    /**
+     * @return the number of columns the column span of the event is relative to
+     */
+    public int getColumnCount(int position) {
+        return strategy.sharesColumnCount() ? columnCount : clusterColumnCounts[position];
+    }
+
+    /**
+     * @return the number of columns of the cluster with the most columns
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    /**
+     * @return the index of the first event of the given cluster, see
+     * {@link #getClusterPosition(int)}
+     */
+    public int getClusterStart(int cluster) {
+        return clusterOffsets[cluster];
+    }
+
+    /**
+     * @return the index after the last event of the given cluster, see
+     * {@link #getClusterPosition(int)}
+     */
+    public int getClusterEnd(int cluster) {
+        return clusterOffsets[cluster + 1];
+    }
+
+    /**
+     * @param index the index of an event between the start and end of its cluster, clusters are
+     *              in order of their start and their events in ascending order of position
+     * @return the position of the event
+     */
+    public int getClusterPosition(int index) {
+        return clusterPositions[index];
+    }
+
+    private void findClusters() {
+        // Pack each start with its position so a primitive sort orders them without boxing
+        for (int i = 0; i < size; i++) {
+            sortBuffer[i] = ((long) startMinutes[i] << 32) | i;
+        }
+        Arrays.sort(sortBuffer, 0, size);
+
+        // In order of their start, events belong to the same cluster until one starts after all
+        // of the previous ones have ended
+        clusterCount = 0;
+        int clusterEndMinute = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int position = (int) sortBuffer[i];
+            if (i == 0 || startMinutes[position] >= clusterEndMinute) {
+                clusterOffsets[clusterCount++] = i;
+                clusterEndMinute = endMinutes[position];
+            } else {
+                clusterEndMinute = Math.max(clusterEndMinute, endMinutes[position]);
+            }
+
+            clusterPositions[i] = position;
+        }
+        clusterOffsets[clusterCount] = size;
+
+        for (int i = 0; i < clusterCount; i++) {
+            Arrays.sort(clusterPositions, clusterOffsets[i], clusterOffsets[i + 1]);
+        }
+    }
+
+    private void layoutCluster(int cluster) {
+        int from = clusterOffsets[cluster];
+        int to = clusterOffsets[cluster + 1];
+        int clusterColumnCount = strategy.layoutCluster(startMinutes, endMinutes, clusterPositions, from, to,
+                startColumns, endColumns);
+
+        for (int i = from; i < to; i++) {
+            clusterColumnCounts[clusterPositions[i]] = clusterColumnCount;
+        }
+
+        columnCount = Math.max(columnCount, clusterColumnCount);
+    }
+}
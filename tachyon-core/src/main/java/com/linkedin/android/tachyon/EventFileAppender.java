@@ -0,0 +1,295 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Writes the events of days to a file read by {@link MappedEventFile}, one day at a time, so an
+ * offline calendar can be kept up to date without rewriting it. Appending a day that is already in
+ * the file replaces it, the previous record is left in place but no longer indexed.
+ * <p>
+ * Records are written as they are appended, the index is only written when the appender is
+ * closed, and an instance should only be used by one thread at a time. Nothing already in the file
+ * is overwritten: records go after the last index, and the header only points to the new index
+ * once it is synced to disk. Until then readers keep using the previous index, and an append that
+ * is interrupted before closing is dropped the next time the file is opened to append to.
+ */
+public class EventFileAppender implements Closeable {
+
+    @NonNull
+    private final RandomAccessFile file;
+    @NonNull
+    private final FileChannel channel;
+    /**
+     * The days in the file in ascending order, and the offset of the latest record of each.
+     */
+    @NonNull
+    private long[] days;
+    @NonNull
+    private long[] recordOffsets;
+    private int dayCount;
+    /**
+     * Where the next record goes, after the index and trailer read when the file was opened.
+     */
+    private long end;
+    /**
+     * Whether the index needs to be written on close.
+     */
+    private boolean changed;
+    private boolean closed;
+    @NonNull
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    /**
+     * Opens a file to append to, creating it if it doesn't exist.
+     *
+     * @throws IOException if the file can't be opened, or isn't a complete event file
+     */
+    public EventFileAppender(@NonNull File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        channel = this.file.getChannel();
+        try {
+            long size = channel.size();
+            long length = 0;
+            if (size > 0) {
+                if (size < MappedEventFile.HEADER_SIZE) {
+                    throw new IOException("Not an event file: " + file);
+                }
+
+                read(0, MappedEventFile.HEADER_SIZE);
+                if (buffer.getInt() != MappedEventFile.MAGIC || buffer.getInt() != MappedEventFile.VERSION) {
+                    throw new IOException("Not an event file, or an unsupported version: " + file);
+                }
+                length = buffer.getLong();
+                if (length != 0 && (length < MappedEventFile.HEADER_SIZE + 4 + MappedEventFile.TRAILER_SIZE
+                        || length > size)) {
+                    throw new IOException("Corrupt event file header: " + file);
+                }
+            }
+
+            if (length == 0) {
+                // A new file, or one that was never closed, starts over
+                days = new long[16];
+                recordOffsets = new long[16];
+                end = MappedEventFile.HEADER_SIZE;
+                changed = true;
+                writeHeader(0);
+                channel.truncate(end);
+            } else {
+                // The existing index is kept in memory and written again with the new days on close,
+                // the old one stays in place until then
+                read(length - MappedEventFile.TRAILER_SIZE, MappedEventFile.TRAILER_SIZE);
+                long indexOffset = buffer.getLong();
+                if (buffer.getInt() != MappedEventFile.MAGIC || indexOffset < MappedEventFile.HEADER_SIZE
+                        || indexOffset > length - MappedEventFile.TRAILER_SIZE - 4) {
+                    throw new IOException("Corrupt event file trailer: " + file);
+                }
+
+                read(indexOffset, (int) (length - MappedEventFile.TRAILER_SIZE - indexOffset));
+                dayCount = buffer.getInt();
+                if (dayCount < 0 || buffer.remaining() != (long) dayCount * MappedEventFile.INDEX_ENTRY_SIZE) {
+                    throw new IOException("Corrupt event file index: " + file);
+                }
+
+                days = new long[Math.max(16, dayCount)];
+                recordOffsets = new long[days.length];
+                for (int i = 0; i < dayCount; i++) {
+                    days[i] = buffer.getLong();
+                    recordOffsets[i] = buffer.getLong();
+                    if (recordOffsets[i] < MappedEventFile.HEADER_SIZE || recordOffsets[i] >= indexOffset) {
+                        throw new IOException("Corrupt event file index: " + file);
+                    }
+                }
+
+                // Drops whatever an interrupted append left past the last index
+                channel.truncate(length);
+                end = length;
+            }
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the events of a day.
+     *
+     * @param day        the key of the day, such as the start of the day in milliseconds
+     * @param timeRanges the time range of each event, in minutes from -32768 to 32767
+     * @param titles     the title of each event in the same order, or null to leave them out
+     */
+    public void appendDay(long day, @NonNull List<EventTimeRange> timeRanges, @Nullable List<String> titles)
+            throws IOException {
+        int count = timeRanges.size();
+        if (titles != null && titles.size() != count) {
+            throw new IllegalArgumentException("Each event needs exactly one title");
+        }
+
+        byte[][] titleBytes = new byte[count][];
+        int titlesLength = 0;
+        for (int i = 0; i < count; i++) {
+            String title = titles != null ? titles.get(i) : null;
+            if (title != null) {
+                titleBytes[i] = title.getBytes(MappedEventFile.UTF_8);
+                titlesLength += 4 + titleBytes[i].length;
+            }
+        }
+
+        ensureBuffer(4 + count * MappedEventFile.EVENT_SIZE + 4 + titlesLength);
+        buffer.putInt(count);
+        int titleOffset = 0;
+        for (int i = 0; i < count; i++) {
+            EventTimeRange timeRange = timeRanges.get(i);
+            buffer.putShort(toShort(timeRange.getStartMinute()));
+            buffer.putShort(toShort(timeRange.getEndMinute()));
+            if (titleBytes[i] != null) {
+                buffer.putInt(titleOffset);
+                titleOffset += 4 + titleBytes[i].length;
+            } else {
+                buffer.putInt(MappedEventFile.NO_TITLE);
+            }
+        }
+
+        buffer.putInt(titlesLength);
+        for (byte[] bytes : titleBytes) {
+            if (bytes != null) {
+                buffer.putInt(bytes.length);
+                buffer.put(bytes);
+            }
+        }
+
+        if (end + buffer.position() > Integer.MAX_VALUE - MappedEventFile.TRAILER_SIZE) {
+            throw new IOException("Event files are limited to 2 GB");
+        }
+
+        long recordOffset = end;
+        end = write(end);
+        putRecordOffset(day, recordOffset);
+        changed = true;
+    }
+
+    /**
+     * Writes the index if it changed, after which the new days can be read. Closing an appender
+     * that is already closed has no effect.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (!changed) {
+                return;
+            }
+
+            ensureBuffer(4 + dayCount * MappedEventFile.INDEX_ENTRY_SIZE + MappedEventFile.TRAILER_SIZE);
+            buffer.putInt(dayCount);
+            for (int i = 0; i < dayCount; i++) {
+                buffer.putLong(days[i]);
+                buffer.putLong(recordOffsets[i]);
+            }
+            buffer.putLong(end);
+            buffer.putInt(MappedEventFile.MAGIC);
+            long length = write(end);
+
+            // The records and index must be on disk before the header points to them
+            channel.force(false);
+            writeHeader(length);
+            channel.force(false);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Writes the header, pointing to the end of the trailer of the latest complete index, or 0 if
+     * there is none yet.
+     */
+    private void writeHeader(long length) throws IOException {
+        ensureBuffer(MappedEventFile.HEADER_SIZE);
+        buffer.putInt(MappedEventFile.MAGIC);
+        buffer.putInt(MappedEventFile.VERSION);
+        buffer.putLong(length);
+        write(0);
+    }
+
+    private void putRecordOffset(long day, long recordOffset) {
+        int index = Arrays.binarySearch(days, 0, dayCount, day);
+        if (index < 0) {
+            index = -index - 1;
+            if (dayCount == days.length) {
+                days = Arrays.copyOf(days, dayCount * 2);
+                recordOffsets = Arrays.copyOf(recordOffsets, dayCount * 2);
+            }
+            System.arraycopy(days, index, days, index + 1, dayCount - index);
+            System.arraycopy(recordOffsets, index, recordOffsets, index + 1, dayCount - index);
+            days[index] = day;
+            dayCount++;
+        }
+
+        recordOffsets[index] = recordOffset;
+    }
+
+    /**
+     * Writes the buffer's contents at the given position.
+     *
+     * @return the position after them
+     */
+    private long write(long position) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+
+        return position;
+    }
+
+    /**
+     * Reads the given number of bytes at the given position into the buffer.
+     */
+    private void read(long position, int length) throws IOException {
+        ensureBuffer(length);
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of event file");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private void ensureBuffer(int size) {
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+        }
+        buffer.clear();
+    }
+
+    private static short toShort(int minute) {
+        if (minute < Short.MIN_VALUE || minute > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Minute out of range: " + minute);
+        }
+
+        return (short) minute;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Computes where events are drawn within the area set aside for them, given the hour range of the
+ * day and the columns each event spans. This is the same math a {@code DayView} lays out its
+ * events with, free of any Android dependency so layouts can be computed anywhere.
+ */
+public class EventGeometry {
+
+    public static final int MIN_START_HOUR = 0;
+    public static final int MAX_END_HOUR = 24;
+    /**
+     * The shortest an event is drawn, shorter events are stretched to this duration.
+     */
+    public static final int MIN_DURATION_MINUTES = 15;
+
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private final int eventMargin;
+    private final int dividerHeight;
+
+    private int startMinute;
+    private int endMinute;
+    private boolean isRtl;
+    private int parentWidth;
+    private int areaStart;
+    private int areaTop;
+    private int areaEnd;
+    private float minuteHeight;
+
+    /**
+     * @param eventMargin   the margin around each event
+     * @param dividerHeight the height of the divider at the top of each half hour, events start
+     *                      below it
+     */
+    public EventGeometry(int eventMargin, int dividerHeight) {
+        this.eventMargin = eventMargin;
+        this.dividerHeight = dividerHeight;
+        setHourRange(MIN_START_HOUR, MAX_END_HOUR);
+    }
+
+    /**
+     * @param startHour the first hour of the day, clamped to {@link #MIN_START_HOUR}
+     * @param endHour   the last hour of the day, clamped to {@link #MAX_END_HOUR}
+     * @throws IllegalArgumentException if the end hour isn't after the start hour
+     */
+    public void setHourRange(int startHour, int endHour) throws IllegalArgumentException {
+        startHour = Math.max(startHour, MIN_START_HOUR);
+        endHour = Math.min(endHour, MAX_END_HOUR);
+        if (endHour <= startHour) {
+            throw new IllegalArgumentException("endHour must be after startHour");
+        }
+
+        startMinute = startHour * MINUTES_PER_HOUR;
+        endMinute = endHour * MINUTES_PER_HOUR;
+    }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    /**
+     * @return true if any part of the given time range is within the hour range
+     */
+    public boolean isInDay(@NonNull EventTimeRange timeRange) {
+        return timeRange.getEndMinute() > startMinute && timeRange.getStartMinute() < endMinute;
+    }
+
+    /**
+     * @param startMinute the start of the event
+     * @param endMinute   the end of the event
+     * @return the minute the event is drawn from, once it's clipped to the hour range and
+     * stretched to {@link #MIN_DURATION_MINUTES}
+     */
+    public int getDrawnStartMinute(int startMinute, int endMinute) {
+        int filteredStartMinute = Math.max(this.startMinute, startMinute);
+        if (Math.min(this.endMinute, endMinute) - filteredStartMinute < MIN_DURATION_MINUTES) {
+            // Keep stretched events at their own start, unless that would run past the day
+            filteredStartMinute = Math.min(filteredStartMinute, this.endMinute - MIN_DURATION_MINUTES);
+        }
+
+        return filteredStartMinute;
+    }
+
+    /**
+     * @param startMinute the start of the event
+     * @param endMinute   the end of the event
+     * @return the minute the event is drawn to, once it's clipped to the hour range and stretched
+     * to {@link #MIN_DURATION_MINUTES}
+     */
+    public int getDrawnEndMinute(int startMinute, int endMinute) {
+        int filteredStartMinute = getDrawnStartMinute(startMinute, endMinute);
+        return Math.max(Math.min(this.endMinute, endMinute), filteredStartMinute + MIN_DURATION_MINUTES);
+    }
+
+    /**
+     * Sets the area events are laid out in.
+     *
+     * @param isRtl        whether or not the layout is in right-to-left mode
+     * @param parentWidth  the width of the parent of the area, used to mirror it in right-to-left
+     *                     mode
+     * @param start        the start of the area in left-to-right mode
+     * @param top          the top of the first hour of the area
+     * @param end          the end of the area in left-to-right mode
+     * @param minuteHeight the height of a minute
+     */
+    public void setEventArea(boolean isRtl, int parentWidth, int start, int top, int end, float minuteHeight) {
+        this.isRtl = isRtl;
+        this.parentWidth = parentWidth;
+        this.areaStart = start;
+        this.areaTop = top;
+        this.areaEnd = end;
+        this.minuteHeight = minuteHeight;
+    }
+
+    /**
+     * @return the width of a column when the area is split into the given number of columns
+     */
+    public int getColumnWidth(int columnCount) {
+        return columnCount > 0 ? (areaEnd - areaStart) / columnCount : 0;
+    }
+
+    /**
+     * Sets the given rect to the bounds of an event. The event is clipped to the hour range and
+     * stretched to {@link #MIN_DURATION_MINUTES} if it's shorter, without running past the end of
+     * the day.
+     *
+     * @param rect        the rect to set
+     * @param startMinute the start of the event
+     * @param endMinute   the end of the event
+     * @param startColumn the first column of the event
+     * @param endColumn   the column after the last column of the event
+     * @param columnWidth the width of each column
+     */
+    public void setColumnRect(@NonNull DirectionalRect rect,
+                              int startMinute,
+                              int endMinute,
+                              int startColumn,
+                              int endColumn,
+                              int columnWidth) {
+        int filteredStartMinute = getDrawnStartMinute(startMinute, endMinute);
+        int duration = getDrawnEndMinute(startMinute, endMinute) - filteredStartMinute;
+
+        int start = startColumn * columnWidth + areaStart + eventMargin;
+        int end = start + (endColumn - startColumn) * columnWidth - eventMargin * 2;
+
+        int topOffset = (int) ((filteredStartMinute - this.startMinute) * minuteHeight);
+
+        int top = areaTop + topOffset + dividerHeight + eventMargin;
+        int bottom = top + (int) (duration * minuteHeight) - eventMargin * 2 - dividerHeight;
+
+        rect.set(isRtl, parentWidth, start, top, end, bottom);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Decides how overlapping events share the width of a {@code DayView}. Events are handed over one
+ * cluster at a time, a cluster being a group of events that transitively overlap each other, and
+ * each event is given a span of columns within the columns of its cluster.
+ * <p>
+ * Implementations may keep scratch buffers between calls, so an instance should only be used by
+ * one day view at a time.
+ *
+ * @see GreedyEventLayoutStrategy
+ * @see EqualWidthEventLayoutStrategy
+ * @see CascadingEventLayoutStrategy
+ * @see BitsetEventLayoutStrategy
+ */
+public interface EventLayoutStrategy {
+
+    /**
+     * Assigns columns to the events of a single cluster. Every event's end minute is after its
+     * start minute.
+     *
+     * @param startMinutes the start minute of every event, indexed by position
+     * @param endMinutes   the end minute of every event, indexed by position
+     * @param positions    the positions of the events in the cluster are found between from and
+     *                     to, in ascending order
+     * @param from         the index of the first position of the cluster, inclusive
+     * @param to           the index of the last position of the cluster, exclusive
+     * @param startColumns filled with the first column of each event in the cluster, indexed by
+     *                     position
+     * @param endColumns   filled with the column after the last column of each event in the
+     *                     cluster, indexed by position
+     * @return the number of columns the cluster is split into
+     */
+    int layoutCluster(@NonNull int[] startMinutes,
+                      @NonNull int[] endMinutes,
+                      @NonNull int[] positions,
+                      int from,
+                      int to,
+                      @NonNull int[] startColumns,
+                      @NonNull int[] endColumns);
+
+    /**
+     * @return true if every cluster should be as wide as the cluster with the most columns, in
+     * which case events ending in the last column of their cluster are stretched to fill the
+     * extra columns, or false if each cluster is split into its own number of columns
+     */
+    boolean sharesColumnCount();
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * An immutable version of the events of every day, usually read from an {@link EventStore}. Days
+ * are identified by any long key the app chooses, such as the start of the day in milliseconds.
+ * <p>
+ * Changing a day with {@link #withEvents(long, List)} returns a new snapshot that shares the event
+ * lists of every other day with this one, so only the day index is copied. Each day remembers the
+ * version it last changed in, which lets a reader holding an older version tell which days it
+ * needs to render again.
+ *
+ * @param <E> the type of the events
+ */
+public final class EventSnapshot<E> {
+
+    @NonNull
+    private static final EventSnapshot<Object> EMPTY = new EventSnapshot<>(0, new long[0],
+            EventSnapshot.<Object>newEventLists(0), new long[0]);
+
+    private final long version;
+    /**
+     * The keys of the days with events, or cleared since the first version, in ascending order.
+     */
+    @NonNull
+    private final long[] days;
+    @NonNull
+    private final List<E>[] dayEvents;
+    @NonNull
+    private final long[] dayVersions;
+
+    private EventSnapshot(long version, @NonNull long[] days, @NonNull List<E>[] dayEvents,
+                          @NonNull long[] dayVersions) {
+        this.version = version;
+        this.days = days;
+        this.dayEvents = dayEvents;
+        this.dayVersions = dayVersions;
+    }
+
+    /**
+     * @return the first version, without any events
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <E> EventSnapshot<E> empty() {
+        return (EventSnapshot<E>) EMPTY;
+    }
+
+    /**
+     * @return the version of this snapshot, which increases with every change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the unmodifiable events of the given day, empty if there aren't any
+     */
+    @NonNull
+    public List<E> getEvents(long day) {
+        int index = Arrays.binarySearch(days, day);
+        return index >= 0 ? dayEvents[index] : Collections.<E>emptyList();
+    }
+
+    /**
+     * @return whether the events of the given day changed after the given version
+     */
+    public boolean hasChanged(long day, long sinceVersion) {
+        int index = Arrays.binarySearch(days, day);
+        return index >= 0 && dayVersions[index] > sinceVersion;
+    }
+
+    /**
+     * @return the keys of the days whose events changed after the given version, in ascending
+     * order
+     */
+    @NonNull
+    public long[] getChangedDays(long sinceVersion) {
+        int count = 0;
+        long[] changedDays = new long[days.length];
+        for (int i = 0; i < days.length; i++) {
+            if (dayVersions[i] > sinceVersion) {
+                changedDays[count++] = days[i];
+            }
+        }
+
+        return count == changedDays.length ? changedDays : Arrays.copyOf(changedDays, count);
+    }
+
+    /**
+     * @param events the new events of the day, copied so later changes to the list are not seen,
+     *               or null to clear the day
+     * @return a snapshot with the given events for the day and this one's events for every other
+     * day, or this snapshot if the day already had equal events
+     */
+    @NonNull
+    public EventSnapshot<E> withEvents(long day, @Nullable List<? extends E> events) {
+        List<E> newEvents = events == null || events.isEmpty()
+                ? Collections.<E>emptyList()
+                : Collections.unmodifiableList(new ArrayList<E>(events));
+        int index = Arrays.binarySearch(days, day);
+        if (index >= 0 ? dayEvents[index].equals(newEvents) : newEvents.isEmpty()) {
+            return this;
+        }
+
+        long newVersion = version + 1;
+        long[] newDays;
+        List<E>[] newDayEvents;
+        long[] newDayVersions;
+        if (index >= 0) {
+            newDays = days;
+            newDayEvents = dayEvents.clone();
+            newDayVersions = dayVersions.clone();
+        } else {
+            // Cleared days keep their entry, so readers still see them change
+            index = -index - 1;
+            newDays = new long[days.length + 1];
+            newDayEvents = newEventLists(days.length + 1);
+            newDayVersions = new long[days.length + 1];
+            System.arraycopy(days, 0, newDays, 0, index);
+            System.arraycopy(days, index, newDays, index + 1, days.length - index);
+            System.arraycopy(dayEvents, 0, newDayEvents, 0, index);
+            System.arraycopy(dayEvents, index, newDayEvents, index + 1, days.length - index);
+            System.arraycopy(dayVersions, 0, newDayVersions, 0, index);
+            System.arraycopy(dayVersions, index, newDayVersions, index + 1, days.length - index);
+            newDays[index] = day;
+        }
+
+        newDayEvents[index] = newEvents;
+        newDayVersions[index] = newVersion;
+        return new EventSnapshot<>(newVersion, newDays, newDayEvents, newDayVersions);
+    }
+
+    /**
+     * Arrays of a generic type can only be created raw, every element is a {@code List<E>}.
+     */
+    @NonNull
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> List<E>[] newEventLists(int length) {
+        return new List[length];
+    }
+}
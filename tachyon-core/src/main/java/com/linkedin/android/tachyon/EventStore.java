@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Holds the latest {@link EventSnapshot} for any number of threads. Writers, such as background
+ * sync, publish new snapshots with an atomic compare and set and never block readers. Readers,
+ * such as the UI thread binding a {@code DayView}, get a consistent version of every day without
+ * any locking or copying, and can keep it for as long as they render it.
+ * <p>
+ * A reader typically remembers the {@link EventSnapshot#getVersion() version} it last rendered and
+ * only binds its views again when {@link EventSnapshot#hasChanged(long, long)} says its day
+ * changed since.
+ *
+ * @param <E> the type of the events
+ */
+public class EventStore<E> {
+
+    @NonNull
+    private final AtomicReference<EventSnapshot<E>> snapshot =
+            new AtomicReference<>(EventSnapshot.<E>empty());
+
+    /**
+     * @return the latest snapshot
+     */
+    @NonNull
+    public EventSnapshot<E> getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publishes a snapshot derived from another one, unless a different writer published first.
+     * This lets a writer read events, change them and write them back without losing concurrent
+     * changes, by deriving again from the latest snapshot whenever this fails.
+     *
+     * @return whether the given snapshot was published
+     */
+    public boolean compareAndSet(@NonNull EventSnapshot<E> expected, @NonNull EventSnapshot<E> updated) {
+        return snapshot.compareAndSet(expected, updated);
+    }
+
+    /**
+     * Replaces the events of a day.
+     *
+     * @param events the new events of the day, or null to clear it
+     * @return the published snapshot
+     */
+    @NonNull
+    public EventSnapshot<E> setEvents(long day, @Nullable List<? extends E> events) {
+        while (true) {
+            EventSnapshot<E> current = snapshot.get();
+            EventSnapshot<E> updated = current.withEvents(day, events);
+            if (updated == current || snapshot.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Replaces the events of several days at once, so readers see either all of the changes or
+     * none of them.
+     *
+     * @param events the new events of each day, null values clear the day
+     * @return the published snapshot
+     */
+    @NonNull
+    public EventSnapshot<E> setEvents(@NonNull Map<Long, ? extends List<? extends E>> events) {
+        while (true) {
+            EventSnapshot<E> current = snapshot.get();
+            EventSnapshot<E> updated = current;
+            for (Map.Entry<Long, ? extends List<? extends E>> entry : events.entrySet()) {
+                updated = updated.withEvents(entry.getKey(), entry.getValue());
+            }
+
+            if (updated == current || snapshot.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+}
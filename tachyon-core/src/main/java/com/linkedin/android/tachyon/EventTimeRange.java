@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Represents the start and end time of a calendar event. Both times are in minutes since the
+ * start of the day.
+ */
+public class EventTimeRange {
+
+    private final int startMinute;
+    private final int endMinute;
+
+    public EventTimeRange(int startMinute, int endMinute) {
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+    }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        // The deprecated DayView.EventTimeRange only extends this class for compatibility
+        if (!(o instanceof EventTimeRange)) {
+            return false;
+        }
+
+        EventTimeRange range = (EventTimeRange) o;
+        return startMinute == range.startMinute && endMinute == range.endMinute;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * startMinute + endMinute;
+    }
+
+    /**
+     * @param range the time range to compare
+     * @return true if the time range to compare overlaps in any way with this time range
+     */
+    @VisibleForTesting
+    boolean conflicts(@NonNull EventTimeRange range) {
+        return startMinute >= range.startMinute && startMinute < range.endMinute
+                || endMinute > range.startMinute && endMinute <= range.endMinute
+                || range.startMinute >= startMinute && range.startMinute < endMinute
+                || range.endMinute > startMinute && range.endMinute <= endMinute;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Finds the times several calendars are busy or free within an hour range, for example to suggest
+ * meeting times for a group of attendees. The calendars are merged with a k-way merge, which
+ * takes O(n log k) for n events across k calendars.
+ * <p>
+ * Events are treated the way a {@code DayView} with the same hour range shows them, using the
+ * same {@link EventGeometry}: they are clipped to the hour range, and events shorter than the
+ * minimum duration of 15 minutes take up that long. Buffers are reused between calls, so an
+ * instance should only be used by one thread at a time.
+ */
+public class FreeBusyFinder {
+
+    @NonNull
+    private final EventGeometry geometry = new EventGeometry(0, 0);
+    private final int startMinute;
+    private final int endMinute;
+
+    /**
+     * The calendars in the merge, ordered as a binary min-heap by the start of their next event.
+     */
+    @NonNull
+    private int[] heap = new int[0];
+    @NonNull
+    private int[] heapStartMinutes = new int[0];
+    @NonNull
+    private int[] cursors = new int[0];
+    /**
+     * The start and end minute of each busy range found by the last merge, one after the other.
+     */
+    @NonNull
+    private int[] busyMinutes = new int[0];
+    private int busyCount;
+
+    /**
+     * @param startHour the first hour of the range, from 0 to 23
+     * @param endHour   the last hour of the range, from 1 to 24
+     * @throws IllegalArgumentException if the end hour isn't after the start hour
+     */
+    public FreeBusyFinder(int startHour, int endHour) throws IllegalArgumentException {
+        geometry.setHourRange(startHour, endHour);
+        startMinute = geometry.getStartMinute();
+        endMinute = geometry.getEndMinute();
+    }
+
+    /**
+     * @param calendars the time ranges of the events of each calendar, each sorted by start minute
+     * @return the times at least one calendar is busy, sorted and without overlaps
+     */
+    @NonNull
+    public List<EventTimeRange> findBusyRanges(@NonNull List<? extends List<EventTimeRange>> calendars) {
+        merge(calendars);
+
+        List<EventTimeRange> busyRanges = new ArrayList<>(busyCount);
+        for (int i = 0; i < busyCount; i++) {
+            busyRanges.add(new EventTimeRange(busyMinutes[i * 2], busyMinutes[i * 2 + 1]));
+        }
+
+        return busyRanges;
+    }
+
+    /**
+     * @param calendars          the time ranges of the events of each calendar, each sorted by
+     *                           start minute
+     * @param minDurationMinutes the shortest free range to return
+     * @return the times every calendar is free for at least the given duration, sorted
+     */
+    @NonNull
+    public List<EventTimeRange> findFreeRanges(@NonNull List<? extends List<EventTimeRange>> calendars,
+                                               int minDurationMinutes) {
+        merge(calendars);
+
+        minDurationMinutes = Math.max(minDurationMinutes, 1);
+        List<EventTimeRange> freeRanges = new ArrayList<>(busyCount + 1);
+        for (int i = 0; i <= busyCount; i++) {
+            int freeStartMinute = i == 0 ? startMinute : busyMinutes[i * 2 - 1];
+            int freeEndMinute = i == busyCount ? endMinute : busyMinutes[i * 2];
+            if (freeEndMinute - freeStartMinute >= minDurationMinutes) {
+                freeRanges.add(new EventTimeRange(freeStartMinute, freeEndMinute));
+            }
+        }
+
+        return freeRanges;
+    }
+
+    /**
+     * Finds the earliest slots of the given duration every calendar is free for. Slots start on
+     * multiples of the minimum duration, the same times events snap to when they
+     * are dragged, and follow each other without gaps within a free range.
+     *
+     * @param calendars       the time ranges of the events of each calendar, each sorted by start
+     *                        minute
+     * @param durationMinutes the duration of each slot, at least the minimum duration
+     * @param maxCount        the maximum number of slots to return
+     * @return the slots, sorted
+     */
+    @NonNull
+    public List<EventTimeRange> findFreeSlots(@NonNull List<? extends List<EventTimeRange>> calendars,
+                                              int durationMinutes,
+                                              int maxCount) {
+        merge(calendars);
+
+        durationMinutes = Math.max(durationMinutes, EventGeometry.MIN_DURATION_MINUTES);
+        List<EventTimeRange> slots = new ArrayList<>();
+        for (int i = 0; i <= busyCount && slots.size() < maxCount; i++) {
+            int freeStartMinute = i == 0 ? startMinute : busyMinutes[i * 2 - 1];
+            int freeEndMinute = i == busyCount ? endMinute : busyMinutes[i * 2];
+
+            int slotStartMinute = snapUp(freeStartMinute);
+            while (slotStartMinute + durationMinutes <= freeEndMinute && slots.size() < maxCount) {
+                slots.add(new EventTimeRange(slotStartMinute, slotStartMinute + durationMinutes));
+                slotStartMinute += durationMinutes;
+            }
+        }
+
+        return slots;
+    }
+
+    /**
+     * Merges the events of the given calendars into {@link #busyMinutes}.
+     */
+    private void merge(@NonNull List<? extends List<EventTimeRange>> calendars) {
+        int calendarCount = calendars.size();
+        if (heap.length < calendarCount) {
+            heap = new int[calendarCount];
+            heapStartMinutes = new int[calendarCount];
+            cursors = new int[calendarCount];
+        }
+
+        int heapSize = 0;
+        int eventCount = 0;
+        for (int i = 0; i < calendarCount; i++) {
+            List<EventTimeRange> calendar = calendars.get(i);
+            eventCount += calendar.size();
+            cursors[i] = 0;
+            if (!calendar.isEmpty()) {
+                heap[heapSize] = i;
+                heapStartMinutes[heapSize] = calendar.get(0).getStartMinute();
+                siftUp(heapSize++);
+            }
+        }
+
+        if (busyMinutes.length < eventCount * 2) {
+            busyMinutes = new int[eventCount * 2];
+        }
+
+        busyCount = 0;
+        while (heapSize > 0) {
+            int calendarIndex = heap[0];
+            List<EventTimeRange> calendar = calendars.get(calendarIndex);
+            EventTimeRange timeRange = calendar.get(cursors[calendarIndex]++);
+
+            // Move on to the next event of the calendar, or drop the calendar once it runs out
+            if (cursors[calendarIndex] < calendar.size()) {
+                heapStartMinutes[0] = calendar.get(cursors[calendarIndex]).getStartMinute();
+            } else {
+                heapSize--;
+                heap[0] = heap[heapSize];
+                heapStartMinutes[0] = heapStartMinutes[heapSize];
+            }
+            siftDown(0, heapSize);
+
+            if (!geometry.isInDay(timeRange)) {
+                continue;
+            }
+
+            int eventStartMinute = geometry.getDrawnStartMinute(timeRange.getStartMinute(),
+                    timeRange.getEndMinute());
+            int eventEndMinute = geometry.getDrawnEndMinute(timeRange.getStartMinute(), timeRange.getEndMinute());
+
+            // Events come in order of their start, and so do the minutes they're drawn from, so each
+            // one either extends the last busy range or starts a new one after it
+            if (busyCount > 0 && eventStartMinute <= busyMinutes[busyCount * 2 - 1]) {
+                busyMinutes[busyCount * 2 - 1] = Math.max(busyMinutes[busyCount * 2 - 1], eventEndMinute);
+            } else {
+                busyMinutes[busyCount * 2] = eventStartMinute;
+                busyMinutes[busyCount * 2 + 1] = eventEndMinute;
+                busyCount++;
+            }
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heapStartMinutes[parent] <= heapStartMinutes[index]) {
+                break;
+            }
+
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int heapSize) {
+        while (true) {
+            int smallest = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+            if (left < heapSize && heapStartMinutes[left] < heapStartMinutes[smallest]) {
+                smallest = left;
+            }
+            if (right < heapSize && heapStartMinutes[right] < heapStartMinutes[smallest]) {
+                smallest = right;
+            }
+
+            if (smallest == index) {
+                break;
+            }
+
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int calendarIndex = heap[i];
+        heap[i] = heap[j];
+        heap[j] = calendarIndex;
+
+        int startMinute = heapStartMinutes[i];
+        heapStartMinutes[i] = heapStartMinutes[j];
+        heapStartMinutes[j] = startMinute;
+    }
+
+    private static int snapUp(int minute) {
+        int step = EventGeometry.MIN_DURATION_MINUTES;
+        return (minute + step - 1) / step * step;
+    }
+}
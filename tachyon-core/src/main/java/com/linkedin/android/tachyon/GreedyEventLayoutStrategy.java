@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The default layout strategy. In order, each event takes the first column that none of the
+ * events before it that it overlaps have taken, and then stretches over the following columns
+ * until it reaches an event it overlaps. All clusters share the same number of columns.
+ * <p>
+ * Events are taken in the order they were given rather than by start time, so every event is
+ * checked against the other events of its cluster, which takes quadratic time in the size of the
+ * cluster. Clusters are usually small, for days where many events overlap each other
+ * {@link BitsetEventLayoutStrategy} checks a column a word at a time instead.
+ */
+public class GreedyEventLayoutStrategy implements EventLayoutStrategy {
+
+    @NonNull
+    private boolean[] usedColumns = new boolean[0];
+
+    @Override
+    public int layoutCluster(@NonNull int[] startMinutes,
+                             @NonNull int[] endMinutes,
+                             @NonNull int[] positions,
+                             int from,
+                             int to,
+                             @NonNull int[] startColumns,
+                             @NonNull int[] endColumns) {
+        int columnCount = assignStartColumns(startMinutes, endMinutes, positions, from, to, startColumns);
+
+        // Stretch each event up to the closest column after its own taken by an event it overlaps
+        for (int i = from; i < to; i++) {
+            int position = positions[i];
+            int startColumn = startColumns[position];
+            int endColumn = columnCount;
+            for (int j = from; j < to && endColumn > startColumn + 1; j++) {
+                int other = positions[j];
+                int otherColumn = startColumns[other];
+                if (other != position && otherColumn > startColumn && otherColumn < endColumn
+                        && overlaps(startMinutes, endMinutes, position, other)) {
+                    endColumn = otherColumn;
+                }
+            }
+
+            endColumns[position] = endColumn;
+        }
+
+        return columnCount;
+    }
+
+    @Override
+    public boolean sharesColumnCount() {
+        return true;
+    }
+
+    /**
+     * Gives each event of the cluster, in order, the first column that none of the events before
+     * it that it overlaps have taken.
+     *
+     * @return the number of columns taken
+     */
+    int assignStartColumns(@NonNull int[] startMinutes,
+                           @NonNull int[] endMinutes,
+                           @NonNull int[] positions,
+                           int from,
+                           int to,
+                           @NonNull int[] startColumns) {
+        // A cluster can never need more columns than it has events
+        if (usedColumns.length < to - from) {
+            usedColumns = new boolean[to - from];
+        }
+
+        int columnCount = 0;
+        for (int i = from; i < to; i++) {
+            int position = positions[i];
+            Arrays.fill(usedColumns, 0, columnCount, false);
+            for (int j = from; j < i; j++) {
+                int other = positions[j];
+                if (overlaps(startMinutes, endMinutes, position, other)) {
+                    usedColumns[startColumns[other]] = true;
+                }
+            }
+
+            int column = 0;
+            while (column < columnCount && usedColumns[column]) {
+                column++;
+            }
+
+            startColumns[position] = column;
+            columnCount = Math.max(columnCount, column + 1);
+        }
+
+        return columnCount;
+    }
+
+    static boolean overlaps(@NonNull int[] startMinutes, @NonNull int[] endMinutes, int position, int other) {
+        return startMinutes[position] < endMinutes[other] && startMinutes[other] < endMinutes[position];
+    }
+}
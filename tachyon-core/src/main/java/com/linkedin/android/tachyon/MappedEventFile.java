@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Reads the events of single days straight from a file written by an {@link EventFileAppender},
+ * for calendars too large to load into objects up front. The file is memory mapped, so opening it
+ * only reads its header and trailer and checks its index, and finding a day is a binary search
+ * through the index: the cost of showing a day doesn't grow with the number of events in the
+ * calendar.
+ * <p>
+ * Days are identified by a handle from {@link #findDay(long)}, whose time ranges can be handed to
+ * an {@link EventColumnLayout} without creating an object per event. Only titles that are asked
+ * for are decoded. Instances only read the file, so they can be shared between threads, but the
+ * file must not be appended to while it is mapped.
+ * <p>
+ * The file starts with a header, followed by one record per appended day, the index and a
+ * trailer. The header holds the magic number, the version and the length of the file up to the
+ * end of the latest trailer, which is only updated once that trailer is on disk, so whatever an
+ * interrupted append left past it is ignored. A record holds the number of events, then the start minute, end minute and title
+ * offset of each event as two shorts and an int, then the length of the titles in bytes and the
+ * titles themselves, each as a length and UTF-8 bytes. The index is sorted by day, each entry
+ * holds the day and the offset of its latest record. The trailer holds the offset of the index and
+ * the magic number again. A file appended to more than once also holds the older indexes and
+ * trailers between its records, they are skipped.
+ */
+public class MappedEventFile {
+
+    static final int MAGIC = 0x54434859;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int EVENT_SIZE = 8;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int TRAILER_SIZE = 12;
+    static final int NO_TITLE = -1;
+    @NonNull
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @NonNull
+    private final MappedByteBuffer buffer;
+    private final int indexOffset;
+    private final int dayCount;
+
+    /**
+     * @throws IOException if the file can't be read, or wasn't completely written by an {@link
+     *                     EventFileAppender}
+     */
+    public MappedEventFile(@NonNull File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not an event file: " + file);
+            }
+
+            // Only the part of the file up to the latest complete index is mapped, anything past it
+            // is an append that is still going on or was interrupted
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Not an event file: " + file);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an event file: " + file);
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported event file version " + header.getInt(4));
+            }
+
+            long length = header.getLong();
+            if (length == 0) {
+                throw new IOException("Event file wasn't closed after appending: " + file);
+            }
+            if (length < HEADER_SIZE + 4 + TRAILER_SIZE || length > size || length > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt event file header: " + file);
+            }
+
+            // The mapping stays valid after the file is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        int trailerOffset = buffer.capacity() - TRAILER_SIZE;
+        if (buffer.getInt(trailerOffset + 8) != MAGIC) {
+            throw new IOException("Corrupt event file trailer: " + file);
+        }
+
+        long indexOffset = buffer.getLong(trailerOffset);
+        if (indexOffset < HEADER_SIZE || indexOffset > trailerOffset - 4) {
+            throw new IOException("Corrupt event file index: " + file);
+        }
+        this.indexOffset = (int) indexOffset;
+        dayCount = buffer.getInt(this.indexOffset);
+
+        // Every handle findDay returns is read without further checks, so each record's event
+        // count and titles are checked to fit before the index up front
+        if (dayCount < 0 || 4 + (long) dayCount * INDEX_ENTRY_SIZE != trailerOffset - indexOffset) {
+            throw new IOException("Corrupt event file index: " + file);
+        }
+        for (int i = 0; i < dayCount; i++) {
+            long recordOffset = buffer.getLong(this.indexOffset + 4 + i * INDEX_ENTRY_SIZE + 8);
+            if (recordOffset < HEADER_SIZE || recordOffset > indexOffset - 8) {
+                throw new IOException("Corrupt event file index: " + file);
+            }
+
+            int eventCount = buffer.getInt((int) recordOffset);
+            long titlesOffset = recordOffset + 4 + (long) eventCount * EVENT_SIZE + 4;
+            if (eventCount < 0 || titlesOffset > indexOffset) {
+                throw new IOException("Corrupt event file record: " + file);
+            }
+
+            int titlesLength = buffer.getInt((int) titlesOffset - 4);
+            if (titlesLength < 0 || titlesOffset + titlesLength > indexOffset) {
+                throw new IOException("Corrupt event file record: " + file);
+            }
+        }
+    }
+
+    /**
+     * @return the number of days with a record
+     */
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    /**
+     * @return the handle of the given day's events, or -1 if the file has no record for the day
+     */
+    public int findDay(long day) {
+        int low = 0;
+        int high = dayCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entryOffset = indexOffset + 4 + middle * INDEX_ENTRY_SIZE;
+            long middleDay = buffer.getLong(entryOffset);
+            if (middleDay < day) {
+                low = middle + 1;
+            } else if (middleDay > day) {
+                high = middle - 1;
+            } else {
+                return (int) buffer.getLong(entryOffset + 8);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param day a handle from {@link #findDay(long)}
+     */
+    public int getEventCount(int day) {
+        return buffer.getInt(day);
+    }
+
+    public int getStartMinute(int day, int position) {
+        return buffer.getShort(day + 4 + position * EVENT_SIZE);
+    }
+
+    public int getEndMinute(int day, int position) {
+        return buffer.getShort(day + 4 + position * EVENT_SIZE + 2);
+    }
+
+    @NonNull
+    public EventTimeRange getTimeRange(int day, int position) {
+        return new EventTimeRange(getStartMinute(day, position), getEndMinute(day, position));
+    }
+
+    /**
+     * @param day a handle from {@link #findDay(long)}
+     * @throws IOException if the title runs past the titles of the day, which only happens when
+     *                     the file is corrupt
+     */
+    @Nullable
+    public String getTitle(int day, int position) throws IOException {
+        int titleOffset = buffer.getInt(day + 4 + position * EVENT_SIZE + 4);
+        if (titleOffset == NO_TITLE) {
+            return null;
+        }
+
+        int titlesOffset = day + 4 + getEventCount(day) * EVENT_SIZE + 4;
+        int titlesLength = buffer.getInt(titlesOffset - 4);
+        if (titleOffset < 0 || titleOffset > titlesLength - 4) {
+            throw new IOException("Corrupt event file title offset " + titleOffset);
+        }
+
+        int offset = titlesOffset + titleOffset;
+        int length = buffer.getInt(offset);
+        if (length < 0 || length > titlesLength - titleOffset - 4) {
+            throw new IOException("Corrupt event file title length " + length);
+        }
+
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(offset + 4 + i);
+        }
+
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Sets the time ranges of a day's events on a layout, without creating any objects.
+     *
+     * @param day a handle from {@link #findDay(long)}
+     * @return the number of events
+     */
+    public int setTimeRanges(int day, @NonNull EventColumnLayout layout) {
+        int count = getEventCount(day);
+        layout.setSize(count);
+        for (int i = 0; i < count; i++) {
+            layout.setTimeRange(i, getStartMinute(day, i), getEndMinute(day, i));
+        }
+
+        return count;
+    }
+}
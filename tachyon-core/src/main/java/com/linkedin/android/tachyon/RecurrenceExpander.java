@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Expands recurring events into their occurrences one window at a time, usually the day being
+ * shown, and keeps the most recently used windows. Memory stays proportional to the number of
+ * rules and the occurrences of the cached windows, however long the rules recur for.
+ * <p>
+ * The occurrences of a window can be converted with a {@link DayTimeTable} to bind a {@code
+ * DayView}, or written as they are to an {@link EventStore}, where they compare equal to the
+ * occurrences of an earlier expansion. Windows are cached until the rules change, so an instance
+ * should only be used by one thread at a time.
+ *
+ * @param <E> the type of the recurring events
+ */
+public class RecurrenceExpander<E> {
+
+    @NonNull
+    private static final Comparator<Occurrence<?>> START_COMPARATOR = new Comparator<Occurrence<?>>() {
+        @Override
+        public int compare(Occurrence<?> o1, Occurrence<?> o2) {
+            long start1 = o1.timeRange.getStartMillis();
+            long start2 = o2.timeRange.getStartMillis();
+            return start1 < start2 ? -1 : (start1 == start2 ? 0 : 1);
+        }
+    };
+
+    @NonNull
+    private final Map<Window, List<Occurrence<E>>> windows;
+    @NonNull
+    private List<E> events = Collections.emptyList();
+    @NonNull
+    private List<RecurrenceRule> rules = Collections.emptyList();
+    @NonNull
+    private final List<EpochTimeRange> timeRangeBuffer = new ArrayList<>();
+
+    /**
+     * @param maxWindows the number of windows to keep the occurrences of
+     */
+    public RecurrenceExpander(final int maxWindows) {
+        if (maxWindows < 1) {
+            throw new IllegalArgumentException("maxWindows must be positive");
+        }
+
+        windows = new LinkedHashMap<Window, List<Occurrence<E>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Window, List<Occurrence<E>>> eldest) {
+                return size() > maxWindows;
+            }
+        };
+    }
+
+    /**
+     * Sets the recurring events to expand, and drops every cached window.
+     *
+     * @param events the recurring events
+     * @param rules  the rule of each event, in the same order
+     */
+    public void setRules(@Nullable List<? extends E> events, @Nullable List<RecurrenceRule> rules) {
+        int eventCount = events == null ? 0 : events.size();
+        int ruleCount = rules == null ? 0 : rules.size();
+        if (eventCount != ruleCount) {
+            throw new IllegalArgumentException("Each event needs exactly one rule");
+        }
+
+        this.events = eventCount == 0 ? Collections.<E>emptyList() : new ArrayList<E>(events);
+        this.rules = ruleCount == 0 ? Collections.<RecurrenceRule>emptyList() : new ArrayList<>(rules);
+        windows.clear();
+    }
+
+    /**
+     * @return the unmodifiable occurrences of the given day, sorted by start time
+     */
+    @NonNull
+    public List<Occurrence<E>> getOccurrences(@NonNull DayTimeTable day) {
+        return getOccurrences(day.getStartMillis(), day.getEndMillis());
+    }
+
+    /**
+     * @param fromMillis the start of the window
+     * @param toMillis   the end of the window, exclusive
+     * @return the unmodifiable occurrences overlapping the window, sorted by start time
+     */
+    @NonNull
+    public List<Occurrence<E>> getOccurrences(long fromMillis, long toMillis) {
+        Window window = new Window(fromMillis, toMillis);
+        List<Occurrence<E>> occurrences = windows.get(window);
+        if (occurrences != null) {
+            return occurrences;
+        }
+
+        occurrences = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            timeRangeBuffer.clear();
+            rules.get(i).expand(fromMillis, toMillis, timeRangeBuffer);
+            for (int j = 0; j < timeRangeBuffer.size(); j++) {
+                occurrences.add(new Occurrence<>(events.get(i), timeRangeBuffer.get(j)));
+            }
+        }
+
+        // The sort is stable, so occurrences starting together keep the order of their rules
+        Collections.sort(occurrences, START_COMPARATOR);
+        occurrences = Collections.unmodifiableList(occurrences);
+        windows.put(window, occurrences);
+        return occurrences;
+    }
+
+    /**
+     * One occurrence of a recurring event.
+     */
+    public static final class Occurrence<E> {
+        private final E event;
+        @NonNull
+        private final EpochTimeRange timeRange;
+
+        public Occurrence(E event, @NonNull EpochTimeRange timeRange) {
+            this.event = event;
+            this.timeRange = timeRange;
+        }
+
+        public E getEvent() {
+            return event;
+        }
+
+        @NonNull
+        public EpochTimeRange getTimeRange() {
+            return timeRange;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Occurrence<?> that = (Occurrence<?>) o;
+            return (event == null ? that.event == null : event.equals(that.event))
+                    && timeRange.equals(that.timeRange);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (event == null ? 0 : event.hashCode()) + timeRange.hashCode();
+        }
+    }
+
+    private static final class Window {
+        private final long fromMillis;
+        private final long toMillis;
+
+        private Window(long fromMillis, long toMillis) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Window that = (Window) o;
+            return fromMillis == that.fromMillis && toMillis == that.toMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (fromMillis ^ (fromMillis >>> 32)) + (int) (toMillis ^ (toMillis >>> 32));
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Describes when a recurring event happens, with the daily, weekly and monthly subset of the
+ * iCalendar RRULE: an interval, the days of the week for weekly rules, a count or until limit, and
+ * excluded occurrences. Occurrences keep the wall clock time of the first one in the rule's time
+ * zone across daylight saving time switches.
+ * <p>
+ * Occurrences are never stored. {@link #expand(long, long, List)} computes the ones overlapping a
+ * window by jumping straight to it, so a rule takes the same memory whether it recurs for a week
+ * or for years. Instances are immutable and can be shared between threads.
+ */
+public class RecurrenceRule {
+
+    public static final int FREQUENCY_DAILY = 0;
+    public static final int FREQUENCY_WEEKLY = 1;
+    /**
+     * Recurs on the day of the month of the first occurrence, months without that day are skipped.
+     */
+    public static final int FREQUENCY_MONTHLY = 2;
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int MONTHS_PER_YEAR = 12;
+
+    @NonNull
+    private final TimeZone timeZone;
+    private final long startMillis;
+    private final long durationMillis;
+    private final int frequency;
+    private final int interval;
+    /**
+     * The days of the week a weekly rule recurs on, bit {@code n - 1} is set for the {@link
+     * Calendar} day of the week {@code n}.
+     */
+    private final int daysOfWeek;
+    private final int count;
+    private final long untilMillis;
+    @NonNull
+    private final long[] exceptionMillis;
+
+    /**
+     * The local day of the first occurrence, in days since the epoch, and its wall clock time.
+     */
+    private final long startDay;
+    private final long startTimeOfDay;
+
+    private RecurrenceRule(@NonNull Builder builder) {
+        timeZone = builder.timeZone;
+        startMillis = builder.startMillis;
+        durationMillis = builder.durationMillis;
+        frequency = builder.frequency;
+        interval = builder.interval;
+        count = builder.count;
+        untilMillis = builder.untilMillis;
+        exceptionMillis = Arrays.copyOf(builder.exceptionMillis, builder.exceptionCount);
+        Arrays.sort(exceptionMillis);
+
+        long wallStartMillis = startMillis + timeZone.getOffset(startMillis);
+        startDay = DayTimeTable.floorDiv(wallStartMillis, DayTimeTable.MILLIS_PER_DAY);
+        startTimeOfDay = wallStartMillis - startDay * DayTimeTable.MILLIS_PER_DAY;
+        daysOfWeek = builder.daysOfWeek != 0 ? builder.daysOfWeek : 1 << (getDayOfWeek(startDay) - 1);
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Adds the occurrences overlapping a window to a list, in order.
+     *
+     * @param fromMillis     the start of the window
+     * @param toMillis       the end of the window, exclusive
+     * @param outOccurrences the list to add the occurrences to
+     */
+    public void expand(long fromMillis, long toMillis, @NonNull List<EpochTimeRange> outOccurrences) {
+        if (toMillis <= fromMillis || toMillis <= startMillis) {
+            return;
+        }
+
+        // Start looking a day early, since offsets can move an occurrence's local day
+        long firstDay = Math.max(startDay, getLocalDay(Math.max(fromMillis, startMillis) - durationMillis) - 1);
+        long lastDay = getLocalDay(toMillis) + 1;
+        switch (frequency) {
+            case FREQUENCY_DAILY:
+                expandDaily(firstDay, lastDay, fromMillis, toMillis, outOccurrences);
+                break;
+            case FREQUENCY_WEEKLY:
+                expandWeekly(firstDay, lastDay, fromMillis, toMillis, outOccurrences);
+                break;
+            default:
+                expandMonthly(firstDay, lastDay, fromMillis, toMillis, outOccurrences);
+                break;
+        }
+    }
+
+    private void expandDaily(long firstDay, long lastDay, long fromMillis, long toMillis,
+                             @NonNull List<EpochTimeRange> outOccurrences) {
+        for (long i = ceilDiv(firstDay - startDay, interval); count == 0 || i < count; i++) {
+            long day = startDay + i * interval;
+            if (day > lastDay || !addOccurrence(day, fromMillis, toMillis, outOccurrences)) {
+                return;
+            }
+        }
+    }
+
+    private void expandWeekly(long firstDay, long lastDay, long fromMillis, long toMillis,
+                              @NonNull List<EpochTimeRange> outOccurrences) {
+        long startWeek = getWeekStart(startDay);
+        long week = ceilDiv(getWeekStart(firstDay) - startWeek, (long) DAYS_PER_WEEK * interval);
+
+        // Every week but the first has one occurrence per day of the week
+        long index = 0;
+        if (week > 0) {
+            for (long day = startDay; day < startWeek + DAYS_PER_WEEK; day++) {
+                index += isDayOfWeek(day) ? 1 : 0;
+            }
+            index += (week - 1) * Integer.bitCount(daysOfWeek);
+        }
+
+        for (; ; week++) {
+            long weekStart = startWeek + week * DAYS_PER_WEEK * interval;
+            for (long day = weekStart; day < weekStart + DAYS_PER_WEEK; day++) {
+                if (day < startDay || !isDayOfWeek(day)) {
+                    continue;
+                }
+
+                if ((count > 0 && index >= count) || day > lastDay) {
+                    return;
+                }
+                index++;
+                if (day >= firstDay && !addOccurrence(day, fromMillis, toMillis, outOccurrences)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void expandMonthly(long firstDay, long lastDay, long fromMillis, long toMillis,
+                               @NonNull List<EpochTimeRange> outOccurrences) {
+        long[] start = toCivil(startDay);
+        long startMonth = start[0];
+        long dayOfMonth = start[1];
+        long month = ceilDiv(toCivil(firstDay)[0] - startMonth, interval);
+
+        // Skipped months don't count, so the months before the window are checked one by one
+        long index = 0;
+        for (long i = 0; count > 0 && i < month && index < count; i++) {
+            index += dayOfMonth <= getMonthLength(startMonth + i * interval) ? 1 : 0;
+        }
+
+        for (; ; month++) {
+            long monthStart = fromCivil(startMonth + month * interval, 1);
+            if (monthStart > lastDay || (count > 0 && index >= count)) {
+                return;
+            }
+
+            if (dayOfMonth <= getMonthLength(startMonth + month * interval)) {
+                index++;
+                long day = monthStart + dayOfMonth - 1;
+                if (day >= firstDay && !addOccurrence(day, fromMillis, toMillis, outOccurrences)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false once the occurrence on the given day is past the window or the rule's end
+     */
+    private boolean addOccurrence(long day, long fromMillis, long toMillis,
+                                  @NonNull List<EpochTimeRange> outOccurrences) {
+        long occurrenceStartMillis = DayTimeTable.toMillis(timeZone,
+                day * DayTimeTable.MILLIS_PER_DAY + startTimeOfDay);
+        if (occurrenceStartMillis > untilMillis || occurrenceStartMillis >= toMillis) {
+            return false;
+        }
+
+        long occurrenceEndMillis = occurrenceStartMillis + durationMillis;
+        if ((occurrenceEndMillis > fromMillis || occurrenceStartMillis >= fromMillis)
+                && Arrays.binarySearch(exceptionMillis, occurrenceStartMillis) < 0) {
+            outOccurrences.add(new EpochTimeRange(occurrenceStartMillis, occurrenceEndMillis));
+        }
+        return true;
+    }
+
+    private long getLocalDay(long millis) {
+        return DayTimeTable.floorDiv(millis + timeZone.getOffset(millis), DayTimeTable.MILLIS_PER_DAY);
+    }
+
+    private boolean isDayOfWeek(long day) {
+        return (daysOfWeek & 1 << (getDayOfWeek(day) - 1)) != 0;
+    }
+
+    /**
+     * @return the {@link Calendar} day of the week of a day since the epoch, which was a Thursday
+     */
+    private static int getDayOfWeek(long day) {
+        return (int) (day + 4 - DayTimeTable.floorDiv(day + 4, DAYS_PER_WEEK) * DAYS_PER_WEEK) + Calendar.SUNDAY;
+    }
+
+    /**
+     * @return the Monday starting the week of a day since the epoch, like the RRULE default
+     */
+    private static long getWeekStart(long day) {
+        return DayTimeTable.floorDiv(day + 3, DAYS_PER_WEEK) * DAYS_PER_WEEK - 3;
+    }
+
+    private static long getMonthLength(long month) {
+        return fromCivil(month + 1, 1) - fromCivil(month, 1);
+    }
+
+    /**
+     * @param month      the month as {@code 12 * year + month}, with January as 0
+     * @param dayOfMonth the day of the month, starting at 1
+     * @return the day since the epoch
+     */
+    private static long fromCivil(long month, long dayOfMonth) {
+        long year = DayTimeTable.floorDiv(month, MONTHS_PER_YEAR);
+        long monthOfYear = month - year * MONTHS_PER_YEAR + 1;
+
+        // Counts years from March, so leap days are at the end of the year
+        year -= monthOfYear <= 2 ? 1 : 0;
+        long era = DayTimeTable.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (monthOfYear > 2 ? monthOfYear - 3 : monthOfYear + 9) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @return the month, as {@code 12 * year + month}, and the day of the month of a day since the
+     * epoch
+     */
+    @NonNull
+    private static long[] toCivil(long day) {
+        day += 719468;
+        long era = DayTimeTable.floorDiv(day, 146097);
+        long dayOfEra = day - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long dayOfMonth = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long monthOfYear = shiftedMonth < 10 ? shiftedMonth + 2 : shiftedMonth - 10;
+        long year = yearOfEra + era * 400 + (monthOfYear < 2 ? 1 : 0);
+        return new long[]{year * MONTHS_PER_YEAR + monthOfYear, dayOfMonth};
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -DayTimeTable.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * Builds a {@link RecurrenceRule}, by default it recurs on every day, week or month forever.
+     */
+    public static class Builder {
+
+        @NonNull
+        private final TimeZone timeZone;
+        private final long startMillis;
+        private final long durationMillis;
+        private final int frequency;
+        private int interval = 1;
+        private int daysOfWeek;
+        private int count;
+        private long untilMillis = Long.MAX_VALUE;
+        @NonNull
+        private long[] exceptionMillis = new long[0];
+        private int exceptionCount;
+
+        /**
+         * @param timeZone       the time zone whose wall clock the occurrences follow
+         * @param startMillis    the start of the first occurrence
+         * @param durationMillis the duration of each occurrence
+         * @param frequency      one of {@link #FREQUENCY_DAILY}, {@link #FREQUENCY_WEEKLY} or {@link
+         *                       #FREQUENCY_MONTHLY}
+         */
+        public Builder(@NonNull TimeZone timeZone, long startMillis, long durationMillis, int frequency) {
+            if (durationMillis < 0) {
+                throw new IllegalArgumentException("durationMillis must not be negative");
+            }
+
+            if (frequency < FREQUENCY_DAILY || frequency > FREQUENCY_MONTHLY) {
+                throw new IllegalArgumentException("Unknown frequency " + frequency);
+            }
+
+            this.timeZone = timeZone;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+            this.frequency = frequency;
+        }
+
+        /**
+         * @param interval recur on every {@code interval}th day, week or month
+         */
+        @NonNull
+        public Builder setInterval(int interval) {
+            if (interval < 1) {
+                throw new IllegalArgumentException("interval must be positive");
+            }
+
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * @param daysOfWeek the {@link Calendar} days of the week a weekly rule recurs on, by default
+         *                   the day of the first occurrence
+         */
+        @NonNull
+        public Builder setDaysOfWeek(@NonNull int... daysOfWeek) {
+            int mask = 0;
+            for (int dayOfWeek : daysOfWeek) {
+                if (dayOfWeek < Calendar.SUNDAY || dayOfWeek > Calendar.SATURDAY) {
+                    throw new IllegalArgumentException("Unknown day of the week " + dayOfWeek);
+                }
+                mask |= 1 << (dayOfWeek - 1);
+            }
+
+            this.daysOfWeek = mask;
+            return this;
+        }
+
+        /**
+         * @param count the number of occurrences, including excluded ones, or 0 for no limit
+         */
+        @NonNull
+        public Builder setCount(int count) {
+            if (count < 0) {
+                throw new IllegalArgumentException("count must not be negative");
+            }
+
+            this.count = count;
+            return this;
+        }
+
+        /**
+         * @param untilMillis the last instant an occurrence can start at
+         */
+        @NonNull
+        public Builder setUntil(long untilMillis) {
+            this.untilMillis = untilMillis;
+            return this;
+        }
+
+        /**
+         * @param occurrenceStartMillis the start of an occurrence to leave out
+         */
+        @NonNull
+        public Builder addException(long occurrenceStartMillis) {
+            if (exceptionCount == exceptionMillis.length) {
+                exceptionMillis = Arrays.copyOf(exceptionMillis, Math.max(4, exceptionCount * 2));
+            }
+            exceptionMillis[exceptionCount++] = occurrenceStartMillis;
+            return this;
+        }
+
+        @NonNull
+        public RecurrenceRule build() {
+            return new RecurrenceRule(this);
+        }
+    }
+}
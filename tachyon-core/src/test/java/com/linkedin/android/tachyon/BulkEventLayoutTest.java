@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BulkEventLayoutTest {
+
+    /**
+     * Benchmarks only run when the tests are run with -Ptachyon.benchmark.
+     */
+    private static final String BENCHMARK_PROPERTY = "tachyon.benchmark";
+    private static final long FRAME_NANOS = 16_000_000L;
+
+    @Test
+    public void layout() {
+        List<EventTimeRange> timeRanges = Arrays.asList(
+                new EventTimeRange(0, 60),
+                new EventTimeRange(540, 600),
+                new EventTimeRange(570, 630),
+                new EventTimeRange(1020, 1025));
+        BulkEventLayout bulkEventLayout = new BulkEventLayout(8, 18, 200, 600, 2);
+
+        DayEventLayout layout = bulkEventLayout.layout(Arrays.asList(timeRanges)).get(0);
+
+        assertThat(layout.size(), is(4));
+        assertThat(layout.isInDay(0), is(false));
+        assertThat(layout.getBottom(0), is(0));
+        assertLayout(layout, 1, 0, 1, 2, 2, 62, 98, 118);
+        assertLayout(layout, 2, 1, 2, 2, 102, 92, 198, 148);
+        // Short events are stretched to the minimum duration
+        assertLayout(layout, 3, 0, 2, 2, 2, 542, 198, 553);
+    }
+
+    @Test
+    public void layoutMatchesColumnLayout() throws Exception {
+        Random random = new Random(42);
+        List<List<EventTimeRange>> days = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            days.add(getRandomTimeRanges(random, random.nextInt(40)));
+        }
+
+        BulkEventLayout bulkEventLayout = new BulkEventLayout(0, 24, 1000, 1440, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertMatchesColumnLayout(days, bulkEventLayout.layout(days));
+            assertMatchesColumnLayout(days, bulkEventLayout.layout(days, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        Assume.assumeTrue(Boolean.getBoolean(BENCHMARK_PROPERTY));
+
+        Random random = new Random(42);
+        List<List<EventTimeRange>> days = new ArrayList<>();
+        for (int i = 0; i < 92; i++) {
+            days.add(getRandomTimeRanges(random, 20));
+        }
+
+        BulkEventLayout bulkEventLayout = new BulkEventLayout(0, 24, 1000, 1440, 0);
+        int processorCount = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(processorCount);
+        try {
+            for (int threads : new int[]{1, processorCount}) {
+                ExecutorService layoutExecutor = threads > 1 ? executor : null;
+                // Warm up before measuring
+                int iterations = 200;
+                for (int i = 0; i < iterations; i++) {
+                    bulkEventLayout.layout(days, layoutExecutor);
+                }
+
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    bulkEventLayout.layout(days, layoutExecutor);
+                }
+                long averageNanos = (System.nanoTime() - start) / iterations;
+
+                assertThat("A quarter on " + threads + " threads", averageNanos < FRAME_NANOS, is(true));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertMatchesColumnLayout(List<List<EventTimeRange>> days, List<DayEventLayout> layouts) {
+        assertThat(layouts.size(), is(days.size()));
+        for (int i = 0; i < days.size(); i++) {
+            List<EventTimeRange> timeRanges = days.get(i);
+            DayEventLayout layout = layouts.get(i);
+            assertThat(layout.size(), is(timeRanges.size()));
+            if (timeRanges.isEmpty()) {
+                continue;
+            }
+
+            EventColumnLayout columnLayout = new EventColumnLayout();
+            columnLayout.setSize(timeRanges.size());
+            for (int j = 0; j < timeRanges.size(); j++) {
+                columnLayout.setTimeRange(j, timeRanges.get(j).getStartMinute(), timeRanges.get(j).getEndMinute());
+            }
+            columnLayout.layout();
+
+            for (int j = 0; j < timeRanges.size(); j++) {
+                assertThat(layout.getStartColumn(j), is(columnLayout.getStartColumn(j)));
+                assertThat(layout.getEndColumn(j), is(columnLayout.getEndColumn(j)));
+                assertThat(layout.getColumnCount(j), is(columnLayout.getColumnCount(j)));
+            }
+        }
+    }
+
+    private static void assertLayout(DayEventLayout layout,
+                                     int position,
+                                     int startColumn,
+                                     int endColumn,
+                                     int columnCount,
+                                     int start,
+                                     int top,
+                                     int end,
+                                     int bottom) {
+        assertThat(layout.isInDay(position), is(true));
+        assertThat(layout.getStartColumn(position), is(startColumn));
+        assertThat(layout.getEndColumn(position), is(endColumn));
+        assertThat(layout.getColumnCount(position), is(columnCount));
+        assertThat(layout.getStart(position), is(start));
+        assertThat(layout.getTop(position), is(top));
+        assertThat(layout.getEnd(position), is(end));
+        assertThat(layout.getBottom(position), is(bottom));
+    }
+
+    private static List<EventTimeRange> getRandomTimeRanges(Random random, int count) {
+        List<EventTimeRange> timeRanges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int startMinute = random.nextInt(24 * 4) * 15;
+            int duration = (1 + random.nextInt(8)) * 15;
+            timeRanges.add(new EventTimeRange(startMinute, Math.min(startMinute + duration, 24 * 60)));
+        }
+
+        return timeRanges;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DayTimeTableTest {
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+
+    @Test
+    public void regularDay() {
+        // June 1st 2019, midnight is at 4:00 UTC
+        DayTimeTable table = new DayTimeTable(NEW_YORK, utc(2019, Calendar.JUNE, 1, 16, 0));
+
+        assertThat(table.getStartMillis(), is(utc(2019, Calendar.JUNE, 1, 4, 0)));
+        assertThat(table.getEndMillis(), is(utc(2019, Calendar.JUNE, 2, 4, 0)));
+        assertThat(table.getMinuteCount(), is(1440));
+        assertThat(table.getMinute(utc(2019, Calendar.JUNE, 1, 13, 30)), is(570));
+        assertThat(table.getMinute(utc(2019, Calendar.MAY, 31, 23, 0)), is(-300));
+        assertThat(table.getMillis(570), is(utc(2019, Calendar.JUNE, 1, 13, 30)));
+        assertThat(table.toTimeRange(new EpochTimeRange(utc(2019, Calendar.JUNE, 1, 13, 30),
+                utc(2019, Calendar.JUNE, 1, 14, 15))), is(new EventTimeRange(570, 615)));
+    }
+
+    @Test
+    public void daylightSavingTimeBegins() {
+        // March 10th 2019, the clocks go from 2:00 AM straight to 3:00 AM at 7:00 UTC
+        DayTimeTable table = new DayTimeTable(NEW_YORK, utc(2019, Calendar.MARCH, 10, 12, 0));
+
+        assertThat(table.getStartMillis(), is(utc(2019, Calendar.MARCH, 10, 5, 0)));
+        assertThat(table.getEndMillis(), is(utc(2019, Calendar.MARCH, 11, 4, 0)));
+        assertThat(table.getMinuteCount(), is(1380));
+        assertThat(table.getMinute(utc(2019, Calendar.MARCH, 10, 6, 30)), is(90));
+        assertThat(table.getMinute(utc(2019, Calendar.MARCH, 10, 7, 30)), is(210));
+
+        // The skipped hour maps to the moment the clocks went forward
+        assertThat(table.getMillis(150), is(utc(2019, Calendar.MARCH, 10, 7, 0)));
+        assertThat(table.getMillis(210), is(utc(2019, Calendar.MARCH, 10, 7, 30)));
+
+        // An hour long event across the switch is drawn from 1:00 AM to 3:00 AM
+        assertThat(table.toTimeRange(utc(2019, Calendar.MARCH, 10, 6, 0), utc(2019, Calendar.MARCH, 10, 7, 0)),
+                is(new EventTimeRange(60, 180)));
+    }
+
+    @Test
+    public void daylightSavingTimeEnds() {
+        // November 3rd 2019, the clocks go from 2:00 AM back to 1:00 AM at 6:00 UTC
+        DayTimeTable table = new DayTimeTable(NEW_YORK, utc(2019, Calendar.NOVEMBER, 3, 12, 0));
+
+        assertThat(table.getStartMillis(), is(utc(2019, Calendar.NOVEMBER, 3, 4, 0)));
+        assertThat(table.getEndMillis(), is(utc(2019, Calendar.NOVEMBER, 4, 5, 0)));
+        assertThat(table.getMinuteCount(), is(1500));
+
+        // Both passes through 1:30 AM land on the same minute
+        assertThat(table.getMinute(utc(2019, Calendar.NOVEMBER, 3, 5, 30)), is(90));
+        assertThat(table.getMinute(utc(2019, Calendar.NOVEMBER, 3, 6, 30)), is(90));
+        assertThat(table.getMillis(90), is(utc(2019, Calendar.NOVEMBER, 3, 5, 30)));
+        assertThat(table.getMillis(180), is(utc(2019, Calendar.NOVEMBER, 3, 8, 0)));
+
+        // A 45 minute event from 1:30 AM to 1:15 AM keeps its real duration
+        assertThat(table.toTimeRange(utc(2019, Calendar.NOVEMBER, 3, 5, 30), utc(2019, Calendar.NOVEMBER, 3, 6, 15)),
+                is(new EventTimeRange(90, 135)));
+        assertThat(table.toTimeRange(utc(2019, Calendar.NOVEMBER, 3, 5, 0), utc(2019, Calendar.NOVEMBER, 3, 8, 0)),
+                is(new EventTimeRange(60, 180)));
+    }
+
+    private static long utc(int year, int month, int dayOfMonth, int hour, int minute) {
+        Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, month, dayOfMonth, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DirectionalRectTest {
+
+    @Test
+    public void setRect() {
+        DirectionalRect rect = new DirectionalRect();
+        rect.set(false, 20, 1, 2, 3, 4);
+
+        assertThat(rect.getLeft(), is(1));
+        assertThat(rect.getTop(), is(2));
+        assertThat(rect.getRight(), is(3));
+        assertThat(rect.getBottom(), is(4));
+
+        rect.set(true, 20, 1, 2, 3, 4);
+
+        assertThat(rect.getLeft(), is(17));
+        assertThat(rect.getTop(), is(2));
+        assertThat(rect.getRight(), is(19));
+        assertThat(rect.getBottom(), is(4));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EventGeometryTest {
+
+    private EventGeometry geometry;
+    private DirectionalRect rect;
+
+    @Before
+    public void setUp() {
+        geometry = new EventGeometry(1, 2);
+        geometry.setHourRange(8, 10);
+        geometry.setEventArea(false, 200, 20, 10, 180, 1);
+        rect = new DirectionalRect();
+    }
+
+    @Test
+    public void setColumnRect() {
+        geometry.setColumnRect(rect, 510, 540, 1, 3, geometry.getColumnWidth(4));
+
+        assertThat(rect.getLeft(), is(61));
+        assertThat(rect.getTop(), is(43));
+        assertThat(rect.getRight(), is(139));
+        assertThat(rect.getBottom(), is(69));
+    }
+
+    @Test
+    public void setColumnRectClipsToHourRange() {
+        geometry.setColumnRect(rect, 420, 510, 0, 1, geometry.getColumnWidth(1));
+
+        assertThat(rect.getTop(), is(13));
+        assertThat(rect.getBottom(), is(39));
+    }
+
+    @Test
+    public void setColumnRectKeepsShortEventsAtTheirStart() {
+        geometry.setColumnRect(rect, 540, 545, 0, 1, geometry.getColumnWidth(1));
+
+        assertThat(rect.getTop(), is(73));
+        assertThat(rect.getBottom(), is(84));
+
+        geometry.setColumnRect(rect, 470, 485, 0, 1, geometry.getColumnWidth(1));
+
+        assertThat(rect.getTop(), is(13));
+        assertThat(rect.getBottom(), is(24));
+    }
+
+    @Test
+    public void setColumnRectStretchesShortEvents() {
+        geometry.setColumnRect(rect, 595, 600, 0, 1, geometry.getColumnWidth(1));
+
+        assertThat(rect.getTop(), is(118));
+        assertThat(rect.getBottom(), is(129));
+    }
+
+    @Test
+    public void isInDay() {
+        assertThat(geometry.isInDay(new EventTimeRange(420, 480)), is(false));
+        assertThat(geometry.isInDay(new EventTimeRange(420, 481)), is(true));
+        assertThat(geometry.isInDay(new EventTimeRange(599, 700)), is(true));
+        assertThat(geometry.isInDay(new EventTimeRange(600, 700)), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setHourRangeRejectsEmptyRange() {
+        geometry.setHourRange(10, 10);
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EventLayoutStrategyTest {
+
+    /**
+     * Benchmarks only run when the tests are run with -Ptachyon.benchmark.
+     */
+    private static final String BENCHMARK_PROPERTY = "tachyon.benchmark";
+    private static final long FRAME_NANOS = 16_000_000L;
+
+    @Test
+    public void greedy() {
+        EventColumnLayout layout = layout(getTimeRanges(), new GreedyEventLayoutStrategy());
+
+        assertThat(layout.getClusterCount(), is(2));
+        assertThat(layout.getColumnCount(), is(3));
+        assertColumnSpan(layout, 0, 0, 1, 3);
+        assertColumnSpan(layout, 1, 1, 3, 3);
+        assertColumnSpan(layout, 2, 1, 2, 3);
+        assertColumnSpan(layout, 3, 2, 3, 3);
+        assertColumnSpan(layout, 4, 0, 1, 3);
+        assertColumnSpan(layout, 5, 1, 3, 3);
+    }
+
+    @Test
+    public void equalWidth() {
+        EventColumnLayout layout = layout(getTimeRanges(), new EqualWidthEventLayoutStrategy());
+
+        assertThat(layout.getColumnCount(), is(3));
+        assertColumnSpan(layout, 0, 0, 1, 3);
+        assertColumnSpan(layout, 1, 1, 2, 3);
+        assertColumnSpan(layout, 2, 1, 2, 3);
+        assertColumnSpan(layout, 3, 2, 3, 3);
+        assertColumnSpan(layout, 4, 0, 1, 2);
+        assertColumnSpan(layout, 5, 1, 2, 2);
+    }
+
+    @Test
+    public void cascading() {
+        List<EventTimeRange> timeRanges = getTimeRanges();
+        timeRanges.add(new EventTimeRange(900, 960));
+        EventColumnLayout layout = layout(timeRanges, new CascadingEventLayoutStrategy());
+
+        assertColumnSpan(layout, 0, 0, 4, 4);
+        assertColumnSpan(layout, 1, 1, 4, 4);
+        assertColumnSpan(layout, 3, 2, 4, 4);
+        assertColumnSpan(layout, 4, 0, 3, 3);
+        assertColumnSpan(layout, 5, 1, 3, 3);
+        assertColumnSpan(layout, 6, 0, 1, 1);
+    }
+
+    @Test
+    public void bitset() {
+        EventColumnLayout layout = layout(getTimeRanges(), new BitsetEventLayoutStrategy());
+
+        assertColumnSpansEqual(layout, layout(getTimeRanges(), new GreedyEventLayoutStrategy()));
+
+        // Events closer than a slot apart can't share a column
+        List<EventTimeRange> timeRanges = new ArrayList<>();
+        timeRanges.add(new EventTimeRange(0, 62));
+        timeRanges.add(new EventTimeRange(63, 120));
+        timeRanges.add(new EventTimeRange(0, 400));
+        layout = layout(timeRanges, new BitsetEventLayoutStrategy());
+
+        assertColumnSpan(layout, 0, 0, 1, 3);
+        assertColumnSpan(layout, 1, 1, 2, 3);
+        assertColumnSpan(layout, 2, 2, 3, 3);
+    }
+
+    @Test
+    public void greedyMatchesReference() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            List<EventTimeRange> timeRanges = getRandomTimeRanges(random, 1 + random.nextInt(40));
+            EventColumnLayout layout = layout(timeRanges, new GreedyEventLayoutStrategy());
+
+            int[][] expected = getReferenceColumnSpans(timeRanges);
+            for (int j = 0; j < timeRanges.size(); j++) {
+                assertThat(layout.getStartColumn(j), is(expected[j][0]));
+                assertThat(layout.getEndColumn(j), is(expected[j][1]));
+            }
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        Assume.assumeTrue(Boolean.getBoolean(BENCHMARK_PROPERTY));
+
+        EventLayoutStrategy[] strategies = {
+                new GreedyEventLayoutStrategy(),
+                new EqualWidthEventLayoutStrategy(),
+                new CascadingEventLayoutStrategy(),
+                new BitsetEventLayoutStrategy()
+        };
+        int[] eventCounts = {10, 100, 1000};
+        Random random = new Random(42);
+
+        for (int eventCount : eventCounts) {
+            List<EventTimeRange> timeRanges = getRandomTimeRanges(random, eventCount);
+            long[] averageNanos = new long[strategies.length];
+            for (int i = 0; i < strategies.length; i++) {
+                averageNanos[i] = measure(timeRanges, strategies[i]);
+
+                // Every strategy lays out a busy day well within a frame
+                if (eventCount <= 100) {
+                    assertThat(strategies[i].getClass().getSimpleName() + " with " + eventCount + " events",
+                            averageNanos[i] < FRAME_NANOS, is(true));
+                }
+            }
+
+            // Checking a word at a time wins over checking every other event once clusters grow
+            if (eventCount >= 1000) {
+                assertThat(averageNanos[3] < averageNanos[0], is(true));
+            }
+        }
+    }
+
+    private static long measure(List<EventTimeRange> timeRanges, EventLayoutStrategy strategy) {
+        // Warm up before measuring
+        int iterations = Math.max(10000 / timeRanges.size(), 10);
+        for (int i = 0; i < iterations; i++) {
+            layout(timeRanges, strategy);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            layout(timeRanges, strategy);
+        }
+
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    private static List<EventTimeRange> getTimeRanges() {
+        List<EventTimeRange> timeRanges = new ArrayList<>();
+        timeRanges.add(new EventTimeRange(30, 180));
+        timeRanges.add(new EventTimeRange(90, 120));
+        timeRanges.add(new EventTimeRange(150, 300));
+        timeRanges.add(new EventTimeRange(150, 300));
+        timeRanges.add(new EventTimeRange(600, 660));
+        timeRanges.add(new EventTimeRange(630, 690));
+        return timeRanges;
+    }
+
+    private static List<EventTimeRange> getRandomTimeRanges(Random random, int count) {
+        List<EventTimeRange> timeRanges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int startMinute = random.nextInt(24 * 4) * 15;
+            int duration = (1 + random.nextInt(8)) * 15;
+            timeRanges.add(new EventTimeRange(startMinute, Math.min(startMinute + duration, 24 * 60)));
+        }
+
+        return timeRanges;
+    }
+
+    /**
+     * The column spans the original helper found, by checking every other event for each column.
+     */
+    private static int[][] getReferenceColumnSpans(List<EventTimeRange> timeRanges) {
+        int size = timeRanges.size();
+        int[][] spans = new int[size][];
+        int columnCount = 0;
+        for (int i = 0; i < size; i++) {
+            spans[i] = new int[]{-1, -1};
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int column = 0; column < size; column++) {
+                if (isReferenceColumnEmpty(timeRanges, spans, column, i)) {
+                    spans[i][0] = column;
+                    spans[i][1] = column + 1;
+                    columnCount = Math.max(columnCount, column + 1);
+                    break;
+                }
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int column = spans[i][1]; column < columnCount; column++) {
+                if (!isReferenceColumnEmpty(timeRanges, spans, column, i)) {
+                    break;
+                }
+
+                spans[i][1]++;
+            }
+        }
+
+        return spans;
+    }
+
+    private static boolean isReferenceColumnEmpty(List<EventTimeRange> timeRanges,
+                                                  int[][] spans,
+                                                  int column,
+                                                  int position) {
+        for (int i = 0; i < timeRanges.size(); i++) {
+            if (i != position && spans[i][0] == column && timeRanges.get(i).conflicts(timeRanges.get(position))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static EventColumnLayout layout(List<EventTimeRange> timeRanges, EventLayoutStrategy strategy) {
+        EventColumnLayout layout = new EventColumnLayout(strategy);
+        layout.setSize(timeRanges.size());
+        for (int i = 0; i < timeRanges.size(); i++) {
+            layout.setTimeRange(i, timeRanges.get(i).getStartMinute(), timeRanges.get(i).getEndMinute());
+        }
+
+        layout.layout();
+        return layout;
+    }
+
+    private static void assertColumnSpan(EventColumnLayout layout,
+                                         int position,
+                                         int startColumn,
+                                         int endColumn,
+                                         int columnCount) {
+        assertThat(layout.getStartColumn(position), is(startColumn));
+        assertThat(layout.getEndColumn(position), is(endColumn));
+        assertThat(layout.getColumnCount(position), is(columnCount));
+    }
+
+    private static void assertColumnSpansEqual(EventColumnLayout actual, EventColumnLayout expected) {
+        assertThat(actual.getColumnCount(), is(expected.getColumnCount()));
+        for (int i = 0; i < expected.getClusterEnd(expected.getClusterCount() - 1); i++) {
+            assertThat(actual.getStartColumn(i), is(expected.getStartColumn(i)));
+            assertThat(actual.getEndColumn(i), is(expected.getEndColumn(i)));
+        }
+    }
+}
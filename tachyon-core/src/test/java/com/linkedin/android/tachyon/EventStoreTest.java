@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EventStoreTest {
+
+    @Test
+    public void snapshotsAreImmutable() {
+        EventStore<String> store = new EventStore<>();
+        EventSnapshot<String> first = store.getSnapshot();
+        List<String> events = new ArrayList<>(Arrays.asList("Standup", "Lunch"));
+        EventSnapshot<String> second = store.setEvents(2, events);
+        events.add("Dinner");
+
+        assertThat(first.getVersion(), is(0L));
+        assertThat(first.getEvents(2), is(Collections.<String>emptyList()));
+        assertThat(second.getVersion(), is(1L));
+        assertThat(second.getEvents(2), is(Arrays.asList("Standup", "Lunch")));
+        assertThat(store.getSnapshot(), is(sameInstance(second)));
+    }
+
+    @Test
+    public void unchangedDaysAreShared() {
+        EventStore<String> store = new EventStore<>();
+        EventSnapshot<String> first = store.setEvents(1, Collections.singletonList("Standup"));
+        EventSnapshot<String> second = store.setEvents(3, Collections.singletonList("Retro"));
+        EventSnapshot<String> third = store.setEvents(2, Collections.singletonList("Lunch"));
+
+        assertThat(third.getEvents(1), is(sameInstance(first.getEvents(1))));
+        assertThat(third.getEvents(3), is(sameInstance(second.getEvents(3))));
+        assertThat(store.setEvents(2, Collections.singletonList("Lunch")), is(sameInstance(third)));
+    }
+
+    @Test
+    public void changedDays() {
+        EventStore<String> store = new EventStore<>();
+        store.setEvents(1, Collections.singletonList("Standup"));
+        long renderedVersion = store.setEvents(2, Collections.singletonList("Lunch")).getVersion();
+
+        Map<Long, List<String>> events = new HashMap<>();
+        events.put(3L, Collections.singletonList("Retro"));
+        events.put(1L, null);
+        EventSnapshot<String> snapshot = store.setEvents(events);
+
+        assertThat(snapshot.getChangedDays(renderedVersion), is(new long[]{1, 3}));
+        assertThat(snapshot.getChangedDays(0), is(new long[]{1, 2, 3}));
+        assertThat(snapshot.hasChanged(1, renderedVersion), is(true));
+        assertThat(snapshot.hasChanged(2, renderedVersion), is(false));
+        assertThat(snapshot.hasChanged(4, renderedVersion), is(false));
+        assertThat(snapshot.getEvents(1), is(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void concurrentWriters() throws InterruptedException {
+        final EventStore<Integer> store = new EventStore<>();
+        final int writes = 1000;
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final long day = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 1; j <= writes; j++) {
+                        store.setEvents(day, Collections.singletonList(j));
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // No write is lost, every one of them published its own version
+        EventSnapshot<Integer> snapshot = store.getSnapshot();
+        assertThat(snapshot.getVersion(), is((long) threads.length * writes));
+        for (int i = 0; i < threads.length; i++) {
+            assertThat(snapshot.getEvents(i), is(Collections.singletonList(writes)));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EventTimeRangeTest {
+
+    @Test
+    public void timeRanges() {
+        EventTimeRange range = new EventTimeRange(20, 40);
+
+        assertThat(range.conflicts(new EventTimeRange(5, 15)), is(false));
+        assertThat(range.conflicts(new EventTimeRange(50, 90)), is(false));
+        assertThat(range.conflicts(new EventTimeRange(5, 20)), is(false));
+        assertThat(range.conflicts(new EventTimeRange(40, 90)), is(false));
+
+        assertThat(range.conflicts(new EventTimeRange(20, 40)), is(true));
+        assertThat(range.conflicts(new EventTimeRange(10, 60)), is(true));
+        assertThat(range.conflicts(new EventTimeRange(25, 35)), is(true));
+        assertThat(range.conflicts(new EventTimeRange(10, 35)), is(true));
+        assertThat(range.conflicts(new EventTimeRange(25, 50)), is(true));
+    }
+
+    @Test
+    public void timeRangeEquality() {
+        EventTimeRange range = new EventTimeRange(20, 40);
+
+        assertThat(range.equals(new EventTimeRange(20, 40)), is(true));
+        assertThat(range.hashCode(), is(new EventTimeRange(20, 40).hashCode()));
+        assertThat(range.equals(new EventTimeRange(20, 45)), is(false));
+        assertThat(range.equals(new EventTimeRange(15, 40)), is(false));
+    }
+}
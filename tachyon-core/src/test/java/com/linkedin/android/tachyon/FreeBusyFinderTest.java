@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FreeBusyFinderTest {
+
+    private final FreeBusyFinder finder = new FreeBusyFinder(9, 17);
+
+    @Test
+    public void findBusyRanges() {
+        List<EventTimeRange> busyRanges = finder.findBusyRanges(getCalendars());
+
+        assertThat(busyRanges, is(Arrays.asList(
+                new EventTimeRange(540, 600),
+                new EventTimeRange(630, 735),
+                new EventTimeRange(780, 795),
+                new EventTimeRange(960, 1020))));
+    }
+
+    @Test
+    public void findFreeRanges() {
+        List<EventTimeRange> freeRanges = finder.findFreeRanges(getCalendars(), 30);
+
+        assertThat(freeRanges, is(Arrays.asList(
+                new EventTimeRange(600, 630),
+                new EventTimeRange(735, 780),
+                new EventTimeRange(795, 960))));
+    }
+
+    @Test
+    public void findFreeSlots() {
+        List<EventTimeRange> slots = finder.findFreeSlots(getCalendars(), 30, 4);
+
+        assertThat(slots, is(Arrays.asList(
+                new EventTimeRange(600, 630),
+                new EventTimeRange(735, 765),
+                new EventTimeRange(795, 825),
+                new EventTimeRange(825, 855))));
+    }
+
+    @Test
+    public void findBusyRangesAtHourRangeBoundaries() {
+        List<EventTimeRange> busyRanges = finder.findBusyRanges(Arrays.asList(
+                Arrays.asList(
+                        // Ends as the range starts, so it isn't shown
+                        new EventTimeRange(530, 540),
+                        // Clipped to the range before it's stretched
+                        new EventTimeRange(535, 545)),
+                Collections.singletonList(
+                        // Stretched without running past the end of the range
+                        new EventTimeRange(1015, 1020))));
+
+        assertThat(busyRanges, is(Arrays.asList(
+                new EventTimeRange(540, 555),
+                new EventTimeRange(1005, 1020))));
+    }
+
+    @Test
+    public void findBusyRangesMatchesPairwiseConflicts() {
+        Random random = new Random(42);
+        FreeBusyFinder fullDayFinder = new FreeBusyFinder(0, 24);
+        for (int iteration = 0; iteration < 100; iteration++) {
+            List<List<EventTimeRange>> calendars = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                calendars.add(getRandomTimeRanges(random, random.nextInt(10)));
+            }
+
+            boolean[] busyMinutes = new boolean[24 * 60];
+            for (List<EventTimeRange> calendar : calendars) {
+                for (EventTimeRange timeRange : calendar) {
+                    for (int minute = timeRange.getStartMinute(); minute < timeRange.getEndMinute(); minute++) {
+                        busyMinutes[minute] = true;
+                    }
+                }
+            }
+
+            boolean[] foundBusyMinutes = new boolean[24 * 60];
+            for (EventTimeRange busyRange : fullDayFinder.findBusyRanges(calendars)) {
+                for (int minute = busyRange.getStartMinute(); minute < busyRange.getEndMinute(); minute++) {
+                    foundBusyMinutes[minute] = true;
+                }
+            }
+
+            assertThat(Arrays.equals(foundBusyMinutes, busyMinutes), is(true));
+        }
+    }
+
+    private static List<List<EventTimeRange>> getCalendars() {
+        return Arrays.asList(
+                Arrays.asList(
+                        new EventTimeRange(480, 600),
+                        new EventTimeRange(660, 720)),
+                Arrays.asList(
+                        new EventTimeRange(630, 690),
+                        // Shorter than the minimum duration
+                        new EventTimeRange(720, 725),
+                        new EventTimeRange(780, 780)),
+                Collections.<EventTimeRange>emptyList(),
+                Arrays.asList(
+                        new EventTimeRange(960, 1080)));
+    }
+
+    private static List<EventTimeRange> getRandomTimeRanges(Random random, int count) {
+        List<EventTimeRange> timeRanges = new ArrayList<>(count);
+        int startMinute = 0;
+        for (int i = 0; i < count; i++) {
+            startMinute += random.nextInt(8) * 15;
+            int duration = (1 + random.nextInt(8)) * 15;
+            timeRanges.add(new EventTimeRange(Math.min(startMinute, 24 * 60),
+                    Math.min(startMinute + duration, 24 * 60)));
+        }
+
+        return timeRanges;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedEventFileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        file = new File(folder.getRoot(), "events");
+        EventFileAppender appender = new EventFileAppender(file);
+        appender.appendDay(20, Arrays.asList(new EventTimeRange(540, 600), new EventTimeRange(-60, 30)),
+                Arrays.asList("Standup", null));
+        appender.appendDay(10, Collections.singletonList(new EventTimeRange(720, 780)),
+                Collections.singletonList("Lunch \u2615"));
+        appender.close();
+    }
+
+    @Test
+    public void readDays() throws IOException {
+        MappedEventFile mappedFile = new MappedEventFile(file);
+        assertThat(mappedFile.getDayCount(), is(2));
+        assertThat(mappedFile.findDay(15), is(-1));
+
+        int day = mappedFile.findDay(20);
+        assertThat(mappedFile.getEventCount(day), is(2));
+        assertThat(mappedFile.getTimeRange(day, 0), is(new EventTimeRange(540, 600)));
+        assertThat(mappedFile.getStartMinute(day, 1), is(-60));
+        assertThat(mappedFile.getEndMinute(day, 1), is(30));
+        assertThat(mappedFile.getTitle(day, 0), is("Standup"));
+        assertThat(mappedFile.getTitle(day, 1), is(nullValue()));
+        assertThat(mappedFile.getTitle(mappedFile.findDay(10), 0), is("Lunch \u2615"));
+    }
+
+    @Test
+    public void appendToExistingFile() throws IOException {
+        EventFileAppender appender = new EventFileAppender(file);
+        appender.appendDay(20, Collections.singletonList(new EventTimeRange(600, 660)), null);
+        appender.appendDay(30, Collections.<EventTimeRange>emptyList(), null);
+        appender.close();
+
+        MappedEventFile mappedFile = new MappedEventFile(file);
+        assertThat(mappedFile.getDayCount(), is(3));
+        assertThat(mappedFile.getTitle(mappedFile.findDay(10), 0), is("Lunch \u2615"));
+        assertThat(mappedFile.getEventCount(mappedFile.findDay(30)), is(0));
+
+        // The replaced day only has its latest events
+        int day = mappedFile.findDay(20);
+        assertThat(mappedFile.getEventCount(day), is(1));
+        assertThat(mappedFile.getTimeRange(day, 0), is(new EventTimeRange(600, 660)));
+        assertThat(mappedFile.getTitle(day, 0), is(nullValue()));
+    }
+
+    @Test
+    public void appendAfterExistingIndex() throws IOException {
+        byte[] contents = readFile(file);
+        EventFileAppender appender = new EventFileAppender(file);
+        appender.appendDay(20, Collections.singletonList(new EventTimeRange(600, 660)), null);
+
+        // Until the appender is closed, the old index and trailer stay intact
+        byte[] appendedContents = readFile(file);
+        assertThat(Arrays.equals(Arrays.copyOf(appendedContents, contents.length), contents), is(true));
+        appender.close();
+
+        MappedEventFile mappedFile = new MappedEventFile(file);
+        assertThat(mappedFile.getDayCount(), is(2));
+        assertThat(mappedFile.getTimeRange(mappedFile.findDay(20), 0), is(new EventTimeRange(600, 660)));
+    }
+
+    @Test
+    public void setTimeRanges() throws IOException {
+        MappedEventFile mappedFile = new MappedEventFile(file);
+        EventColumnLayout layout = new EventColumnLayout();
+        assertThat(mappedFile.setTimeRanges(mappedFile.findDay(20), layout), is(2));
+        layout.layout();
+
+        assertThat(layout.getColumnCount(), is(1));
+        assertThat(layout.overlaps(0, 540, 600), is(true));
+        assertThat(layout.overlaps(1, -60, 30), is(true));
+    }
+
+    @Test(expected = IOException.class)
+    public void readUnclosedFile() throws IOException {
+        File newFile = new File(folder.getRoot(), "new");
+        EventFileAppender appender = new EventFileAppender(newFile);
+        appender.appendDay(10, Collections.singletonList(new EventTimeRange(720, 780)), null);
+        try {
+            new MappedEventFile(newFile);
+        } finally {
+            appender.close();
+        }
+    }
+
+    @Test
+    public void recoverFromInterruptedAppend() throws IOException {
+        long length = file.length();
+        EventFileAppender appender = new EventFileAppender(file);
+        appender.appendDay(30, Arrays.asList(new EventTimeRange(540, 600), new EventTimeRange(600, 660)),
+                Arrays.asList("Review", "Retro"));
+
+        // A copy cut off in the middle of the new record is what a crash during the append leaves
+        File crashedFile = new File(folder.getRoot(), "crashed");
+        byte[] contents = readFile(file);
+        writeFile(crashedFile, Arrays.copyOf(contents, (int) (length + (contents.length - length) / 2)));
+        appender.close();
+
+        MappedEventFile mappedFile = new MappedEventFile(crashedFile);
+        assertThat(mappedFile.getDayCount(), is(2));
+        assertThat(mappedFile.findDay(30), is(-1));
+        assertThat(mappedFile.getTitle(mappedFile.findDay(20), 0), is("Standup"));
+
+        // Appending again drops the partial record
+        appender = new EventFileAppender(crashedFile);
+        assertThat(crashedFile.length(), is(length));
+        appender.appendDay(30, Collections.singletonList(new EventTimeRange(540, 600)), null);
+        appender.close();
+
+        mappedFile = new MappedEventFile(crashedFile);
+        assertThat(mappedFile.getDayCount(), is(3));
+        assertThat(mappedFile.getTimeRange(mappedFile.findDay(30), 0), is(new EventTimeRange(540, 600)));
+    }
+
+    @Test
+    public void closeTwice() throws IOException {
+        EventFileAppender appender = new EventFileAppender(file);
+        appender.appendDay(30, Collections.<EventTimeRange>emptyList(), null);
+        appender.close();
+        long length = file.length();
+
+        appender.close();
+        assertThat(file.length(), is(length));
+        assertThat(new MappedEventFile(file).getDayCount(), is(3));
+    }
+
+    @Test(expected = IOException.class)
+    public void readCorruptIndex() throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(randomAccessFile.length() - MappedEventFile.TRAILER_SIZE);
+        long indexOffset = randomAccessFile.readLong();
+        randomAccessFile.seek(indexOffset);
+        randomAccessFile.writeInt(3);
+        randomAccessFile.close();
+
+        new MappedEventFile(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void readRecordPastIndex() throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(randomAccessFile.length() - MappedEventFile.TRAILER_SIZE);
+        long indexOffset = randomAccessFile.readLong();
+        randomAccessFile.seek(indexOffset + 4 + 8);
+        randomAccessFile.writeLong(indexOffset);
+        randomAccessFile.close();
+
+        new MappedEventFile(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void readCorruptEventCount() throws IOException {
+        int day = new MappedEventFile(file).findDay(20);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(day);
+        randomAccessFile.writeInt(Integer.MAX_VALUE / 16);
+        randomAccessFile.close();
+
+        new MappedEventFile(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void readCorruptTitleOffset() throws IOException {
+        int day = new MappedEventFile(file).findDay(20);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(day + 4 + 4);
+        randomAccessFile.writeInt(1000);
+        randomAccessFile.close();
+
+        MappedEventFile mappedFile = new MappedEventFile(file);
+        mappedFile.getTitle(mappedFile.findDay(20), 0);
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            byte[] contents = new byte[(int) randomAccessFile.length()];
+            randomAccessFile.readFully(contents);
+            return contents;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static void writeFile(File file, byte[] contents) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.write(contents);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RecurrenceExpanderTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long HOUR = 60 * 60 * 1000;
+    private static final long DAY = 24 * HOUR;
+
+    private RecurrenceExpander<String> expander;
+
+    @Before
+    public void setup() {
+        expander = new RecurrenceExpander<>(2);
+        expander.setRules(Arrays.asList("Standup", "Hold"), Arrays.asList(
+                new RecurrenceRule.Builder(UTC, 10 * HOUR, HOUR / 4, RecurrenceRule.FREQUENCY_DAILY).build(),
+                new RecurrenceRule.Builder(UTC, 9 * HOUR, 2 * HOUR, RecurrenceRule.FREQUENCY_DAILY).build()));
+    }
+
+    @Test
+    public void occurrencesAreSortedByStart() {
+        List<RecurrenceExpander.Occurrence<String>> occurrences = expander.getOccurrences(
+                new DayTimeTable(UTC, 3 * DAY));
+
+        assertThat(occurrences, is(Arrays.asList(
+                new RecurrenceExpander.Occurrence<>("Hold", new EpochTimeRange(3 * DAY + 9 * HOUR, 3 * DAY + 11 * HOUR)),
+                new RecurrenceExpander.Occurrence<>("Standup",
+                        new EpochTimeRange(3 * DAY + 10 * HOUR, 3 * DAY + 10 * HOUR + HOUR / 4)))));
+    }
+
+    @Test
+    public void windowsAreCached() {
+        List<RecurrenceExpander.Occurrence<String>> first = expander.getOccurrences(DAY, 2 * DAY);
+        List<RecurrenceExpander.Occurrence<String>> second = expander.getOccurrences(2 * DAY, 3 * DAY);
+
+        assertThat(expander.getOccurrences(DAY, 2 * DAY), is(sameInstance(first)));
+
+        // The second window is now the least recently used one, and is evicted for the third
+        expander.getOccurrences(3 * DAY, 4 * DAY);
+        assertThat(expander.getOccurrences(DAY, 2 * DAY), is(sameInstance(first)));
+        assertThat(expander.getOccurrences(2 * DAY, 3 * DAY), is(not(sameInstance(second))));
+        assertThat(expander.getOccurrences(2 * DAY, 3 * DAY), is(second));
+    }
+
+    @Test
+    public void setRulesClearsWindows() {
+        List<RecurrenceExpander.Occurrence<String>> occurrences = expander.getOccurrences(DAY, 2 * DAY);
+        expander.setRules(null, null);
+
+        assertThat(occurrences.size(), is(2));
+        assertThat(expander.getOccurrences(DAY, 2 * DAY).isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setRulesWithMissingRule() {
+        expander.setRules(Arrays.asList("Standup", "Hold"), Arrays.asList(
+                new RecurrenceRule.Builder(UTC, 0, HOUR, RecurrenceRule.FREQUENCY_DAILY).build()));
+    }
+}
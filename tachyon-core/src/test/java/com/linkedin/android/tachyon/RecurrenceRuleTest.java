@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RecurrenceRuleTest {
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+    private static final long HALF_HOUR = 30 * 60 * 1000;
+
+    @Test
+    public void dailyWithCountAndException() {
+        // 9:00 AM on Monday June 3rd 2019, for 5 days but not on Wednesday
+        RecurrenceRule rule = new RecurrenceRule.Builder(NEW_YORK, local(2019, Calendar.JUNE, 3, 9), HALF_HOUR,
+                RecurrenceRule.FREQUENCY_DAILY)
+                .setCount(5)
+                .addException(local(2019, Calendar.JUNE, 5, 9))
+                .build();
+
+        assertThat(expand(rule, local(2019, Calendar.JUNE, 1, 0), local(2019, Calendar.JULY, 1, 0)), is(Arrays.asList(
+                occurrence(2019, Calendar.JUNE, 3, 9),
+                occurrence(2019, Calendar.JUNE, 4, 9),
+                occurrence(2019, Calendar.JUNE, 6, 9),
+                occurrence(2019, Calendar.JUNE, 7, 9))));
+
+        // The excluded occurrence still counts, so a window jumped to past it still ends on the 7th
+        assertThat(expand(rule, local(2019, Calendar.JUNE, 7, 0), local(2019, Calendar.JUNE, 9, 0)),
+                is(Arrays.asList(occurrence(2019, Calendar.JUNE, 7, 9))));
+    }
+
+    @Test
+    public void weeklyOnDaysOfWeek() {
+        // Every other week on Tuesdays and Thursdays, starting Tuesday January 1st 2019
+        RecurrenceRule rule = new RecurrenceRule.Builder(NEW_YORK, local(2019, Calendar.JANUARY, 1, 10), HALF_HOUR,
+                RecurrenceRule.FREQUENCY_WEEKLY)
+                .setInterval(2)
+                .setDaysOfWeek(Calendar.TUESDAY, Calendar.THURSDAY)
+                .setCount(100)
+                .build();
+
+        assertThat(expand(rule, local(2019, Calendar.JANUARY, 1, 0), local(2019, Calendar.JANUARY, 20, 0)),
+                is(Arrays.asList(
+                        occurrence(2019, Calendar.JANUARY, 1, 10),
+                        occurrence(2019, Calendar.JANUARY, 3, 10),
+                        occurrence(2019, Calendar.JANUARY, 15, 10),
+                        occurrence(2019, Calendar.JANUARY, 17, 10))));
+
+        // The 100th occurrence is on the Thursday of the 50th week, 98 weeks after the first
+        assertThat(expand(rule, local(2020, Calendar.NOVEMBER, 10, 0), local(2020, Calendar.DECEMBER, 31, 0)),
+                is(Arrays.asList(
+                        occurrence(2020, Calendar.NOVEMBER, 17, 10),
+                        occurrence(2020, Calendar.NOVEMBER, 19, 10))));
+    }
+
+    @Test
+    public void monthlySkipsShortMonths() {
+        RecurrenceRule rule = new RecurrenceRule.Builder(NEW_YORK, local(2019, Calendar.JANUARY, 31, 12), HALF_HOUR,
+                RecurrenceRule.FREQUENCY_MONTHLY)
+                .setUntil(local(2019, Calendar.MAY, 31, 12))
+                .build();
+
+        assertThat(expand(rule, local(2019, Calendar.JANUARY, 1, 0), local(2020, Calendar.JANUARY, 1, 0)),
+                is(Arrays.asList(
+                        occurrence(2019, Calendar.JANUARY, 31, 12),
+                        occurrence(2019, Calendar.MARCH, 31, 12),
+                        occurrence(2019, Calendar.MAY, 31, 12))));
+    }
+
+    @Test
+    public void keepsWallClockTimeAcrossDaylightSavingTime() {
+        RecurrenceRule rule = new RecurrenceRule.Builder(NEW_YORK, local(2019, Calendar.MARCH, 9, 9), HALF_HOUR,
+                RecurrenceRule.FREQUENCY_DAILY)
+                .build();
+
+        List<EpochTimeRange> occurrences = expand(rule, local(2019, Calendar.MARCH, 9, 0),
+                local(2019, Calendar.MARCH, 11, 0));
+        assertThat(occurrences, is(Arrays.asList(
+                occurrence(2019, Calendar.MARCH, 9, 9),
+                occurrence(2019, Calendar.MARCH, 10, 9))));
+        assertThat(occurrences.get(1).getStartMillis() - occurrences.get(0).getStartMillis(),
+                is(23 * 60 * 60 * 1000L));
+    }
+
+    @Test
+    public void windowOverlapsOccurrence() {
+        RecurrenceRule rule = new RecurrenceRule.Builder(NEW_YORK, local(2019, Calendar.JUNE, 3, 23), 4 * HALF_HOUR,
+                RecurrenceRule.FREQUENCY_DAILY)
+                .build();
+
+        // Only the occurrence starting the evening before reaches into the window
+        assertThat(expand(rule, local(2019, Calendar.JUNE, 5, 0), local(2019, Calendar.JUNE, 5, 12)),
+                is(Arrays.asList(new EpochTimeRange(local(2019, Calendar.JUNE, 4, 23), local(2019, Calendar.JUNE, 5, 1)))));
+    }
+
+    private static List<EpochTimeRange> expand(RecurrenceRule rule, long fromMillis, long toMillis) {
+        List<EpochTimeRange> occurrences = new ArrayList<>();
+        rule.expand(fromMillis, toMillis, occurrences);
+        return occurrences;
+    }
+
+    private static EpochTimeRange occurrence(int year, int month, int dayOfMonth, int hour) {
+        long startMillis = local(year, month, dayOfMonth, hour);
+        return new EpochTimeRange(startMillis, startMillis + HALF_HOUR);
+    }
+
+    private static long local(int year, int month, int dayOfMonth, int hour) {
+        Calendar calendar = new GregorianCalendar(NEW_YORK);
+        calendar.clear();
+        calendar.set(year, month, dayOfMonth, hour, 0);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -10,7 +10,9 @@ package com.linkedin.android.tachyon.sample;
 import android.app.DatePickerDialog;
 import android.app.TimePickerDialog;
 import android.content.DialogInterface;
+import android.os.AsyncTask;
 import android.os.Bundle;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
@@ -20,7 +22,12 @@ import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.TimePicker;
 
+import com.linkedin.android.tachyon.DayTimeTable;
 import com.linkedin.android.tachyon.DayView;
+import com.linkedin.android.tachyon.EpochTimeRange;
+import com.linkedin.android.tachyon.EventSnapshot;
+import com.linkedin.android.tachyon.EventStore;
+import com.linkedin.android.tachyon.EventTimeRange;
 
 import java.text.DateFormat;
 import java.util.ArrayList;
@@ -30,33 +37,24 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import androidx.annotation.ColorRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.collection.LongSparseArray;
 
 /**
  * This sample activity demonstrates how to populate the day view with events.
  */
 public class SampleActivity extends AppCompatActivity {
 
-    /**
-     * Some examples to demonstrate how the day view renders multiple events that are in close
-     * proximity to each other.
-     */
-    @NonNull
-    private static final Event[] INITIAL_EVENTS = {
-            new Event("Walk the dog", "Park", 0, 0, 30, android.R.color.holo_red_dark),
-            new Event("Meeting", "Office", 1, 30, 90, android.R.color.holo_purple),
-            new Event("Phone call", "555-5555", 2, 0, 45, android.R.color.holo_orange_dark),
-            new Event("Lunch", "Cafeteria", 2, 30, 30, android.R.color.holo_green_dark),
-            new Event("Dinner", "Home", 18, 0, 30, android.R.color.holo_green_dark)};
-
     private Calendar day;
-    private LongSparseArray<List<Event>> allEvents;
+    private DayTimeTable dayTimeTable;
+    private final EventStore<Event> eventStore = new EventStore<>();
+    private long renderedDay = Long.MIN_VALUE;
+    private long renderedVersion;
     private DateFormat dateFormat;
     private DateFormat timeFormat;
     private Calendar editEventDate;
@@ -68,6 +66,7 @@ public class SampleActivity extends AppCompatActivity {
     private TextView dateTextView;
     private ScrollView scrollView;
     private DayView dayView;
+    private final List<View> boundEventViews = new ArrayList<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -80,9 +79,15 @@ public class SampleActivity extends AppCompatActivity {
         day.set(Calendar.SECOND, 0);
         day.set(Calendar.MILLISECOND, 0);
 
-        // Populate today's entry in the map with a list of example events
-        allEvents = new LongSparseArray<>();
-        allEvents.put(day.getTimeInMillis(), new ArrayList<>(Arrays.asList(INITIAL_EVENTS)));
+        // Populate today's entry in the store with some examples to demonstrate how the day view renders
+        // multiple events that are in close proximity to each other
+        DayTimeTable today = new DayTimeTable(TimeZone.getDefault(), day.getTimeInMillis());
+        setEvents(day.getTimeInMillis(), new ArrayList<>(Arrays.asList(
+                createEvent(today, "Walk the dog", "Park", 0, 0, 30, android.R.color.holo_red_dark),
+                createEvent(today, "Meeting", "Office", 1, 30, 90, android.R.color.holo_purple),
+                createEvent(today, "Phone call", "555-5555", 2, 0, 45, android.R.color.holo_orange_dark),
+                createEvent(today, "Lunch", "Cafeteria", 2, 30, 30, android.R.color.holo_green_dark),
+                createEvent(today, "Dinner", "Home", 18, 0, 30, android.R.color.holo_green_dark))));
 
         dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM, Locale.getDefault());
         timeFormat = DateFormat.getTimeInstance(DateFormat.SHORT, Locale.getDefault());
@@ -94,10 +99,22 @@ public class SampleActivity extends AppCompatActivity {
         scrollView = findViewById(R.id.sample_scroll);
         dayView = findViewById(R.id.sample_day);
 
-        // Inflate a label view for each hour the day view will display
+        // Event views are inflated in the background ahead of time, so binding a day doesn't wait for
+        // them. Each inflation uses its own inflater, since inflaters aren't thread-safe.
+        dayView.setEventViewFactory(new DayView.EventViewFactory() {
+            @NonNull
+            @Override
+            public View createEventView(@NonNull ViewGroup parent) {
+                LayoutInflater inflater = getLayoutInflater().cloneInContext(SampleActivity.this);
+                return inflater.inflate(R.layout.event, parent, false);
+            }
+        }, AsyncTask.THREAD_POOL_EXECUTOR);
+
+        // Inflate a label view for each hour of the full day, so the day view can pick the labels it
+        // needs when its hour range changes
         Calendar hour = (Calendar) day.clone();
         List<View> hourLabelViews = new ArrayList<>();
-        for (int i = dayView.getStartHour(); i <= dayView.getEndHour(); i++) {
+        for (int i = 0; i <= 24; i++) {
             hour.set(Calendar.HOUR_OF_DAY, i);
 
             TextView hourLabelView = (TextView) getLayoutInflater().inflate(R.layout.hour_label, dayView, false);
@@ -106,6 +123,56 @@ public class SampleActivity extends AppCompatActivity {
         }
         dayView.setHourLabelViews(hourLabelViews);
 
+        // Long pressing an event lets it be dragged to a new time, or resized from its bottom edge
+        dayView.setOnEventDragListener(new DayView.OnEventDragListener() {
+            @Override
+            public void onEventDragged(@NonNull View eventView,
+                                       @NonNull EventTimeRange previousTimeRange,
+                                       @NonNull EventTimeRange timeRange) {
+                Event event = (Event) eventView.getTag();
+                List<Event> events = new ArrayList<>(eventStore.getSnapshot().getEvents(day.getTimeInMillis()));
+                if (events.remove(event)) {
+                    EpochTimeRange epochTimeRange = new EpochTimeRange(
+                            dayTimeTable.getMillis(timeRange.getStartMinute()),
+                            dayTimeTable.getMillis(timeRange.getEndMinute()));
+                    events.add(new Event(event.title, event.location, epochTimeRange, event.color));
+                    setEvents(day.getTimeInMillis(), events);
+                }
+
+                onEventsChange();
+            }
+        });
+
+        // Events far from the visible area are measured over the following frames
+        dayView.setIncrementalMeasureBudget(4);
+
+        // Events that don't fit in the maximum number of columns collapse into a "+N" view, clicking
+        // it shows every column
+        dayView.setEventOverflowAdapter(new DayView.EventOverflowAdapter() {
+            @NonNull
+            @Override
+            public View getOverflowView(@Nullable View convertView, @NonNull List<View> hiddenEventViews) {
+                TextView overflowView = convertView != null
+                        ? (TextView) convertView
+                        : (TextView) getLayoutInflater().inflate(R.layout.event_overflow, dayView, false);
+                overflowView.setText(getString(R.string.event_overflow, hiddenEventViews.size()));
+                return overflowView;
+            }
+
+            @Override
+            public void onOverflowClick(@NonNull View overflowView, @NonNull List<View> hiddenEventViews) {
+                dayView.setMaxColumns(0);
+            }
+        });
+
+        // Short events only show their title, the day view draws the shortest ones as bars
+        dayView.setOnEventDetailLevelChangeListener(new DayView.OnEventDetailLevelChangeListener() {
+            @Override
+            public void onEventDetailLevelChanged(@NonNull View eventView, int detailLevel) {
+                bindEventDetailLevel(eventView, detailLevel);
+            }
+        });
+
         onDayChange();
     }
 
@@ -134,42 +201,70 @@ public class SampleActivity extends AppCompatActivity {
         showScrollTargetDialog();
     }
 
+    public void onHourRangeClick(View v) {
+        // Toggle between working hours and the configured hours
+        int startHour = getResources().getInteger(R.integer.start_hour);
+        int endHour = getResources().getInteger(R.integer.end_hour);
+        if (dayView.getStartHour() == startHour && dayView.getEndHour() == endHour) {
+            dayView.setHourRange(getResources().getInteger(R.integer.working_start_hour),
+                    getResources().getInteger(R.integer.working_end_hour));
+        } else {
+            dayView.setHourRange(startHour, endHour);
+        }
+    }
+
     private void onDayChange() {
+        // The offsets of the day are looked up once, converting the events below is then cheap even
+        // on the days daylight saving time begins or ends
+        dayTimeTable = new DayTimeTable(TimeZone.getDefault(), day.getTimeInMillis());
+
         dateTextView.setText(dateFormat.format(day.getTime()));
+        dayView.setMaxColumns(getResources().getInteger(R.integer.max_columns));
+
+        // Only show the current time line when viewing today
+        Calendar today = Calendar.getInstance();
+        dayView.setCurrentTimeVisible(today.get(Calendar.YEAR) == day.get(Calendar.YEAR)
+                && today.get(Calendar.DAY_OF_YEAR) == day.get(Calendar.DAY_OF_YEAR));
+
         onEventsChange();
     }
 
     private void onEventsChange() {
         // The day view needs a list of event views and a corresponding list of event time ranges
         List<View> eventViews = null;
-        List<DayView.EventTimeRange> eventTimeRanges = null;
-        List<Event> events = allEvents.get(day.getTimeInMillis());
-
-        if (events != null) {
-            // Sort the events by start time so the layout happens in correct order
-            Collections.sort(events, new Comparator<Event>() {
-                @Override
-                public int compare(Event o1, Event o2) {
-                    return o1.hour < o2.hour ? -1 : (o1.hour == o2.hour ? (o1.minute < o2.minute ? -1 : (o1.minute == o2.minute ? 0 : 1)) : 1);
-                }
-            });
+        List<EventTimeRange> eventTimeRanges = null;
+
+        // Read a consistent version of the events, which other threads such as a background sync
+        // could keep changing, and skip binding again when the shown day didn't change since the
+        // version last rendered
+        EventSnapshot<Event> snapshot = eventStore.getSnapshot();
+        long dayKey = day.getTimeInMillis();
+        if (dayKey == renderedDay && !snapshot.hasChanged(dayKey, renderedVersion)) {
+            return;
+        }
+        renderedDay = dayKey;
+        renderedVersion = snapshot.getVersion();
 
+        List<Event> events = snapshot.getEvents(dayKey);
+        if (!events.isEmpty()) {
             eventViews = new ArrayList<>();
             eventTimeRanges = new ArrayList<>();
 
-            // Reclaim all of the existing event views so we can reuse them if needed, this process
-            // can be useful if your day view is hosted in a recycler view for example
-            List<View> recycled = dayView.removeEventViews();
-            int remaining = recycled != null ? recycled.size() : 0;
+            // Reuse the existing event views in order so the day view can skip laying out again when
+            // only the content of the events changed, this process can also be useful if your day
+            // view is hosted in a recycler view for example
+            int recycled = 0;
 
             for (final Event event : events) {
-                // Try to recycle an existing event view if there are enough left, otherwise inflate
-                // a new one
-                View eventView = remaining > 0 ? recycled.get(--remaining) : getLayoutInflater().inflate(R.layout.event, dayView, false);
+                // Try to recycle an existing event view if there are enough left, otherwise take
+                // one from the day view's pool
+                View eventView = recycled < boundEventViews.size() ? boundEventViews.get(recycled++) : dayView.obtainEventView();
 
                 ((TextView) eventView.findViewById(R.id.event_title)).setText(event.title);
                 ((TextView) eventView.findViewById(R.id.event_location)).setText(event.location);
+                bindEventDetailLevel(eventView, DayView.EVENT_DETAIL_FULL);
                 eventView.setBackgroundColor(getResources().getColor(event.color));
+                eventView.setTag(event);
 
                 // When an event is clicked, start a new draft event and show the edit event dialog
                 eventView.setOnClickListener(new View.OnClickListener() {
@@ -180,13 +275,10 @@ public class SampleActivity extends AppCompatActivity {
                         editEventDate = (Calendar) day.clone();
 
                         editEventStartTime = Calendar.getInstance();
-                        editEventStartTime.set(Calendar.HOUR_OF_DAY, editEventDraft.hour);
-                        editEventStartTime.set(Calendar.MINUTE, editEventDraft.minute);
-                        editEventStartTime.set(Calendar.SECOND, 0);
-                        editEventStartTime.set(Calendar.MILLISECOND, 0);
+                        editEventStartTime.setTimeInMillis(editEventDraft.timeRange.getStartMillis());
 
-                        editEventEndTime = (Calendar) editEventStartTime.clone();
-                        editEventEndTime.add(Calendar.MINUTE, editEventDraft.duration);
+                        editEventEndTime = Calendar.getInstance();
+                        editEventEndTime.setTimeInMillis(editEventDraft.timeRange.getEndMillis());
 
                         showEditEventDialog(true, editEventDraft.title, editEventDraft.location, editEventDraft.color);
                     }
@@ -195,15 +287,25 @@ public class SampleActivity extends AppCompatActivity {
                 eventViews.add(eventView);
 
                 // The day view needs the event time ranges in the start minute/end minute format,
-                // so calculate those here
-                int startMinute = 60 * event.hour + event.minute;
-                int endMinute = startMinute + event.duration;
-                eventTimeRanges.add(new DayView.EventTimeRange(startMinute, endMinute));
+                // the day time table converts them without going through a calendar for each event
+                eventTimeRanges.add(dayTimeTable.toTimeRange(event.timeRange));
             }
         }
 
         // Update the day view with the new events
         dayView.setEventViews(eventViews, eventTimeRanges);
+
+        // Views the day view no longer shows went back to its pool
+        boundEventViews.clear();
+        if (eventViews != null) {
+            boundEventViews.addAll(eventViews);
+        }
+    }
+
+    private void bindEventDetailLevel(@NonNull View eventView, int detailLevel) {
+        boolean full = detailLevel == DayView.EVENT_DETAIL_FULL;
+        ((TextView) eventView.findViewById(R.id.event_title)).setMaxLines(full ? 2 : 1);
+        eventView.findViewById(R.id.event_location).setVisibility(full ? View.VISIBLE : View.GONE);
     }
 
     private void showEditEventDialog(boolean eventExists, @Nullable String eventTitle, @Nullable String eventLocation, @ColorRes int eventColor) {
@@ -314,17 +416,16 @@ public class SampleActivity extends AppCompatActivity {
         builder.setPositiveButton(android.R.string.ok, new DialogInterface.OnClickListener() {
             @Override
             public void onClick(DialogInterface dialog, int which) {
-                List<Event> events = allEvents.get(editEventDate.getTimeInMillis());
-                if (events == null) {
-                    events = new ArrayList<>();
-                    allEvents.put(editEventDate.getTimeInMillis(), events);
-                }
+                List<Event> events = new ArrayList<>(eventStore.getSnapshot().getEvents(editEventDate.getTimeInMillis()));
 
                 String title = titleTextView.getText().toString();
                 String location = locationTextView.getText().toString();
-                int hour = editEventStartTime.get(Calendar.HOUR_OF_DAY);
-                int minute = editEventStartTime.get(Calendar.MINUTE);
-                int duration = (int) (editEventEndTime.getTimeInMillis() - editEventStartTime.getTimeInMillis()) / 60000;
+                // The times only hold the time of day, so move them to the picked date
+                Calendar start = (Calendar) editEventDate.clone();
+                start.set(Calendar.HOUR_OF_DAY, editEventStartTime.get(Calendar.HOUR_OF_DAY));
+                start.set(Calendar.MINUTE, editEventStartTime.get(Calendar.MINUTE));
+                long duration = editEventEndTime.getTimeInMillis() - editEventStartTime.getTimeInMillis();
+                EpochTimeRange timeRange = new EpochTimeRange(start.getTimeInMillis(), start.getTimeInMillis() + duration);
 
                 @ColorRes int color;
                 if (blueRadioButton.isChecked()) {
@@ -339,7 +440,8 @@ public class SampleActivity extends AppCompatActivity {
                     color = android.R.color.holo_red_dark;
                 }
 
-                events.add(new Event(title, location, hour, minute, duration, color));
+                events.add(new Event(title, location, timeRange, color));
+                setEvents(editEventDate.getTimeInMillis(), events);
 
                 onEditEventDismiss(true);
             }
@@ -393,10 +495,7 @@ public class SampleActivity extends AppCompatActivity {
                 TimePickerDialog.OnTimeSetListener listener = new TimePickerDialog.OnTimeSetListener() {
                     @Override
                     public void onTimeSet(TimePicker view, int hourOfDay, int minute) {
-                        int top = dayView.getHourTop(hourOfDay);
-                        int bottom = dayView.getHourBottom(hourOfDay);
-                        int y = top + (bottom - top) * minute / 60;
-                        scrollView.smoothScrollTo(0, y);
+                        scrollView.smoothScrollTo(0, dayView.getYForTime(hourOfDay * 60 + minute));
                         dialog.dismiss();
                     }
                 };
@@ -442,9 +541,9 @@ public class SampleActivity extends AppCompatActivity {
 
     private void onEditEventDismiss(boolean modified) {
         if (modified && editEventDraft != null) {
-            List<Event> events = allEvents.get(day.getTimeInMillis());
-            if (events != null) {
-                events.remove(editEventDraft);
+            List<Event> events = new ArrayList<>(eventStore.getSnapshot().getEvents(day.getTimeInMillis()));
+            if (events.remove(editEventDraft)) {
+                setEvents(day.getTimeInMillis(), events);
             }
         }
         editEventDraft = null;
@@ -452,6 +551,27 @@ public class SampleActivity extends AppCompatActivity {
         onEventsChange();
     }
 
+    private void setEvents(long dayKey, @NonNull List<Event> events) {
+        // Sort the events by start time so the layout happens in correct order
+        Collections.sort(events, new Comparator<Event>() {
+            @Override
+            public int compare(Event o1, Event o2) {
+                long start1 = o1.timeRange.getStartMillis();
+                long start2 = o2.timeRange.getStartMillis();
+                return start1 < start2 ? -1 : (start1 == start2 ? 0 : 1);
+            }
+        });
+
+        eventStore.setEvents(dayKey, events);
+    }
+
+    @NonNull
+    private static Event createEvent(@NonNull DayTimeTable table, @Nullable String title, @Nullable String location,
+                                     int hour, int minute, int duration, @ColorRes int color) {
+        long startMillis = table.getMillis(60 * hour + minute);
+        return new Event(title, location, new EpochTimeRange(startMillis, startMillis + duration * 60000L), color);
+    }
+
     /**
      * A data class used to represent an event on the calendar.
      */
@@ -460,18 +580,15 @@ public class SampleActivity extends AppCompatActivity {
         private final String title;
         @Nullable
         private final String location;
-        private final int hour;
-        private final int minute;
-        private final int duration;
+        @NonNull
+        private final EpochTimeRange timeRange;
         @ColorRes
         private final int color;
 
-        private Event(@Nullable String title, @Nullable String location, int hour, int minute, int duration, @ColorRes int color) {
+        private Event(@Nullable String title, @Nullable String location, @NonNull EpochTimeRange timeRange, @ColorRes int color) {
             this.title = title;
             this.location = location;
-            this.hour = hour;
-            this.minute = minute;
-            this.duration = duration;
+            this.timeRange = timeRange;
             this.color = color;
         }
     }
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Draws a day straight onto a canvas, for places like home screen widgets and notifications that
+ * need a picture of a schedule rather than a {@link DayView}. Nothing is inflated, measured or
+ * attached: events are laid out with the same {@link EventColumnLayout} and {@link EventGeometry}
+ * a day view uses, and drawn as colored rects with a single line title.
+ * <p>
+ * Bitmaps from {@link #render(int, int, List, List)} are cached by everything they are drawn
+ * from, so refreshing a widget whose schedule didn't change returns the previous bitmap without
+ * drawing anything. Only a couple of bitmaps are kept, to stay light in background processes.
+ * Instances are not thread safe.
+ */
+public class DaySnapshotRenderer {
+
+    /**
+     * The number of rendered bitmaps kept, enough for a widget and a notification showing the
+     * same day.
+     */
+    private static final int CACHE_SIZE = 2;
+
+    private static final int MINUTES_PER_HALF_HOUR = 30;
+
+    private final Map<Fingerprint, Bitmap> cache = new LinkedHashMap<Fingerprint, Bitmap>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Entry<Fingerprint, Bitmap> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * What is drawn for an event, alongside its {@link EventTimeRange}.
+     */
+    public static class EventDescriptor {
+
+        @Nullable
+        private final String title;
+        @ColorInt
+        private final int color;
+
+        /**
+         * @param title the title drawn on the event, or null to only draw its color
+         * @param color the color the event is filled with
+         */
+        public EventDescriptor(@Nullable String title, @ColorInt int color) {
+            this.title = title;
+            this.color = color;
+        }
+
+        @Nullable
+        public String getTitle() {
+            return title;
+        }
+
+        @ColorInt
+        public int getColor() {
+            return color;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            EventDescriptor descriptor = (EventDescriptor) o;
+            return color == descriptor.color
+                    && (title != null ? title.equals(descriptor.title) : descriptor.title == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (title != null ? title.hashCode() : 0) + color;
+        }
+    }
+
+    @NonNull
+    private final EventGeometry geometry;
+    private final int dividerHeight;
+    @NonNull
+    private EventColumnLayout columnLayout;
+
+    @NonNull
+    private final Paint hourDividerPaint;
+    @NonNull
+    private final Paint halfHourDividerPaint;
+    @NonNull
+    private final Paint eventPaint;
+    @NonNull
+    private final TextPaint hourLabelPaint;
+    @NonNull
+    private final TextPaint eventTitlePaint;
+    @NonNull
+    private final RectF eventBounds;
+    @NonNull
+    private final DirectionalRect dividerRect;
+
+    @Nullable
+    private List<String> hourLabels;
+    private int hourLabelWidth;
+    private boolean isRtl;
+    @ColorInt
+    private int backgroundColor = Color.TRANSPARENT;
+    @ColorInt
+    private int hourDividerColor = Color.LTGRAY;
+    @ColorInt
+    private int halfHourDividerColor = Color.LTGRAY;
+    @ColorInt
+    private int hourLabelColor = Color.GRAY;
+    @ColorInt
+    private int eventTitleColor = Color.WHITE;
+    private float textSize;
+    private float eventCornerRadius;
+
+    @VisibleForTesting
+    int dividerStart;
+    @VisibleForTesting
+    int dividerEnd;
+    @VisibleForTesting
+    int[] dividerTops;
+    /**
+     * The rects of the events last laid out, null for events outside of the hour range.
+     */
+    @VisibleForTesting
+    final List<DirectionalRect> eventRects;
+    @NonNull
+    private final List<DirectionalRect> rectPool;
+
+    /**
+     * @param startHour     the first hour of the day, from 0 to 23
+     * @param endHour       the last hour of the day, from 1 to 24
+     * @param dividerHeight the height of the hour and half-hour dividers
+     * @param eventMargin   the margin around each event
+     * @throws IllegalArgumentException thrown when the end hour isn't after the start hour
+     */
+    public DaySnapshotRenderer(int startHour, int endHour, int dividerHeight, int eventMargin)
+            throws IllegalArgumentException {
+        this.dividerHeight = dividerHeight;
+        geometry = new EventGeometry(eventMargin, dividerHeight);
+        geometry.setHourRange(startHour, endHour);
+        columnLayout = new EventColumnLayout();
+
+        hourDividerPaint = new Paint();
+        halfHourDividerPaint = new Paint();
+        eventPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        hourLabelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        eventTitlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        eventBounds = new RectF();
+        dividerRect = new DirectionalRect();
+
+        dividerTops = new int[0];
+        eventRects = new ArrayList<>();
+        rectPool = new ArrayList<>();
+    }
+
+    /**
+     * @param hourLabels the label drawn next to each hour divider, one for each hour from the start
+     *                   hour to the end hour inclusive, or null to draw no labels
+     * @param width      the width set aside for the labels at the start of the day
+     * @throws IllegalArgumentException thrown when the number of labels doesn't match the hour
+     *                                  range
+     */
+    public void setHourLabels(@Nullable List<String> hourLabels, int width) throws IllegalArgumentException {
+        int hourCount = (geometry.getEndMinute() - geometry.getStartMinute()) / (MINUTES_PER_HALF_HOUR * 2);
+        if (hourLabels != null && hourLabels.size() != hourCount + 1) {
+            throw new IllegalArgumentException("There should be " + (hourCount + 1) + " hour labels but "
+                    + hourLabels.size() + " were given");
+        }
+
+        this.hourLabels = hourLabels != null ? new ArrayList<>(hourLabels) : null;
+        this.hourLabelWidth = hourLabels != null ? width : 0;
+        cache.clear();
+    }
+
+    /**
+     * @param backgroundColor      the color the whole snapshot is filled with first
+     * @param hourDividerColor     the color of the hour dividers
+     * @param halfHourDividerColor the color of the half-hour dividers
+     * @param hourLabelColor       the color of the hour labels
+     * @param eventTitleColor      the color of the event titles
+     */
+    public void setColors(@ColorInt int backgroundColor,
+                          @ColorInt int hourDividerColor,
+                          @ColorInt int halfHourDividerColor,
+                          @ColorInt int hourLabelColor,
+                          @ColorInt int eventTitleColor) {
+        this.backgroundColor = backgroundColor;
+        this.hourDividerColor = hourDividerColor;
+        this.halfHourDividerColor = halfHourDividerColor;
+        this.hourLabelColor = hourLabelColor;
+        this.eventTitleColor = eventTitleColor;
+        cache.clear();
+    }
+
+    /**
+     * @param textSize the size in pixels of the hour labels and event titles
+     */
+    public void setTextSize(float textSize) {
+        this.textSize = textSize;
+        cache.clear();
+    }
+
+    /**
+     * @param eventCornerRadius the radius in pixels of the corners of each event
+     */
+    public void setEventCornerRadius(float eventCornerRadius) {
+        this.eventCornerRadius = eventCornerRadius;
+        cache.clear();
+    }
+
+    /**
+     * @param isRtl whether or not the snapshot is drawn in right-to-left mode
+     */
+    public void setRtl(boolean isRtl) {
+        this.isRtl = isRtl;
+        cache.clear();
+    }
+
+    /**
+     * @param eventLayoutStrategy the strategy used to lay out overlapping events into columns
+     */
+    public void setEventLayoutStrategy(@NonNull EventLayoutStrategy eventLayoutStrategy) {
+        columnLayout = new EventColumnLayout(eventLayoutStrategy);
+        cache.clear();
+    }
+
+    /**
+     * Renders the given events into a bitmap, or returns the bitmap rendered last time if nothing
+     * changed since. The returned bitmap is shared with later calls, so it must not be modified or
+     * recycled.
+     *
+     * @param width       the width of the bitmap
+     * @param height      the height of the bitmap
+     * @param timeRanges  the time range of each event
+     * @param descriptors what is drawn for each event, in the same order as the time ranges
+     * @throws IllegalArgumentException thrown when there isn't a descriptor for each time range
+     */
+    @NonNull
+    public Bitmap render(int width,
+                         int height,
+                         @NonNull List<EventTimeRange> timeRanges,
+                         @NonNull List<EventDescriptor> descriptors) throws IllegalArgumentException {
+        Fingerprint fingerprint = new Fingerprint(width, height, timeRanges, descriptors);
+        Bitmap bitmap = cache.get(fingerprint);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            draw(new Canvas(bitmap), width, height, timeRanges, descriptors);
+            cache.put(fingerprint, bitmap);
+        }
+
+        return bitmap;
+    }
+
+    /**
+     * Draws the given events onto a canvas, without going through the cache.
+     *
+     * @param canvas      the canvas to draw onto, starting at its origin
+     * @param width       the width of the snapshot
+     * @param height      the height of the snapshot
+     * @param timeRanges  the time range of each event
+     * @param descriptors what is drawn for each event, in the same order as the time ranges
+     * @throws IllegalArgumentException thrown when there isn't a descriptor for each time range
+     */
+    public void draw(@NonNull Canvas canvas,
+                     int width,
+                     int height,
+                     @NonNull List<EventTimeRange> timeRanges,
+                     @NonNull List<EventDescriptor> descriptors) throws IllegalArgumentException {
+        if (timeRanges.size() != descriptors.size()) {
+            throw new IllegalArgumentException("There should be a descriptor for each time range, but there are "
+                    + timeRanges.size() + " time ranges and " + descriptors.size() + " descriptors");
+        }
+
+        hourLabelPaint.setTextSize(textSize);
+        hourLabelPaint.setColor(hourLabelColor);
+        hourLabelPaint.setTextAlign(isRtl ? Paint.Align.RIGHT : Paint.Align.LEFT);
+        eventTitlePaint.setTextSize(textSize);
+        eventTitlePaint.setColor(eventTitleColor);
+        eventTitlePaint.setTextAlign(isRtl ? Paint.Align.RIGHT : Paint.Align.LEFT);
+        hourDividerPaint.setColor(hourDividerColor);
+        halfHourDividerPaint.setColor(halfHourDividerColor);
+
+        int textHeight = (int) Math.ceil(hourLabelPaint.descent() - hourLabelPaint.ascent());
+        layout(width, height, textHeight, timeRanges);
+
+        if (Color.alpha(backgroundColor) != 0) {
+            canvas.drawColor(backgroundColor);
+        }
+
+        drawGrid(canvas, width);
+        drawEvents(canvas, textHeight, descriptors);
+    }
+
+    /**
+     * Positions the dividers and events within the given size.
+     *
+     * @param textHeight the height of a line of text, half of which is left above the first
+     *                   divider and below the last one for the hour labels
+     */
+    @VisibleForTesting
+    void layout(int width, int height, int textHeight, @NonNull List<EventTimeRange> timeRanges) {
+        int halfHourCount = (geometry.getEndMinute() - geometry.getStartMinute()) / MINUTES_PER_HALF_HOUR;
+        int firstDividerTop = hourLabels != null ? textHeight / 2 : 0;
+        int usableHeight = Math.max(height - firstDividerTop * 2 - dividerHeight, 0);
+
+        if (dividerTops.length != halfHourCount + 1) {
+            dividerTops = new int[halfHourCount + 1];
+        }
+        for (int i = 0; i <= halfHourCount; i++) {
+            dividerTops[i] = firstDividerTop + (int) ((long) usableHeight * i / halfHourCount);
+        }
+
+        dividerStart = hourLabels != null ? hourLabelWidth : 0;
+        dividerEnd = width;
+        float minuteHeight = (float) usableHeight / (halfHourCount * MINUTES_PER_HALF_HOUR);
+        geometry.setEventArea(isRtl, width, dividerStart, firstDividerTop, dividerEnd, minuteHeight);
+
+        // Events outside of the hour range are left out of the columns, like in a day view
+        int size = timeRanges.size();
+        int inDayCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (geometry.isInDay(timeRanges.get(i))) {
+                inDayCount++;
+            }
+        }
+
+        columnLayout.setSize(inDayCount);
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            EventTimeRange timeRange = timeRanges.get(i);
+            if (geometry.isInDay(timeRange)) {
+                columnLayout.setTimeRange(index++, timeRange.getStartMinute(), timeRange.getEndMinute());
+            }
+        }
+        columnLayout.layout();
+
+        for (DirectionalRect rect : eventRects) {
+            if (rect != null) {
+                rectPool.add(rect);
+            }
+        }
+        eventRects.clear();
+
+        index = 0;
+        for (int i = 0; i < size; i++) {
+            EventTimeRange timeRange = timeRanges.get(i);
+            if (!geometry.isInDay(timeRange)) {
+                eventRects.add(null);
+                continue;
+            }
+
+            DirectionalRect rect = rectPool.isEmpty() ? new DirectionalRect() : rectPool.remove(rectPool.size() - 1);
+            geometry.setColumnRect(rect,
+                    timeRange.getStartMinute(),
+                    timeRange.getEndMinute(),
+                    columnLayout.getStartColumn(index),
+                    columnLayout.getEndColumn(index),
+                    geometry.getColumnWidth(columnLayout.getColumnCount(index)));
+            eventRects.add(rect);
+            index++;
+        }
+    }
+
+    private void drawGrid(@NonNull Canvas canvas, int width) {
+        for (int i = 0; i < dividerTops.length; i++) {
+            int top = dividerTops[i];
+            dividerRect.set(isRtl, width, dividerStart, top, dividerEnd, top + dividerHeight);
+            canvas.drawRect(dividerRect.getLeft(),
+                    dividerRect.getTop(),
+                    dividerRect.getRight(),
+                    dividerRect.getBottom(),
+                    i % 2 == 0 ? hourDividerPaint : halfHourDividerPaint);
+        }
+
+        if (hourLabels == null) {
+            return;
+        }
+
+        // Each label is centered on its hour divider
+        float baselineOffset = -(hourLabelPaint.ascent() + hourLabelPaint.descent()) / 2;
+        float x = isRtl ? width : 0;
+        for (int i = 0; i < hourLabels.size(); i++) {
+            String label = hourLabels.get(i);
+            if (label != null) {
+                canvas.drawText(label, x, dividerTops[i * 2] + dividerHeight / 2f + baselineOffset, hourLabelPaint);
+            }
+        }
+    }
+
+    private void drawEvents(@NonNull Canvas canvas, int textHeight, @NonNull List<EventDescriptor> descriptors) {
+        int padding = textHeight / 4;
+        for (int i = 0; i < eventRects.size(); i++) {
+            DirectionalRect rect = eventRects.get(i);
+            if (rect == null || rect.getRight() <= rect.getLeft() || rect.getBottom() <= rect.getTop()) {
+                continue;
+            }
+
+            EventDescriptor descriptor = descriptors.get(i);
+            eventPaint.setColor(descriptor.getColor());
+            eventBounds.set(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+            canvas.drawRoundRect(eventBounds, eventCornerRadius, eventCornerRadius, eventPaint);
+
+            // Titles are only drawn on events tall and wide enough to fit a line of text
+            String title = descriptor.getTitle();
+            int availableWidth = rect.getRight() - rect.getLeft() - padding * 2;
+            if (TextUtils.isEmpty(title) || availableWidth <= 0
+                    || rect.getBottom() - rect.getTop() < textHeight + padding * 2) {
+                continue;
+            }
+
+            CharSequence text = TextUtils.ellipsize(title, eventTitlePaint, availableWidth, TextUtils.TruncateAt.END);
+            float x = isRtl ? rect.getRight() - padding : rect.getLeft() + padding;
+            float y = rect.getTop() + padding - eventTitlePaint.ascent();
+            canvas.drawText(text, 0, text.length(), x, y, eventTitlePaint);
+        }
+    }
+
+    /**
+     * Identifies a rendered bitmap by everything it is drawn from that isn't part of the
+     * renderer's configuration, which clears the cache whenever it changes.
+     */
+    @VisibleForTesting
+    static class Fingerprint {
+
+        private final int width;
+        private final int height;
+        @NonNull
+        private final List<EventTimeRange> timeRanges;
+        @NonNull
+        private final List<EventDescriptor> descriptors;
+        private final int hashCode;
+
+        Fingerprint(int width,
+                    int height,
+                    @NonNull List<EventTimeRange> timeRanges,
+                    @NonNull List<EventDescriptor> descriptors) {
+            this.width = width;
+            this.height = height;
+            this.timeRanges = new ArrayList<>(timeRanges);
+            this.descriptors = new ArrayList<>(descriptors);
+            this.hashCode = 31 * (31 * (31 * width + height) + this.timeRanges.hashCode()) + this.descriptors.hashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Fingerprint fingerprint = (Fingerprint) o;
+            return width == fingerprint.width
+                    && height == fingerprint.height
+                    && hashCode == fingerprint.hashCode
+                    && timeRanges.equals(fingerprint.timeRanges)
+                    && descriptors.equals(fingerprint.descriptors);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
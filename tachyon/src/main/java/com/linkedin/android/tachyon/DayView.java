@@ -7,16 +7,30 @@
  */
 package com.linkedin.android.tachyon;
 
+import android.animation.TimeInterpolator;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.database.Cursor;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.accessibility.AccessibilityManager;
+import android.view.animation.DecelerateInterpolator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.NonNull;
@@ -27,21 +41,68 @@ import androidx.core.view.ViewCompat;
 public class DayView extends ViewGroup {
 
     /**
-     * Because of daylight saving time, some days are shorter or longer than 24 hours. Most calendar
-     * apps assume there are 24 hours in each day, and then to handle events that span a daylight
-     * saving time switch those events are adjusted. For example, when daylight saving time begins,
-     * an event from 1:00 AM to 3:00 AM would only last an hour since the switch happens at 2:00 AM.
-     * This means for events that span the beginning of daylight saving time, they will be drawn
-     * with an extra hour. For events that span the end of daylight saving time, they'll be drawn at
-     * the minimum height for an event if the event's duration is roughly an hour or less.
+     * Because of daylight saving time, some days are shorter or longer than 24 hours. Like most
+     * calendar apps, this view always draws the 24 hours of the wall clock, and events that span a
+     * daylight saving time switch are adjusted. For example, when daylight saving time begins, an
+     * event from 1:00 AM to 3:00 AM only lasts an hour since the switch happens at 2:00 AM, but it
+     * is drawn through the skipped hour. {@link DayTimeTable} converts instants to time ranges this
+     * way, and keeps the real duration of events whose wall clock end comes before their start
+     * when daylight saving time ends.
      */
     @VisibleForTesting
-    static final int MIN_START_HOUR = 0;
+    static final int MIN_START_HOUR = EventGeometry.MIN_START_HOUR;
     @VisibleForTesting
-    static final int MAX_END_HOUR = 24;
+    static final int MAX_END_HOUR = EventGeometry.MAX_END_HOUR;
 
     private static final int MINUTES_PER_HOUR = 60;
-    private static final int MIN_DURATION_MINUTES = 15;
+    private static final long MILLIS_PER_MINUTE = 60 * 1000;
+    static final int MIN_DURATION_MINUTES = EventGeometry.MIN_DURATION_MINUTES;
+
+    /**
+     * The most time ranges that can change while binding events in place, past this a full layout
+     * pass is cheaper than laying out each change locally.
+     */
+    private static final int MAX_IN_PLACE_TIME_RANGE_CHANGES = 8;
+
+    private static final TimeInterpolator CHANGE_INTERPOLATOR = new DecelerateInterpolator();
+
+    /**
+     * Set on events hidden behind an overflow because their cluster needs more columns than
+     * {@link #maxColumns}.
+     */
+    @VisibleForTesting
+    static final int EVENT_FLAG_HIDDEN = 1;
+    /**
+     * Set on the visible events of a cluster with an overflow, they give up the last column to it.
+     */
+    @VisibleForTesting
+    static final int EVENT_FLAG_OVERFLOW_CLUSTER = 1 << 1;
+    /**
+     * Set on events whose views haven't been measured and laid out at their rects yet, a
+     * placeholder is drawn in their place until they are.
+     */
+    @VisibleForTesting
+    static final int EVENT_FLAG_PENDING_MEASURE = 1 << 2;
+
+    /**
+     * The event is tall enough to show all of its details.
+     */
+    public static final int EVENT_DETAIL_FULL = 0;
+    /**
+     * The event is shorter than the {@code compactEventHeight} attribute, its view should only
+     * show what fits on a single line.
+     */
+    public static final int EVENT_DETAIL_COMPACT = 1;
+    /**
+     * The event is shorter than the {@code barEventHeight} attribute or narrower than the
+     * {@code barEventWidth} attribute. Its view isn't measured or drawn, its background is drawn
+     * as a bar in its place instead.
+     */
+    public static final int EVENT_DETAIL_BAR = 2;
+    /**
+     * The event takes up no pixels at all, its view isn't measured or drawn.
+     */
+    public static final int EVENT_DETAIL_NONE = 3;
 
     @NonNull
     @VisibleForTesting
@@ -56,14 +117,24 @@ public class DayView extends ViewGroup {
     @VisibleForTesting
     final List<View> hourLabelViews;
     @NonNull
+    private final Set<View> hourLabelViewSet;
+    /**
+     * A label for every hour of the full day if there was one for each of them, which lets the
+     * labels be swapped as the hour range changes.
+     */
+    @Nullable
+    private List<View> allHourLabelViews;
+    @NonNull
     @VisibleForTesting
     final List<View> eventViews;
     @NonNull
+    private final List<com.linkedin.android.tachyon.EventTimeRange> eventTimeRanges;
+    @NonNull
     @VisibleForTesting
     final List<View> filteredEventViews;
     @NonNull
     @VisibleForTesting
-    final List<EventTimeRange> filteredEventTimeRanges;
+    final List<com.linkedin.android.tachyon.EventTimeRange> filteredEventTimeRanges;
     @NonNull
     @VisibleForTesting
     final List<DirectionalRect> eventRects;
@@ -71,33 +142,244 @@ public class DayView extends ViewGroup {
     @Nullable
     @VisibleForTesting
     EventColumnSpansHelper eventColumnSpansHelper;
+    @NonNull
+    private EventLayoutStrategy eventLayoutStrategy;
+
+    /**
+     * The {@code EVENT_FLAG} constants set on each event, these are only valid after a measure.
+     */
+    @NonNull
+    @VisibleForTesting
+    int[] eventFlags;
+
+    /**
+     * The {@code EVENT_DETAIL} level of each event from the size of its rect, along with the level
+     * last reported for its view to the {@link OnEventDetailLevelChangeListener}.
+     */
+    @NonNull
+    @VisibleForTesting
+    int[] eventDetailLevels;
+    @NonNull
+    private int[] reportedEventDetailLevels;
+    @VisibleForTesting
+    int compactEventHeight;
+    @VisibleForTesting
+    int barEventHeight;
+    @VisibleForTesting
+    int barEventWidth;
+    @Nullable
+    private OnEventDetailLevelChangeListener eventDetailLevelChangeListener;
+
+    /**
+     * The maximum number of columns events are laid out in, or zero if there is no limit. Events
+     * of a cluster that needs more columns than this are collapsed into an {@link EventOverflow}.
+     */
+    @VisibleForTesting
+    int maxColumns;
+    @NonNull
+    @VisibleForTesting
+    final List<EventOverflow> eventOverflows;
+    @NonNull
+    private final List<View> overflowViews;
+    @Nullable
+    private EventOverflowAdapter eventOverflowAdapter;
+    @NonNull
+    private final OnClickListener overflowClickListener = new OnClickListener() {
+        @Override
+        public void onClick(@NonNull View view) {
+            int index = overflowViews.indexOf(view);
+            if (eventOverflowAdapter != null && index >= 0 && index < eventOverflows.size()) {
+                eventOverflowAdapter.onOverflowClick(view, eventOverflows.get(index).hiddenEventViews);
+            }
+        }
+    };
+
+    /**
+     * The vertical offset of each minute in the day from the top of the first one, index zero is
+     * {@link #startMinute} and the last index is {@link #endMinute}. Shared by the day views with
+     * the same config and hours, and sorted so it can be binary searched for hit testing.
+     */
+    @NonNull
+    private int[] minuteOffsets;
+    /**
+     * The vertical offset of the top of the first minute.
+     */
+    private int minuteTopsOrigin;
+
+    /**
+     * Event indices sorted by the top of their rects, along with the sorted tops and the running
+     * maximum of their bottoms. Together these allow finding the events under a point with a
+     * binary search rather than walking every event.
+     */
+    @NonNull
+    private int[] eventIndexOrder;
+    @NonNull
+    private int[] eventIndexTops;
+    @NonNull
+    private int[] eventIndexMaxBottoms;
+    @NonNull
+    private long[] eventIndexSortBuffer;
+    private int eventIndexSize;
+
+    /**
+     * The time each frame may spend measuring events that aren't visible, or zero to measure every
+     * event at once.
+     */
+    private long incrementalMeasureBudgetNanos;
+    /**
+     * The events to measure in priority order, the ones left to measure start at
+     * {@link #pendingMeasureIndex}.
+     */
+    @NonNull
+    @VisibleForTesting
+    int[] measureOrder;
+    @VisibleForTesting
+    int measureOrderSize;
+    @NonNull
+    private long[] measureSortBuffer;
+    private int pendingMeasureIndex;
+    private int pendingMeasureCount;
+    @NonNull
+    private final Runnable measureRunnable = new Runnable() {
+        @Override
+        public void run() {
+            measurePendingEvents();
+        }
+    };
+    @NonNull
+    private final Paint eventPlaceholderPaint;
+    @NonNull
+    private final Rect barBounds = new Rect();
+
+    @Nullable
+    private View touchTarget;
+    private boolean disallowIntercept;
+
+    @Nullable
+    private EventDragHelper eventDragHelper;
+    @Nullable
+    private EventSourceBinding<?> eventSourceBinding;
+    @Nullable
+    private EventCursorBinding eventCursorBinding;
+    @Nullable
+    private EventViewPool eventViewPool;
+    @NonNull
+    private boolean[] affectedEvents;
+
+    /**
+     * How long moving event views take to animate to their new rects, or zero to move them right
+     * away, along with the views that may still be animating.
+     */
+    private long changeAnimationDuration;
+    @NonNull
+    private final Set<View> changeAnimatingEventViews;
+
+    private boolean occlusionCullingEnabled;
+    /**
+     * The rects of the opaque events drawn over the dividers, four values each, and the segments
+     * of the dividers they leave uncovered, three values each: the index of the divider, with the
+     * half-hour dividers following the hour dividers, and the left and right of the segment.
+     */
+    @NonNull
+    @VisibleForTesting
+    int[] occluderRects;
+    @VisibleForTesting
+    int occluderCount;
+    @NonNull
+    private int[] occluderPositions;
+    @NonNull
+    private long[] occluderSortBuffer;
+    @NonNull
+    @VisibleForTesting
+    int[] dividerSegments;
+    @VisibleForTesting
+    int dividerSegmentCount;
+    /**
+     * The event views entirely covered by an opaque event drawn after them, skipped while drawing.
+     */
+    @NonNull
+    private final Set<View> occludedEventViews;
+
+    @NonNull
+    @VisibleForTesting
+    final DirectionalRect currentTimeRect;
+    @NonNull
+    private final Rect visibleRect;
+    @Nullable
+    private Calendar calendar;
+    private boolean currentTimeVisible;
+    private boolean currentTimeInvalidationPending;
+    private boolean attachedToWindow;
+    @VisibleForTesting
+    int currentTimeMinute = -1;
+    @NonNull
+    private final Runnable currentTimeTicker = new Runnable() {
+        @Override
+        public void run() {
+            updateCurrentTime();
+            scheduleCurrentTimeTick();
+        }
+    };
+    @NonNull
+    private final ViewTreeObserver.OnScrollChangedListener currentTimeScrollListener =
+            new ViewTreeObserver.OnScrollChangedListener() {
+                @Override
+                public void onScrollChanged() {
+                    invalidateCurrentTimeIfVisible(currentTimeRect.getTop(), currentTimeRect.getBottom());
+                }
+            };
+
+    private int startHour;
+    private int startMinute;
+    private int endHour;
+    private int endMinute;
+    private int minuteCount;
+    private int hourLabelsCount;
+    private int hourDividersCount;
+    private int halfHourDividersCount;
 
-    private final int startHour;
-    private final int startMinute;
-    private final int endHour;
-    private final int endMinute;
-    private final int minuteCount;
-    private final int hourLabelsCount;
-    private final int hourDividersCount;
-    private final int halfHourDividersCount;
+    /**
+     * Rects no longer needed by the current hour range, kept to be reused by the next one.
+     */
+    @NonNull
+    private final List<DirectionalRect> rectPool;
+    private boolean rectsAllocated;
 
     @NonNull
     private final Paint hourDividerPaint;
     @NonNull
     private final Paint halfHourDividerPaint;
+    @NonNull
+    private final Paint currentTimePaint;
+    @NonNull
+    private final DayViewConfig config;
     private final int dividerHeight;
+    private final int currentTimeHeight;
 
     private final int usableHalfHourHeight;
     private final int hourLabelWidth;
     private final int hourLabelMarginEnd;
-    private final int eventMargin;
+    /**
+     * The height of every hour label, or 0 to measure the labels. Once fixed, the height of this
+     * view is known without measuring any child.
+     */
+    private final int hourLabelHeight;
+    /**
+     * Whether the children still need to be measured for the latest measure of this view, which
+     * is left to the layout when the hour label height is fixed.
+     */
+    private boolean childViewsMeasurePending;
+    @NonNull
+    private final EventGeometry eventGeometry;
 
     private boolean isRtl;
     private int parentWidth;
     private float minuteHeight;
+    private int eventAreaStart;
+    private int eventAreaEnd;
 
     public DayView(@NonNull Context context) {
-        this(context, null);
+        this(context, (AttributeSet) null);
     }
 
     public DayView(@NonNull Context context, @Nullable AttributeSet attrs) {
@@ -108,85 +390,172 @@ public class DayView extends ViewGroup {
         this(context, attrs, defStyleAttr, true);
     }
 
+    /**
+     * Creates a day view in code, configs can be shared by any number of day views.
+     *
+     * @param config the dimensions, colors and hours of the day view
+     */
+    public DayView(@NonNull Context context, @NonNull DayViewConfig config) {
+        this(context, null, 0, config, true);
+    }
+
     @VisibleForTesting
     DayView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr, boolean enableDrawing) {
-        super(context, attrs, defStyleAttr);
-
-        TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.DayView);
-
-        // The total number of usable minutes in this day
-        startHour = Math.max(array.getInt(R.styleable.DayView_startHour, MIN_START_HOUR), MIN_START_HOUR);
-        startMinute = startHour * MINUTES_PER_HOUR;
-        endHour = Math.min(array.getInt(R.styleable.DayView_endHour, MAX_END_HOUR), MAX_END_HOUR);
-        endMinute = endHour * MINUTES_PER_HOUR;
-        int hourCount = endHour - startHour;
-        minuteCount = hourCount * MINUTES_PER_HOUR;
-
-        // The hour labels and dividers count here is one more than the hours count so we can
-        // include the start of the midnight hour of the next day, setHourLabelViews() expects
-        // exactly this many labels
-        hourLabelsCount = hourCount + 1;
-        hourDividersCount = hourCount + 1;
-        halfHourDividersCount = hourCount;
+        this(context, attrs, defStyleAttr, DayViewConfig.obtain(context, attrs), enableDrawing);
+    }
 
-        hourDividerRects = new ArrayList<>(hourDividersCount);
-        for (int i = 0; i < hourDividersCount; i++) {
-            hourDividerRects.add(new DirectionalRect());
-        }
+    @VisibleForTesting
+    DayView(@NonNull Context context,
+            @Nullable AttributeSet attrs,
+            int defStyleAttr,
+            @NonNull DayViewConfig config,
+            boolean enableDrawing) {
+        super(context, attrs, defStyleAttr);
+        this.config = config;
 
-        halfHourDividerRects = new ArrayList<>(halfHourDividersCount);
-        for (int i = 0; i < halfHourDividersCount; i++) {
-            halfHourDividerRects.add(new DirectionalRect());
-        }
+        dividerHeight = config.getDividerHeight();
+        eventGeometry = new EventGeometry(config.getEventMargin(), dividerHeight);
 
-        hourLabelRects = new ArrayList<>(hourLabelsCount);
-        for (int i = 0; i < hourLabelsCount; i++) {
-            hourLabelRects.add(new DirectionalRect());
-        }
+        hourDividerRects = new ArrayList<>();
+        halfHourDividerRects = new ArrayList<>();
+        hourLabelRects = new ArrayList<>();
+        rectPool = new ArrayList<>();
+        usableHalfHourHeight = dividerHeight + config.getHalfHourHeight();
+        setHourBounds(config.getStartHour(), config.getEndHour());
 
         hourLabelViews = new ArrayList<>();
+        hourLabelViewSet = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
         eventViews = new ArrayList<>();
+        eventTimeRanges = new ArrayList<>();
         filteredEventViews = new ArrayList<>();
         filteredEventTimeRanges = new ArrayList<>();
         eventRects = new ArrayList<>();
-
-        dividerHeight = array.getDimensionPixelSize(R.styleable.DayView_dividerHeight, 0);
-        usableHalfHourHeight =
-                dividerHeight + array.getDimensionPixelSize(R.styleable.DayView_halfHourHeight, 0);
+        eventLayoutStrategy = new GreedyEventLayoutStrategy();
+        eventFlags = new int[0];
+        eventDetailLevels = new int[0];
+        reportedEventDetailLevels = new int[0];
+        eventOverflows = new ArrayList<>();
+        overflowViews = new ArrayList<>();
+
+        eventIndexOrder = new int[0];
+        eventIndexTops = new int[0];
+        eventIndexMaxBottoms = new int[0];
+        eventIndexSortBuffer = new long[0];
+        measureOrder = new int[0];
+        measureSortBuffer = new long[0];
+        affectedEvents = new boolean[0];
+        occluderRects = new int[0];
+        occluderPositions = new int[0];
+        occluderSortBuffer = new long[0];
+        dividerSegments = new int[0];
+        occludedEventViews = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+        changeAnimatingEventViews = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+        currentTimeRect = new DirectionalRect();
+        visibleRect = new Rect();
 
         hourDividerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         halfHourDividerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        currentTimePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        eventPlaceholderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        currentTimeHeight = config.getCurrentTimeHeight();
 
         // This view draws its hour and half hour dividers directly
         if (enableDrawing) {
             setWillNotDraw(false);
-            hourDividerPaint.setColor(array.getColor(R.styleable.DayView_hourDividerColor, 0));
-            halfHourDividerPaint.setColor(array.getColor(R.styleable.DayView_halfHourDividerColor, 0));
+            hourDividerPaint.setColor(config.getHourDividerColor());
+            halfHourDividerPaint.setColor(config.getHalfHourDividerColor());
+            currentTimePaint.setColor(config.getCurrentTimeColor());
+            eventPlaceholderPaint.setColor(config.getEventPlaceholderColor());
         }
 
-        hourLabelWidth = array.getDimensionPixelSize(R.styleable.DayView_hourLabelWidth, 0);
-        hourLabelMarginEnd = array.getDimensionPixelSize(R.styleable.DayView_hourLabelMarginEnd, 0);
-        eventMargin = array.getDimensionPixelSize(R.styleable.DayView_eventMargin, 0);
-        array.recycle();
+        hourLabelWidth = config.getHourLabelWidth();
+        hourLabelMarginEnd = config.getHourLabelMarginEnd();
+        hourLabelHeight = config.getHourLabelHeight();
+        maxColumns = config.getMaxColumns();
+        changeAnimationDuration = config.getChangeAnimationDuration();
+        compactEventHeight = config.getCompactEventHeight();
+        barEventHeight = config.getBarEventHeight();
+        barEventWidth = config.getBarEventWidth();
     }
 
     /**
      * @param hourLabelViews the list of views to show as labels for each hour, this list must not
-     *                       be null and its length must be {@link #hourLabelsCount}
+     *                       be null and its length must be {@link #hourLabelsCount}, or one more
+     *                       than the number of hours in a full day so that
+     *                       {@link #setHourRange(int, int)} can pick the labels it needs without
+     *                       new ones being set
      */
     public void setHourLabelViews(@NonNull List<View> hourLabelViews) {
         for (View view : this.hourLabelViews) {
             removeView(view);
         }
 
+        boolean fullDay = hourLabelViews.size() == MAX_END_HOUR - MIN_START_HOUR + 1;
+        allHourLabelViews = fullDay ? new ArrayList<>(hourLabelViews) : null;
+
         this.hourLabelViews.clear();
-        this.hourLabelViews.addAll(hourLabelViews);
+        this.hourLabelViews.addAll(fullDay ? hourLabelViews.subList(startHour, endHour + 1) : hourLabelViews);
+        hourLabelViewSet.clear();
+        hourLabelViewSet.addAll(this.hourLabelViews);
 
         for (View view : this.hourLabelViews) {
             addView(view);
         }
     }
 
+    /**
+     * Changes the hours this view displays without creating it again. The hour labels are swapped
+     * if there was one for every hour of the full day, otherwise
+     * {@link #setHourLabelViews(List)} must be called again with a label for each hour of the new
+     * range. The events are filtered again against the new hours, keeping the views of the events
+     * that are still displayed.
+     *
+     * @param startHour the first hour to display, from zero
+     * @param endHour   the hour after the last hour to display, up to 24
+     * @throws IllegalArgumentException thrown when the end hour isn't after the start hour
+     */
+    public void setHourRange(int startHour, int endHour) throws IllegalArgumentException {
+        startHour = Math.max(startHour, MIN_START_HOUR);
+        endHour = Math.min(endHour, MAX_END_HOUR);
+        if (endHour <= startHour) {
+            throw new IllegalArgumentException("The end hour " + endHour + " must be after the start hour " + startHour);
+        }
+
+        if (startHour == this.startHour && endHour == this.endHour) {
+            return;
+        }
+
+        setHourBounds(startHour, endHour);
+
+        // Swap the labels of the hours entering and leaving the range, the ones in both stay put
+        if (allHourLabelViews != null) {
+            List<View> hourLabelViews = allHourLabelViews.subList(startHour, endHour + 1);
+            for (View view : this.hourLabelViews) {
+                if (!hourLabelViews.contains(view)) {
+                    removeViewInLayout(view);
+                }
+            }
+
+            for (View view : hourLabelViews) {
+                if (!hourLabelViewSet.contains(view)) {
+                    LayoutParams params = view.getLayoutParams();
+                    addViewInLayout(view, -1, params != null ? params : generateDefaultLayoutParams());
+                }
+            }
+
+            this.hourLabelViews.clear();
+            this.hourLabelViews.addAll(hourLabelViews);
+            hourLabelViewSet.clear();
+            hourLabelViewSet.addAll(hourLabelViews);
+        }
+
+        // Filter the events again, events in both ranges keep their views
+        setEventViews(new ArrayList<>(eventViews), new ArrayList<>(eventTimeRanges));
+
+        requestLayout();
+        invalidate();
+    }
+
     /**
      * @param eventViews      the list of event views to display
      * @param eventTimeRanges the list of event params that describe each event view's start/end
@@ -194,22 +563,37 @@ public class DayView extends ViewGroup {
      *                        or both should be null
      */
     public void setEventViews(@Nullable List<View> eventViews,
-                              @Nullable List<EventTimeRange> eventTimeRanges) {
+                              @Nullable List<? extends com.linkedin.android.tachyon.EventTimeRange> eventTimeRanges) {
+        if (eventDragHelper != null) {
+            eventDragHelper.cancel();
+        }
+
+        if (setEventViewsInPlace(eventViews, eventTimeRanges)) {
+            return;
+        }
+
+        // Detach the current views rather than removing them, the ones that are still needed are
+        // attached again without going through a full removal and addition
+        Set<View> previousEventViews = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
         for (View view : this.filteredEventViews) {
-            removeView(view);
+            previousEventViews.add(view);
+            detachViewFromParent(view);
         }
 
         this.eventViews.clear();
+        this.eventTimeRanges.clear();
         this.filteredEventViews.clear();
         this.filteredEventTimeRanges.clear();
         eventRects.clear();
         eventColumnSpansHelper = null;
+        eventIndexSize = 0;
 
         if (eventViews != null && eventTimeRanges != null) {
             this.eventViews.addAll(eventViews);
+            this.eventTimeRanges.addAll(eventTimeRanges);
             for (int i = 0; i < eventTimeRanges.size(); i++) {
-                EventTimeRange eventTimeRange = eventTimeRanges.get(i);
-                if (eventTimeRange.endMinute > startMinute && eventTimeRange.startMinute < endMinute) {
+                com.linkedin.android.tachyon.EventTimeRange eventTimeRange = eventTimeRanges.get(i);
+                if (isInDay(eventTimeRange)) {
                     this.filteredEventViews.add(this.eventViews.get(i));
                     this.filteredEventTimeRanges.add(eventTimeRange);
                 }
@@ -217,28 +601,183 @@ public class DayView extends ViewGroup {
         }
 
         if (!this.filteredEventViews.isEmpty() && !this.filteredEventTimeRanges.isEmpty()) {
-            eventColumnSpansHelper = new EventColumnSpansHelper(this.filteredEventTimeRanges);
+            eventColumnSpansHelper = createEventColumnSpansHelper();
+
+            // Event views go below the overflow views
+            int index = overflowViews.isEmpty() ? getChildCount() : indexOfChild(overflowViews.get(0));
             for (View view : this.filteredEventViews) {
-                addView(view);
+                LayoutParams params = view.getLayoutParams();
+                if (params == null) {
+                    params = generateDefaultLayoutParams();
+                }
+
+                if (previousEventViews.remove(view)) {
+                    attachViewToParent(view, index++, params);
+                } else {
+                    addViewInLayout(view, index++, params);
+                }
+
                 eventRects.add(new DirectionalRect());
             }
         }
+
+        for (View view : previousEventViews) {
+            cancelChangeAnimation(view);
+            removeDetachedView(view, false);
+            if (eventViewPool != null) {
+                eventViewPool.release(view);
+            }
+        }
+
+        if (eventViewPool != null) {
+            eventViewPool.onEventsBound(this.eventViews.size());
+        }
+
+        // The new views are bound in full, their levels are reported again on the next measure
+        Arrays.fill(reportedEventDetailLevels, EVENT_DETAIL_FULL);
+
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Binds this view to a source of events, the event views are kept in sync with the source from
+     * then on. Any number of changes to the source are applied at most once per frame, which makes
+     * this better suited than {@link #setEventViews(List, List)} to events that change often or
+     * from other threads.
+     *
+     * @param eventSource the source of the events, or null to stop following the current source
+     * @param binder      creates and binds the views of the events, must not be null if the source
+     *                    isn't
+     * @param <T>         the type of the events
+     */
+    public <T> void setEventSource(@Nullable EventSource<T> eventSource, @Nullable EventSource.Binder<T> binder) {
+        if (eventSourceBinding != null) {
+            eventSourceBinding.stop();
+            eventSourceBinding = null;
+        }
+        setEventCursor(null, null, null);
+
+        if (eventSource != null && binder != null) {
+            eventSourceBinding = new EventSourceBinding<>(this, eventSource, binder);
+            if (attachedToWindow) {
+                eventSourceBinding.start();
+            }
+        }
+    }
+
+    /**
+     * Binds this view to the events of a database query. The layout cursor only needs the id and
+     * times of the events, which are read right away so the events can be laid out without reading
+     * anything else. What the event views display is then read with
+     * {@link EventCursorBinder#queryDetails(long[])}, a few events at a time as they come into
+     * view, so how much is read follows what is on screen rather than how busy the day is.
+     * <p>
+     * Setting a cursor again with the same binder, such as after the events changed, keeps the
+     * views of the events that are still there. The cursor can be closed once this returns, and
+     * when it is a windowed cursor, like the ones SQLite queries return, closing it before the
+     * next one is set lets the next one fill its window again rather than allocate another.
+     *
+     * @param cursor        the layout cursor, or null to remove the events
+     * @param binder        reads the cursors and binds the event views, or null to stop reading
+     *                      details and leave the views as they are
+     * @param queryExecutor the executor details are queried on, the binder must then be safe to
+     *                      query off the main thread. If null, details are queried on the main
+     *                      thread as this view is about to draw, delaying that frame, which only
+     *                      suits queries that are cheap such as ones served from memory.
+     * @throws IllegalArgumentException if two events have the same id, the events are then left
+     *                                  as they were
+     */
+    public void setEventCursor(@Nullable Cursor cursor,
+                               @Nullable EventCursorBinder binder,
+                               @Nullable Executor queryExecutor) throws IllegalArgumentException {
+        if (eventCursorBinding != null && !eventCursorBinding.hasBinder(binder)) {
+            eventCursorBinding.stop();
+            eventCursorBinding = null;
+        }
+
+        if (binder == null) {
+            return;
+        }
+
+        if (eventSourceBinding != null) {
+            eventSourceBinding.stop();
+            eventSourceBinding = null;
+        }
+
+        if (eventCursorBinding == null) {
+            eventCursorBinding = new EventCursorBinding(this, binder, queryExecutor);
+            if (attachedToWindow) {
+                eventCursorBinding.start();
+            }
+        } else {
+            eventCursorBinding.setQueryExecutor(queryExecutor);
+        }
+
+        eventCursorBinding.setCursor(cursor);
     }
 
     /**
      * Removes all of the existing event views.
      *
      * @return the event views that have been removed, they are safe to recycle and reuse at this
-     * point
+     * point, except for views from {@link #obtainEventView()} which go back to the pool instead
      */
     @Nullable
     public List<View> removeEventViews() {
-        List<View> eventViews = this.eventViews;
+        List<View> eventViews = new ArrayList<>(this.eventViews.size());
+        for (View view : this.eventViews) {
+            if (eventViewPool == null || !eventViewPool.owns(view)) {
+                eventViews.add(view);
+            }
+        }
         setEventViews(null, null);
 
         return eventViews;
     }
 
+    /**
+     * Creates event views ahead of time and keeps them in a pool, so binding a day, especially
+     * the first one, doesn't wait for its views to be created. Views are taken from the pool with
+     * {@link #obtainEventView()}, and go back to it when they are removed from this view. The
+     * pool starts filling right away, so setting the factory before the events are loaded lets it
+     * be ready for them, and then refills while this view is attached. It aims for as many free
+     * views as the most events bound recently.
+     *
+     * @param factory           creates the event views, or null to stop pooling them
+     * @param inflationExecutor the executor views are created on, the factory must then be safe to
+     *                          call off the main thread. If null, or if the factory throws there,
+     *                          views are created on the main thread while it is idle.
+     */
+    public void setEventViewFactory(@Nullable EventViewFactory factory, @Nullable Executor inflationExecutor) {
+        if (eventViewPool != null) {
+            eventViewPool.stop();
+        }
+
+        eventViewPool = factory != null ? new EventViewPool(this, factory, inflationExecutor) : null;
+        if (eventViewPool != null) {
+            eventViewPool.start();
+        }
+    }
+
+    /**
+     * @return a view from the pool filled by the event view factory, or a new one if the pool is
+     * empty
+     * @throws IllegalStateException if there is no event view factory
+     */
+    @NonNull
+    public View obtainEventView() throws IllegalStateException {
+        if (eventViewPool == null) {
+            throw new IllegalStateException("No event view factory set");
+        }
+
+        return eventViewPool.obtain();
+    }
+
+    boolean hasEventViewFactory() {
+        return eventViewPool != null;
+    }
+
     public int getStartHour() {
         return startHour;
     }
@@ -248,44 +787,197 @@ public class DayView extends ViewGroup {
     }
 
     /**
-     * Useful if this view is hosted in a scroll view, the y coordinate returned can be used to
-     * scroll to the top of the given hour.
+     * Shows a line at the current time, which moves every minute. It should only be shown when
+     * this view is displaying today. The line only ticks while this view is attached and shown,
+     * and each tick only invalidates the strip between its old and new positions.
      *
-     * @param hour the hour of the day, should be between 0 (12:00 AM of the current day) and 24
-     *             (12:00 AM of the next day)
-     * @return the vertical offset of the top of the given hour in pixels
+     * @param currentTimeVisible whether or not to show the current time line
      */
-    public int getHourTop(int hour) {
-        if (hour < 0 || hour >= hourLabelsCount) {
-            throw new IllegalStateException("Hour must be between 0 and " + hourLabelsCount);
+    public void setCurrentTimeVisible(boolean currentTimeVisible) {
+        if (this.currentTimeVisible == currentTimeVisible) {
+            return;
+        }
+
+        this.currentTimeVisible = currentTimeVisible;
+        currentTimeMinute = -1;
+        if (currentTimeVisible) {
+            updateCurrentTime();
+        } else {
+            invalidateCurrentTimeIfVisible(currentTimeRect.getTop(), currentTimeRect.getBottom());
         }
 
-        return hourDividerRects.get(hour).getBottom();
+        scheduleCurrentTimeTick();
+    }
+
+    public boolean isCurrentTimeVisible() {
+        return currentTimeVisible;
     }
 
     /**
-     * Useful if this view is hosted in a scroll view, the y coordinate returned can be used to
-     * scroll to the bottom of the given hour.
+     * Spreads the measurement of event views over several frames, which keeps the first frame of a
+     * day with many events short. The visible events are always measured right away, the rest are
+     * measured in order of how close they are to being visible, with each frame spending up to the
+     * given budget on them. Events are drawn as placeholders until they're measured, in the color
+     * set by the {@code eventPlaceholderColor} attribute.
      *
-     * @param hour the hour of the day, should be between 0 (12:00 AM of the current day) and 24
-     *             (12:00 AM of the next day)
-     * @return the vertical offset of the bottom of the given hour in pixels
+     * @param budgetMillis the time each frame may spend measuring events that aren't visible, or
+     *                     zero to measure every event at once, which is the default
      */
-    public int getHourBottom(int hour) {
-        if (hour < 0 || hour >= hourLabelsCount) {
-            throw new IllegalStateException("Hour must be between 0 and " + hourLabelsCount);
-        }
+    public void setIncrementalMeasureBudget(long budgetMillis) {
+        incrementalMeasureBudgetNanos = Math.max(budgetMillis, 0) * 1000000;
+        requestLayout();
+    }
 
-        if (hour == hourLabelsCount - 1) {
-            return hourDividerRects.get(hour).getBottom();
+    /**
+     * @param eventLayoutStrategy decides how overlapping events share the width of this view, the
+     *                            default is a {@link GreedyEventLayoutStrategy}
+     */
+    public void setEventLayoutStrategy(@NonNull EventLayoutStrategy eventLayoutStrategy) {
+        this.eventLayoutStrategy = eventLayoutStrategy;
+        if (eventColumnSpansHelper != null) {
+            eventColumnSpansHelper = createEventColumnSpansHelper();
         }
 
-        return hourDividerRects.get(hour + 1).getTop();
+        requestLayout();
     }
 
     /**
-     * Useful if this view is hosted in a scroll view, the y coordinate returned can be used to
-     * scroll to the top of the first event.
+     * Limits how many columns overlapping events are split into. Events of a cluster of
+     * overlapping events that needs more columns are hidden, and the last column of the cluster
+     * shows a single overflow view for them instead, see
+     * {@link #setEventOverflowAdapter(EventOverflowAdapter)}. This keeps the events readable and
+     * the cost of measuring and laying them out bounded however many of them overlap.
+     *
+     * @param maxColumns the maximum number of columns, or zero for no limit
+     */
+    public void setMaxColumns(int maxColumns) {
+        this.maxColumns = Math.max(maxColumns, 0);
+        requestLayout();
+    }
+
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    /**
+     * @param eventOverflowAdapter provides the views shown in place of the events hidden by
+     *                             {@link #setMaxColumns(int)}, without one the hidden events are
+     *                             not represented at all
+     */
+    public void setEventOverflowAdapter(@Nullable EventOverflowAdapter eventOverflowAdapter) {
+        for (View view : overflowViews) {
+            view.setOnClickListener(null);
+            removeView(view);
+        }
+
+        overflowViews.clear();
+        this.eventOverflowAdapter = eventOverflowAdapter;
+        requestLayout();
+    }
+
+    /**
+     * Sets the sizes below which events are shown with less detail, see the {@code EVENT_DETAIL}
+     * constants. Levels follow the size of each event as it changes, so short events or events
+     * squeezed into narrow columns cost less to bind, measure and draw. These can also be set
+     * through the {@code compactEventHeight}, {@code barEventHeight} and {@code barEventWidth}
+     * attributes, they are all zero by default so only events that take up no pixels at all lose
+     * detail.
+     *
+     * @param compactEventHeight the height below which events are compact
+     * @param barEventHeight     the height below which events are drawn as bars
+     * @param barEventWidth      the width below which events are drawn as bars
+     */
+    public void setEventDetailThresholds(int compactEventHeight, int barEventHeight, int barEventWidth) {
+        this.compactEventHeight = compactEventHeight;
+        this.barEventHeight = barEventHeight;
+        this.barEventWidth = barEventWidth;
+        requestLayout();
+    }
+
+    /**
+     * @param listener notified when the detail level of an event changes, so its view can be bound
+     *                 with more or less detail before it's measured
+     */
+    public void setOnEventDetailLevelChangeListener(@Nullable OnEventDetailLevelChangeListener listener) {
+        eventDetailLevelChangeListener = listener;
+        Arrays.fill(reportedEventDetailLevels, EVENT_DETAIL_FULL);
+        requestLayout();
+    }
+
+    /**
+     * Animates event views that move or resize when events change, for example when the columns
+     * of a cluster reflow after an event is added. Each view is laid out at its new rect once and
+     * animated there from where it was drawn through its translation and scale, so nothing is
+     * measured or laid out while the animation runs. Views that are new to this view appear right
+     * away. This is disabled by default.
+     *
+     * @param changeAnimationDuration how long the animations take in milliseconds, or zero to
+     *                                move event views right away
+     */
+    public void setChangeAnimationDuration(long changeAnimationDuration) {
+        this.changeAnimationDuration = Math.max(changeAnimationDuration, 0);
+    }
+
+    public long getChangeAnimationDuration() {
+        return changeAnimationDuration;
+    }
+
+    /**
+     * Only draws the parts of the hour and half-hour dividers left uncovered by opaque events, and
+     * skips drawing events entirely covered by an opaque event drawn after them. An event is opaque
+     * when its view is, or when it is drawn as a bar with an opaque background. This cuts down on
+     * overdraw in busy days at the cost of some work on every frame. This is disabled by default.
+     *
+     * @param occlusionCullingEnabled whether or not to skip drawing what opaque events cover
+     */
+    public void setOcclusionCullingEnabled(boolean occlusionCullingEnabled) {
+        this.occlusionCullingEnabled = occlusionCullingEnabled;
+        occludedEventViews.clear();
+        invalidate();
+    }
+
+    /**
+     * Useful if this view is hosted in a scroll view, the y coordinate returned can be used to
+     * scroll to the top of the given hour.
+     *
+     * @param hour the hour of the day, should be between the start hour and the end hour, from 0
+     *             (12:00 AM of the current day) to 24 (12:00 AM of the next day)
+     * @return the vertical offset of the top of the given hour in pixels
+     */
+    public int getHourTop(int hour) {
+        if (hour < startHour || hour > endHour) {
+            throw new IllegalStateException("Hour must be between " + startHour + " and " + endHour);
+        }
+
+        allocateRects();
+        return hourDividerRects.get(hour - startHour).getBottom();
+    }
+
+    /**
+     * Useful if this view is hosted in a scroll view, the y coordinate returned can be used to
+     * scroll to the bottom of the given hour.
+     *
+     * @param hour the hour of the day, should be between the start hour and the end hour, from 0
+     *             (12:00 AM of the current day) to 24 (12:00 AM of the next day)
+     * @return the vertical offset of the bottom of the given hour in pixels
+     */
+    public int getHourBottom(int hour) {
+        if (hour < startHour || hour > endHour) {
+            throw new IllegalStateException("Hour must be between " + startHour + " and " + endHour);
+        }
+
+        allocateRects();
+        int index = hour - startHour;
+        if (index == hourLabelsCount - 1) {
+            return hourDividerRects.get(index).getBottom();
+        }
+
+        return hourDividerRects.get(index + 1).getTop();
+    }
+
+    /**
+     * Useful if this view is hosted in a scroll view, the y coordinate returned can be used to
+     * scroll to the top of the first event.
      *
      * @return the vertical offset of the top of the first event in pixels, or zero if there are no
      * events
@@ -327,8 +1019,84 @@ public class DayView extends ViewGroup {
         return !eventRects.isEmpty() ? eventRects.get(eventRects.size() - 1).getBottom() : 0;
     }
 
+    /**
+     * Useful if this view is hosted in a scroll view, the y coordinate returned can be used to
+     * scroll to any time of the day rather than just the top of an hour.
+     *
+     * @param minute the time in minutes since the start of the day, times outside of the range
+     *               between {@link #getStartHour()} and {@link #getEndHour()} are clamped to it
+     * @return the vertical offset of the given time in pixels
+     */
+    public int getYForTime(int minute) {
+        int clampedMinute = Math.min(Math.max(minute, startMinute), endMinute);
+        return minuteTopsOrigin + minuteOffsets[clampedMinute - startMinute];
+    }
+
+    /**
+     * Useful for mapping a touch position back to a time, for example to create an event where
+     * the user tapped.
+     *
+     * @param y the vertical offset in pixels
+     * @return the time in minutes since the start of the day at the given offset, clamped to the
+     * range between {@link #getStartHour()} and {@link #getEndHour()}
+     */
+    public int getTimeAtY(int y) {
+        // Find the last minute whose top is at or above the given offset
+        int offset = y - minuteTopsOrigin;
+        int low = 0;
+        int high = minuteOffsets.length - 1;
+        if (offset < minuteOffsets[low]) {
+            return startMinute;
+        }
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (minuteOffsets[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return startMinute + low;
+    }
+
+    /**
+     * Finds the event view drawn at the given position. When events overlap, the one drawn on top
+     * is returned.
+     *
+     * @param x the horizontal offset in pixels
+     * @param y the vertical offset in pixels
+     * @return the event view at the given position, or null if there is no event there
+     */
+    @Nullable
+    public View findEventAt(int x, int y) {
+        int index = findEventIndexAt(x, y);
+        return index >= 0 ? filteredEventViews.get(index) : null;
+    }
+
+    /**
+     * Enables dragging events to a new time, or resizing them by dragging their bottom edge, after
+     * a long press. Events move and resize in {@link #MIN_DURATION_MINUTES} minute steps.
+     *
+     * @param listener the listener notified when a dragged event is dropped, or null to disable
+     *                 dragging
+     */
+    public void setOnEventDragListener(@Nullable OnEventDragListener listener) {
+        if (eventDragHelper != null) {
+            eventDragHelper.cancel();
+        }
+
+        eventDragHelper = listener != null ? new EventDragHelper(this, listener) : null;
+    }
+
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        if (childViewsMeasurePending) {
+            // The measure specs are only used to measure hour labels whose height isn't fixed
+            measureChildViews(right - left, 0, 0);
+        }
+
         for (int i = 0; i < hourLabelViews.size(); i++) {
             View view = hourLabelViews.get(i);
             DirectionalRect rect = hourLabelRects.get(i);
@@ -336,36 +1104,182 @@ public class DayView extends ViewGroup {
         }
 
         for (int i = 0; i < filteredEventViews.size(); i++) {
-            View view = filteredEventViews.get(i);
-            DirectionalRect rect = eventRects.get(i);
-            view.layout(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+            // Keep events that haven't been measured out of sight until they are
+            layoutEventView(filteredEventViews.get(i), eventRects.get(i), !isEventPendingMeasure(i) && isEventMeasured(i));
+        }
+
+        layoutOverflowViews();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attachedToWindow = true;
+        updateCurrentTime();
+        scheduleCurrentTimeTick();
+
+        // The source is only followed while attached, so it doesn't keep this view around
+        if (eventSourceBinding != null) {
+            eventSourceBinding.start();
+        }
+
+        if (eventCursorBinding != null) {
+            eventCursorBinding.start();
+        }
+
+        if (eventViewPool != null) {
+            eventViewPool.start();
+        }
+
+        if (pendingMeasureIndex < pendingMeasureCount) {
+            ViewCompat.postOnAnimation(this, measureRunnable);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        attachedToWindow = false;
+        scheduleCurrentTimeTick();
+        removeCallbacks(measureRunnable);
+
+        if (eventSourceBinding != null) {
+            eventSourceBinding.stop();
+        }
+
+        if (eventCursorBinding != null) {
+            eventCursorBinding.stop();
+        }
+
+        if (eventViewPool != null) {
+            eventViewPool.stop();
         }
     }
 
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        scheduleCurrentTimeTick();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        scheduleCurrentTimeTick();
+    }
+
     @Override
     public boolean shouldDelayChildPressedState() {
         return false;
     }
 
+    @Override
+    public boolean dispatchTouchEvent(@NonNull MotionEvent event) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            // Look the target up through the event index rather than letting the super class walk
+            // every child, anything it can't handle directly falls back to the default dispatch
+            disallowIntercept = false;
+            touchTarget = canDispatchDirectly(event) ? findTouchTarget(event) : null;
+            if (touchTarget != null && !onInterceptTouchEvent(event)
+                    && dispatchToTouchTarget(event, false)) {
+                return true;
+            }
+
+            touchTarget = null;
+            return super.dispatchTouchEvent(event);
+        }
+
+        if (touchTarget == null) {
+            return super.dispatchTouchEvent(event);
+        }
+
+        if (action == MotionEvent.ACTION_POINTER_DOWN && isMotionEventSplittingEnabled()
+                && !isInTouchTarget(event, event.getActionIndex())) {
+            // The default dispatch may hand the new pointer to another child, so it takes the
+            // rest of the gesture over, starting with the pointers that are already down
+            dispatchToTouchTarget(event, true);
+            touchTarget = null;
+
+            int downIndex = event.getActionIndex() == 0 ? 1 : 0;
+            MotionEvent down = MotionEvent.obtain(event);
+            down.setAction(MotionEvent.ACTION_DOWN | downIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+            super.dispatchTouchEvent(down);
+            down.recycle();
+            return super.dispatchTouchEvent(event);
+        }
+
+        // Give this view a chance to steal the gesture, the same way the super class would
+        boolean intercepted = !disallowIntercept && onInterceptTouchEvent(event);
+        boolean handled = dispatchToTouchTarget(event, intercepted);
+        if (intercepted || action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            touchTarget = null;
+        }
+
+        return handled;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(@NonNull MotionEvent event) {
+        return eventDragHelper != null && eventDragHelper.onInterceptTouchEvent(event);
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull MotionEvent event) {
+        return eventDragHelper != null && eventDragHelper.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    @Override
+    public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        this.disallowIntercept = disallowIntercept;
+        super.requestDisallowInterceptTouchEvent(disallowIntercept);
+    }
+
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
         super.onDraw(canvas);
 
-        // Draw the hour and half-hour divider lines directly onto the canvas
-        for (DirectionalRect rect : hourDividerRects) {
-            canvas.drawRect(rect.getLeft(),
-                    rect.getTop(),
-                    rect.getRight(),
-                    rect.getBottom(),
-                    hourDividerPaint);
+        if (occlusionCullingEnabled) {
+            updateOcclusion();
+            drawUncoveredDividers(canvas);
+            return;
         }
 
-        for (DirectionalRect rect : halfHourDividerRects) {
-            canvas.drawRect(rect.getLeft(),
-                    rect.getTop(),
-                    rect.getRight(),
-                    rect.getBottom(),
-                    halfHourDividerPaint);
+        drawDividers(canvas);
+    }
+
+    @Override
+    protected boolean drawChild(@NonNull Canvas canvas, @NonNull View child, long drawingTime) {
+        if (occlusionCullingEnabled && occludedEventViews.contains(child)) {
+            return false;
+        }
+
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    @Override
+    protected void dispatchDraw(@NonNull Canvas canvas) {
+        // Events waiting to be measured are drawn as placeholders
+        for (int i = pendingMeasureIndex; i < pendingMeasureCount; i++) {
+            int position = measureOrder[i];
+            if (isEventPendingMeasure(position) && !isEventOccluded(position)) {
+                DirectionalRect rect = eventRects.get(position);
+                canvas.drawRect(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom(), eventPlaceholderPaint);
+            }
+        }
+
+        drawEventBars(canvas);
+
+        super.dispatchDraw(canvas);
+        occludedEventViews.clear();
+
+        // The current time line is drawn over the events
+        if (isCurrentTimeDrawn()) {
+            canvas.drawRect(currentTimeRect.getLeft(),
+                    currentTimeRect.getTop(),
+                    currentTimeRect.getRight(),
+                    currentTimeRect.getBottom(),
+                    currentTimePaint);
         }
     }
 
@@ -378,47 +1292,92 @@ public class DayView extends ViewGroup {
         // Start with the default measured dimension
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 
-        parentWidth = getMeasuredWidth();
+        setMeasuredDimension(widthMeasureSpec, measureHeight(getMeasuredWidth(), widthMeasureSpec, heightMeasureSpec));
+    }
+
+    /**
+     * @return the measured height of this view for the given measured width
+     */
+    @VisibleForTesting
+    int measureHeight(int measuredWidth, int widthMeasureSpec, int heightMeasureSpec) {
+        // With a fixed hour label height, the height is plain arithmetic and the children are only
+        // measured once this view is laid out, so measuring it again and again stays cheap
+        if (hourLabelHeight > 0) {
+            childViewsMeasurePending = true;
+            return getHeightForHourLabels(hourLabelHeight, hourLabelHeight);
+        }
+
+        return measureChildViews(measuredWidth, widthMeasureSpec, heightMeasureSpec);
+    }
+
+    /**
+     * @param firstHourLabelHeight the height of the first hour label
+     * @param lastHourLabelHeight  the height of the last hour label
+     * @return the measured height of this view
+     */
+    @VisibleForTesting
+    int getHeightForHourLabels(int firstHourLabelHeight, int lastHourLabelHeight) {
+        int usableHeight = (hourDividersCount + halfHourDividersCount - 1) * usableHalfHourHeight;
+        int verticalPadding = firstHourLabelHeight / 2 + getPaddingTop() + lastHourLabelHeight / 2
+                + getPaddingBottom() + dividerHeight;
+        return usableHeight + verticalPadding;
+    }
+
+    /**
+     * Measures the hour labels and events, and sets every rect, for the given measured width.
+     *
+     * @return the measured height
+     */
+    @VisibleForTesting
+    int measureChildViews(int measuredWidth, int widthMeasureSpec, int heightMeasureSpec) {
+        parentWidth = measuredWidth;
+        childViewsMeasurePending = false;
+        allocateRects();
 
         // Measure the hour labels using two passes, this first pass is only to figure out the
-        // heights
+        // heights, unless they are fixed
         int hourLabelStart = isRtl ? getPaddingRight() : getPaddingLeft();
         int hourLabelEnd = hourLabelStart + hourLabelWidth;
-        int firstDividerTop = 0;
-        int lastDividerMarginBottom = 0;
+        int firstHourLabelHeight = hourLabelHeight;
+        int lastHourLabelHeight = hourLabelHeight;
         int hourLabelViewsSize = hourLabelViews.size();
-        for (int i = 0; i < hourLabelViewsSize; i++) {
-            View view = hourLabelViews.get(i);
-            measureChild(view, widthMeasureSpec, heightMeasureSpec);
-
-            if (i == 0) {
-                firstDividerTop = view.getMeasuredHeight() / 2;
-            } else if (i == hourLabelViewsSize - 1) {
-                lastDividerMarginBottom = view.getMeasuredHeight() / 2;
+        if (hourLabelHeight <= 0) {
+            for (int i = 0; i < hourLabelViewsSize; i++) {
+                View view = hourLabelViews.get(i);
+                measureChild(view, widthMeasureSpec, heightMeasureSpec);
+
+                if (i == 0) {
+                    firstHourLabelHeight = view.getMeasuredHeight();
+                } else if (i == hourLabelViewsSize - 1) {
+                    lastHourLabelHeight = view.getMeasuredHeight();
+                }
             }
         }
 
         // Calculate the measured height
-        int usableHeight = (hourDividerRects.size() + halfHourDividerRects.size() - 1) * usableHalfHourHeight;
+        int usableHeight = (hourDividersCount + halfHourDividersCount - 1) * usableHalfHourHeight;
         minuteHeight = (float) usableHeight / minuteCount;
-        firstDividerTop += getPaddingTop();
-        int verticalPadding = firstDividerTop + lastDividerMarginBottom + getPaddingBottom() + dividerHeight;
-        int measuredHeight = usableHeight + verticalPadding;
+        int firstDividerTop = firstHourLabelHeight / 2 + getPaddingTop();
+        int measuredHeight = getHeightForHourLabels(firstHourLabelHeight, lastHourLabelHeight);
 
         // Calculate the horizontal positions of the dividers
         int dividerStart = hourLabelEnd + hourLabelMarginEnd;
-        int dividerEnd = getMeasuredWidth() - (isRtl ? getPaddingLeft() : getPaddingRight());
+        int dividerEnd = measuredWidth - (isRtl ? getPaddingLeft() : getPaddingRight());
 
         // Set the rects for hour labels, dividers, and events
         setHourLabelRects(hourLabelStart, hourLabelEnd, firstDividerTop);
         setDividerRects(firstDividerTop, dividerStart, dividerEnd);
         setEventRects(firstDividerTop, minuteHeight, dividerStart, dividerEnd);
+        bindOverflowViews();
+        setMinuteTops(firstDividerTop, usableHeight);
+        setCurrentTimeRect();
+        buildEventIndex();
 
         // Measure the hour labels and events for a final time
         measureHourLabels();
         measureEvents();
 
-        setMeasuredDimension(widthMeasureSpec, measuredHeight);
+        return measuredHeight;
     }
 
     protected void measureExactly(@NonNull View view, @NonNull DirectionalRect rect) {
@@ -455,10 +1414,11 @@ public class DayView extends ViewGroup {
 
     @VisibleForTesting
     void setHourLabelRects(int hourLabelStart, int hourLabelEnd, int firstDividerTop) {
+        allocateRects();
         for (int i = 0; i < hourLabelViews.size(); i++) {
             View view = hourLabelViews.get(i);
 
-            int height = view.getMeasuredHeight();
+            int height = hourLabelHeight > 0 ? hourLabelHeight : view.getMeasuredHeight();
 
             int top = firstDividerTop + usableHalfHourHeight * i * 2 - height / 2;
             int bottom = top + height;
@@ -469,6 +1429,7 @@ public class DayView extends ViewGroup {
 
     @VisibleForTesting
     void setDividerRects(int firstDividerTop, int dividerStart, int dividerEnd) {
+        allocateRects();
         for (int i = 0; i < hourDividerRects.size(); i++) {
             int top = firstDividerTop + i * 2 * usableHalfHourHeight;
             int bottom = top + dividerHeight;
@@ -486,35 +1447,193 @@ public class DayView extends ViewGroup {
 
     @VisibleForTesting
     void setEventRects(int firstDividerTop, float minuteHeight, int dividerStart, int dividerEnd) {
+        eventAreaStart = dividerStart;
+        eventAreaEnd = dividerEnd;
+        eventGeometry.setEventArea(isRtl, parentWidth, dividerStart, firstDividerTop, dividerEnd, minuteHeight);
+
+        setEventOverflows();
         if (eventColumnSpansHelper == null) {
             return;
         }
 
-        int eventColumnWidth = eventColumnSpansHelper.columnCount > 0
-                ? (dividerEnd - dividerStart) / eventColumnSpansHelper.columnCount
-                : 0;
-
         for (int i = 0; i < filteredEventViews.size(); i++) {
-            EventTimeRange timeRange = filteredEventTimeRanges.get(i);
-            EventColumnSpan columnSpan = eventColumnSpansHelper.columnSpans.get(i);
+            setEventRect(i);
+        }
 
-            int filteredStartMinute = Math.max(startMinute, timeRange.startMinute);
-            int duration = Math.min(endMinute, timeRange.endMinute) - filteredStartMinute;
-            if (duration < MIN_DURATION_MINUTES) {
-                duration = MIN_DURATION_MINUTES;
-                filteredStartMinute = endMinute - duration;
+        setOverflowRects();
+    }
+
+    /**
+     * Finds the clusters of overlapping events that need more than {@link #maxColumns} columns.
+     * The events of such a cluster starting in its last column or beyond are hidden behind an
+     * overflow taking up that last column, which the rest of the cluster gives up.
+     */
+    @VisibleForTesting
+    void setEventOverflows() {
+        int size = filteredEventTimeRanges.size();
+        if (eventFlags.length < size) {
+            eventFlags = new int[size];
+            eventDetailLevels = new int[size];
+            reportedEventDetailLevels = new int[size];
+        }
+
+        for (int i = 0; i < size; i++) {
+            eventFlags[i] &= ~(EVENT_FLAG_HIDDEN | EVENT_FLAG_OVERFLOW_CLUSTER);
+        }
+        eventOverflows.clear();
+        if (eventColumnSpansHelper == null || maxColumns <= 0 || eventColumnSpansHelper.columnCount <= maxColumns) {
+            return;
+        }
+
+        EventColumnLayout columnLayout = eventColumnSpansHelper.columnLayout;
+        for (int i = 0; i < columnLayout.getClusterCount(); i++) {
+            setClusterOverflow(columnLayout.getClusterStart(i), columnLayout.getClusterEnd(i));
+        }
+    }
+
+    /**
+     * Moves the event at the given position to a new time range without rebinding the event views.
+     * Only the events in the overlap clusters the event leaves and joins are laid out again, unless
+     * the move changes the total number of columns.
+     *
+     * @param position  the position of the event within the filtered events
+     * @param timeRange the new time range of the event
+     */
+    void setEventTimeRange(int position, @NonNull com.linkedin.android.tachyon.EventTimeRange timeRange) {
+        com.linkedin.android.tachyon.EventTimeRange previousTimeRange = filteredEventTimeRanges.set(position, timeRange);
+
+        // The unfiltered events are filtered again when the hours change, they have to keep the move
+        View eventView = filteredEventViews.get(position);
+        for (int i = 0; i < eventViews.size(); i++) {
+            if (eventViews.get(i) == eventView) {
+                eventTimeRanges.set(i, timeRange);
+                break;
+            }
+        }
+
+        if (eventColumnSpansHelper == null) {
+            return;
+        }
+
+        int size = filteredEventViews.size();
+        if (affectedEvents.length < size) {
+            affectedEvents = new boolean[size];
+        }
+
+        boolean allAffected = eventColumnSpansHelper.updateColumnSpans(position, previousTimeRange, affectedEvents);
+
+        // Overflows depend on every cluster, so they're all laid out again when there are any
+        boolean hasOverflows = !eventOverflows.isEmpty()
+                || maxColumns > 0 && eventColumnSpansHelper.columnCount > maxColumns;
+        if (hasOverflows) {
+            setEventOverflows();
+            setOverflowRects();
+            bindOverflowViews();
+            layoutOverflowViews();
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (hasOverflows || allAffected || affectedEvents[i]) {
+                setEventRect(i);
+
+                View view = filteredEventViews.get(i);
+                DirectionalRect rect = eventRects.get(i);
+                reportEventDetailLevel(i);
+                eventFlags[i] &= ~EVENT_FLAG_PENDING_MEASURE;
+                if (isEventMeasured(i)) {
+                    measureExactly(view, rect);
+                }
+                layoutEventView(view, rect, isEventMeasured(i));
+            }
+        }
+
+        buildEventIndex();
+    }
+
+    /**
+     * Lays out the columns of the filtered events from scratch, only needed when they are bound
+     * or the layout strategy changes.
+     */
+    @VisibleForTesting
+    @NonNull
+    EventColumnSpansHelper createEventColumnSpansHelper() {
+        return new EventColumnSpansHelper(filteredEventTimeRanges, eventLayoutStrategy);
+    }
+
+    @VisibleForTesting
+    void setMinuteTops(int firstDividerTop, int usableHeight) {
+        minuteTopsOrigin = firstDividerTop + dividerHeight;
+        minuteOffsets = config.getMinuteOffsets(minuteCount, usableHeight);
+    }
+
+    @VisibleForTesting
+    void setCurrentTimeRect() {
+        int top = getYForTime(currentTimeMinute) - currentTimeHeight / 2;
+        setRect(currentTimeRect, eventAreaStart, top, eventAreaEnd, top + currentTimeHeight);
+    }
+
+    @VisibleForTesting
+    void buildEventIndex() {
+        int count = eventRects.size();
+        if (eventIndexOrder.length < count) {
+            eventIndexOrder = new int[count];
+            eventIndexTops = new int[count];
+            eventIndexMaxBottoms = new int[count];
+            eventIndexSortBuffer = new long[count];
+        }
+
+        // Pack each top with its index so a primitive sort orders them without boxing, hidden
+        // events can't be hit so they're left out
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (!isEventHidden(i)) {
+                eventIndexSortBuffer[size++] = ((long) eventRects.get(i).getTop() << 32) | i;
             }
+        }
+        Arrays.sort(eventIndexSortBuffer, 0, size);
 
-            int start = columnSpan.startColumn * eventColumnWidth + dividerStart + eventMargin;
-            int end = start + (columnSpan.endColumn - columnSpan.startColumn) * eventColumnWidth - eventMargin * 2;
+        int maxBottom = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int index = (int) eventIndexSortBuffer[i];
+            DirectionalRect rect = eventRects.get(index);
+            maxBottom = Math.max(maxBottom, rect.getBottom());
 
-            int topOffset = (int) ((filteredStartMinute - startMinute) * minuteHeight);
+            eventIndexOrder[i] = index;
+            eventIndexTops[i] = rect.getTop();
+            eventIndexMaxBottoms[i] = maxBottom;
+        }
+
+        eventIndexSize = size;
+    }
 
-            int top = firstDividerTop + topOffset + dividerHeight + eventMargin;
-            int bottom = top + (int) (duration * minuteHeight) - eventMargin * 2 - dividerHeight;
+    /**
+     * @return the index of the event drawn at the given position, or -1 if there is none
+     */
+    int findEventIndexAt(int x, int y) {
+        // Find how many events start at or above the given offset
+        int low = 0;
+        int high = eventIndexSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (eventIndexTops[mid] <= y) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
 
-            setRect(eventRects.get(i), start, top, end, bottom);
+        // Walk back through those events until none of the remaining ones can reach the offset,
+        // later events are drawn on top so the highest matching index wins
+        int result = -1;
+        for (int i = low - 1; i >= 0 && eventIndexMaxBottoms[i] > y; i--) {
+            int index = eventIndexOrder[i];
+            DirectionalRect rect = eventRects.get(index);
+            if (index > result && x >= rect.getLeft() && x < rect.getRight() && y < rect.getBottom()) {
+                result = index;
+            }
         }
+
+        return result;
     }
 
     /**
@@ -554,9 +1673,206 @@ public class DayView extends ViewGroup {
         return halfHourDividerRects;
     }
 
-    @VisibleForTesting
-    void setParentWidth(int parentWidth) {
-        this.parentWidth = parentWidth;
+    @NonNull
+    View getEventView(int position) {
+        return filteredEventViews.get(position);
+    }
+
+    @NonNull
+    com.linkedin.android.tachyon.EventTimeRange getEventTimeRange(int position) {
+        return filteredEventTimeRanges.get(position);
+    }
+
+    @NonNull
+    DirectionalRect getEventRect(int position) {
+        return eventRects.get(position);
+    }
+
+    @VisibleForTesting
+    void setParentWidth(int parentWidth) {
+        this.parentWidth = parentWidth;
+    }
+
+    private int getDisplayedColumnCount(@NonNull EventColumnSpan columnSpan) {
+        return maxColumns > 0 ? Math.min(columnSpan.columnCount, maxColumns) : columnSpan.columnCount;
+    }
+
+    private int getColumnWidth(int columnCount) {
+        return eventGeometry.getColumnWidth(columnCount);
+    }
+
+    private boolean isEventHidden(int position) {
+        return position < eventFlags.length && (eventFlags[position] & EVENT_FLAG_HIDDEN) != 0;
+    }
+
+    /**
+     * @return true if the view of the event at the given position is measured and drawn, rather
+     * than hidden or drawn as a bar
+     */
+    private boolean isEventMeasured(int position) {
+        return !isEventHidden(position)
+                && (position >= eventDetailLevels.length || eventDetailLevels[position] < EVENT_DETAIL_BAR);
+    }
+
+    private boolean isEventPendingMeasure(int position) {
+        return position < eventFlags.length && (eventFlags[position] & EVENT_FLAG_PENDING_MEASURE) != 0;
+    }
+
+    private void setClusterOverflow(int from, int to) {
+        EventColumnLayout columnLayout = eventColumnSpansHelper.columnLayout;
+        boolean overflowing = false;
+        for (int i = from; i < to && !overflowing; i++) {
+            int position = columnLayout.getClusterPosition(i);
+            overflowing = eventColumnSpansHelper.columnSpans.get(position).startColumn >= maxColumns;
+        }
+
+        if (!overflowing) {
+            return;
+        }
+
+        EventOverflow overflow = new EventOverflow();
+        overflow.startMinute = Integer.MAX_VALUE;
+        overflow.endMinute = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            int position = columnLayout.getClusterPosition(i);
+            if (eventColumnSpansHelper.columnSpans.get(position).startColumn >= maxColumns - 1) {
+                com.linkedin.android.tachyon.EventTimeRange timeRange = filteredEventTimeRanges.get(position);
+                eventFlags[position] |= EVENT_FLAG_HIDDEN;
+                overflow.hiddenEventViews.add(filteredEventViews.get(position));
+                overflow.startMinute = Math.min(overflow.startMinute, timeRange.getStartMinute());
+                overflow.endMinute = Math.max(overflow.endMinute, timeRange.getEndMinute());
+            } else {
+                eventFlags[position] |= EVENT_FLAG_OVERFLOW_CLUSTER;
+            }
+        }
+
+        eventOverflows.add(overflow);
+    }
+
+    private void setEventRect(int position) {
+        DirectionalRect rect = eventRects.get(position);
+        int flags = position < eventFlags.length ? eventFlags[position] : 0;
+        if ((flags & EVENT_FLAG_HIDDEN) != 0) {
+            rect.set(false, 0, 0, 0, 0, 0);
+        } else {
+            com.linkedin.android.tachyon.EventTimeRange timeRange = filteredEventTimeRanges.get(position);
+            EventColumnSpan columnSpan = eventColumnSpansHelper.columnSpans.get(position);
+            int columnCount = getDisplayedColumnCount(columnSpan);
+            int lastColumn = (flags & EVENT_FLAG_OVERFLOW_CLUSTER) != 0 ? maxColumns - 1 : columnCount;
+
+            eventGeometry.setColumnRect(rect, timeRange.getStartMinute(), timeRange.getEndMinute(), columnSpan.startColumn,
+                    Math.min(columnSpan.endColumn, lastColumn), getColumnWidth(columnCount));
+        }
+
+        if (position < eventDetailLevels.length) {
+            eventDetailLevels[position] = getEventDetailLevel(rect);
+        }
+    }
+
+    @VisibleForTesting
+    int getEventDetailLevel(@NonNull DirectionalRect rect) {
+        int width = rect.getRight() - rect.getLeft();
+        int height = rect.getBottom() - rect.getTop();
+        if (width <= 0 || height <= 0) {
+            return EVENT_DETAIL_NONE;
+        } else if (height < barEventHeight || width < barEventWidth) {
+            return EVENT_DETAIL_BAR;
+        } else if (height < compactEventHeight) {
+            return EVENT_DETAIL_COMPACT;
+        }
+
+        return EVENT_DETAIL_FULL;
+    }
+
+    /**
+     * Lets the listener bind the view of the event at the given position again if its detail level
+     * changed since it was last reported. Hidden events are left alone, their views are still
+     * handed to the overflow adapter as they are.
+     */
+    private void reportEventDetailLevel(int position) {
+        if (eventDetailLevelChangeListener == null || position >= eventDetailLevels.length || isEventHidden(position)) {
+            return;
+        }
+
+        int detailLevel = eventDetailLevels[position];
+        if (reportedEventDetailLevels[position] != detailLevel) {
+            reportedEventDetailLevels[position] = detailLevel;
+            eventDetailLevelChangeListener.onEventDetailLevelChanged(filteredEventViews.get(position), detailLevel);
+        }
+    }
+
+    /**
+     * Draws the background of each event shown as a bar in its rect, or a placeholder if it has no
+     * background.
+     */
+    private void drawEventBars(@NonNull Canvas canvas) {
+        for (int i = 0; i < filteredEventViews.size() && i < eventDetailLevels.length; i++) {
+            if (eventDetailLevels[i] != EVENT_DETAIL_BAR || isEventHidden(i) || isEventOccluded(i)) {
+                continue;
+            }
+
+            DirectionalRect rect = eventRects.get(i);
+            Drawable background = filteredEventViews.get(i).getBackground();
+            if (background == null) {
+                canvas.drawRect(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom(), eventPlaceholderPaint);
+                continue;
+            }
+
+            barBounds.set(background.getBounds());
+            background.setBounds(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+            background.draw(canvas);
+            background.setBounds(barBounds);
+        }
+    }
+
+    private void setOverflowRects() {
+        int eventColumnWidth = getColumnWidth(maxColumns);
+        for (int i = 0; i < eventOverflows.size(); i++) {
+            EventOverflow overflow = eventOverflows.get(i);
+            eventGeometry.setColumnRect(overflow.rect, overflow.startMinute, overflow.endMinute, maxColumns - 1,
+                    maxColumns, eventColumnWidth);
+        }
+    }
+
+    /**
+     * Binds a view from the overflow adapter for each overflow, reusing the views bound for the
+     * previous layout pass where possible.
+     */
+    private void bindOverflowViews() {
+        int count = eventOverflowAdapter != null ? eventOverflows.size() : 0;
+        for (int i = 0; i < count; i++) {
+            View convertView = i < overflowViews.size() ? overflowViews.get(i) : null;
+            View view = eventOverflowAdapter.getOverflowView(convertView, eventOverflows.get(i).hiddenEventViews);
+            if (view != convertView) {
+                if (convertView != null) {
+                    convertView.setOnClickListener(null);
+                    removeViewInLayout(convertView);
+                    overflowViews.set(i, view);
+                } else {
+                    overflowViews.add(view);
+                }
+
+                LayoutParams params = view.getLayoutParams();
+                addViewInLayout(view, -1, params != null ? params : generateDefaultLayoutParams());
+                view.setOnClickListener(overflowClickListener);
+            }
+
+            measureExactly(view, eventOverflows.get(i).rect);
+        }
+
+        for (int i = overflowViews.size() - 1; i >= count; i--) {
+            View view = overflowViews.remove(i);
+            view.setOnClickListener(null);
+            removeViewInLayout(view);
+        }
+    }
+
+    private void layoutOverflowViews() {
+        for (int i = 0; i < overflowViews.size(); i++) {
+            View view = overflowViews.get(i);
+            DirectionalRect rect = eventOverflows.get(i).rect;
+            view.layout(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+        }
     }
 
     private void measureHourLabels() {
@@ -566,35 +1882,837 @@ public class DayView extends ViewGroup {
     }
 
     private void measureEvents() {
-        for (int i = 0; i < filteredEventViews.size(); i++) {
-            measureExactly(filteredEventViews.get(i), eventRects.get(i));
+        removeCallbacks(measureRunnable);
+        pendingMeasureIndex = 0;
+        pendingMeasureCount = 0;
+
+        int size = filteredEventViews.size();
+        for (int i = 0; i < size; i++) {
+            eventFlags[i] &= ~EVENT_FLAG_PENDING_MEASURE;
+            reportEventDetailLevel(i);
+        }
+
+        if (incrementalMeasureBudgetNanos <= 0) {
+            for (int i = 0; i < size; i++) {
+                if (isEventMeasured(i)) {
+                    measureExactly(filteredEventViews.get(i), eventRects.get(i));
+                }
+            }
+
+            return;
+        }
+
+        // Without a visible area yet, assume the top of this view is about to be shown
+        int visibleTop = 0;
+        int visibleBottom = getResources().getDisplayMetrics().heightPixels;
+        if (getLocalVisibleRect(visibleRect)) {
+            visibleTop = visibleRect.top;
+            visibleBottom = visibleRect.bottom;
+        }
+
+        // Measure the visible events no matter what, then as many more as the budget allows, and
+        // leave the rest for the following frames
+        int visibleCount = setMeasureOrder(visibleTop, visibleBottom);
+        long deadline = System.nanoTime() + incrementalMeasureBudgetNanos;
+        for (int i = 0; i < measureOrderSize; i++) {
+            int position = measureOrder[i];
+            if (i < visibleCount || System.nanoTime() < deadline) {
+                eventFlags[position] &= ~EVENT_FLAG_PENDING_MEASURE;
+                measureExactly(filteredEventViews.get(position), eventRects.get(position));
+            } else {
+                eventFlags[position] |= EVENT_FLAG_PENDING_MEASURE;
+                measureOrder[pendingMeasureCount++] = position;
+            }
+        }
+
+        if (pendingMeasureCount > 0) {
+            ViewCompat.postOnAnimation(this, measureRunnable);
         }
     }
 
     /**
-     * Represents the start and end time of a calendar event. Both times are in minutes since the
-     * start of the day.
+     * Orders the events that are measured by how far they are from the visible area, the events
+     * overlapping it first.
+     *
+     * @param visibleTop    the top of the visible area
+     * @param visibleBottom the bottom of the visible area
+     * @return the number of events overlapping the visible area
      */
-    public static class EventTimeRange {
+    @VisibleForTesting
+    int setMeasureOrder(int visibleTop, int visibleBottom) {
+        int size = filteredEventViews.size();
+        if (measureOrder.length < size) {
+            measureOrder = new int[size];
+            measureSortBuffer = new long[size];
+        }
 
-        private final int startMinute;
-        private final int endMinute;
+        int count = 0;
+        int visibleCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (!isEventMeasured(i)) {
+                continue;
+            }
 
-        public EventTimeRange(int startMinute, int endMinute) {
-            this.startMinute = startMinute;
-            this.endMinute = endMinute;
+            DirectionalRect rect = eventRects.get(i);
+            int distance = 0;
+            if (rect.getBottom() <= visibleTop) {
+                distance = visibleTop - rect.getBottom() + 1;
+            } else if (rect.getTop() >= visibleBottom) {
+                distance = rect.getTop() - visibleBottom + 1;
+            } else {
+                visibleCount++;
+            }
+
+            measureSortBuffer[count++] = ((long) distance << 32) | i;
+        }
+        Arrays.sort(measureSortBuffer, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            measureOrder[i] = (int) measureSortBuffer[i];
+        }
+
+        measureOrderSize = count;
+        return visibleCount;
+    }
+
+    /**
+     * Measures and lays out pending events until the frame's budget runs out, at least one event
+     * is measured each frame.
+     */
+    private void measurePendingEvents() {
+        if (pendingMeasureIndex >= pendingMeasureCount) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + incrementalMeasureBudgetNanos;
+        do {
+            int position = measureOrder[pendingMeasureIndex++];
+            if (position >= filteredEventViews.size() || !isEventPendingMeasure(position)) {
+                continue;
+            }
+
+            eventFlags[position] &= ~EVENT_FLAG_PENDING_MEASURE;
+            View view = filteredEventViews.get(position);
+            DirectionalRect rect = eventRects.get(position);
+            reportEventDetailLevel(position);
+            boolean measured = isEventMeasured(position);
+            if (measured) {
+                measureExactly(view, rect);
+            }
+            layoutEventView(view, rect, measured);
+            invalidate(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+        } while (pendingMeasureIndex < pendingMeasureCount && System.nanoTime() < deadline);
+
+        if (pendingMeasureIndex < pendingMeasureCount) {
+            ViewCompat.postOnAnimation(this, measureRunnable);
+        }
+    }
+
+    private void drawDividers(@NonNull Canvas canvas) {
+        // Draw the hour and half-hour divider lines directly onto the canvas
+        for (DirectionalRect rect : hourDividerRects) {
+            canvas.drawRect(rect.getLeft(),
+                    rect.getTop(),
+                    rect.getRight(),
+                    rect.getBottom(),
+                    hourDividerPaint);
+        }
+
+        for (DirectionalRect rect : halfHourDividerRects) {
+            canvas.drawRect(rect.getLeft(),
+                    rect.getTop(),
+                    rect.getRight(),
+                    rect.getBottom(),
+                    halfHourDividerPaint);
+        }
+    }
+
+    private void drawUncoveredDividers(@NonNull Canvas canvas) {
+        int hourDividerCount = hourDividerRects.size();
+        for (int i = 0; i < dividerSegmentCount; i++) {
+            int divider = dividerSegments[i * 3];
+            DirectionalRect rect = divider < hourDividerCount
+                    ? hourDividerRects.get(divider)
+                    : halfHourDividerRects.get(divider - hourDividerCount);
+            canvas.drawRect(dividerSegments[i * 3 + 1],
+                    rect.getTop(),
+                    dividerSegments[i * 3 + 2],
+                    rect.getBottom(),
+                    divider < hourDividerCount ? hourDividerPaint : halfHourDividerPaint);
+        }
+    }
+
+    /**
+     * Collects the rects of the opaque events, then finds the divider segments they leave uncovered
+     * and the events they entirely cover.
+     */
+    private void updateOcclusion() {
+        occluderCount = 0;
+        occludedEventViews.clear();
+        int size = Math.min(filteredEventViews.size(), eventDetailLevels.length);
+        for (int i = 0; i < size; i++) {
+            if (isEventSettled(i) && isEventOpaque(i)) {
+                addOccluder(eventRects.get(i), i);
+            }
+        }
+
+        setUncoveredDividerSegments();
+
+        for (int i = 0; i < size; i++) {
+            if (isEventSettled(i) && isEventCovered(i)) {
+                occludedEventViews.add(filteredEventViews.get(i));
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void addOccluder(@NonNull DirectionalRect rect, int position) {
+        if (occluderPositions.length <= occluderCount) {
+            int capacity = Math.max(occluderCount * 2, 8);
+            occluderRects = Arrays.copyOf(occluderRects, capacity * 4);
+            occluderPositions = Arrays.copyOf(occluderPositions, capacity);
+        }
+
+        putRect(occluderRects, occluderCount * 4, rect);
+        occluderPositions[occluderCount++] = position;
+    }
+
+    /**
+     * Sweeps each divider from start to end over the occluders sorted by their left, keeping the
+     * segments between the occluders covering the whole height of the divider.
+     */
+    @VisibleForTesting
+    void setUncoveredDividerSegments() {
+        if (occluderSortBuffer.length < occluderCount) {
+            occluderSortBuffer = new long[occluderCount];
+        }
+        for (int i = 0; i < occluderCount; i++) {
+            occluderSortBuffer[i] = ((long) occluderRects[i * 4] << 32) | i;
+        }
+        Arrays.sort(occluderSortBuffer, 0, occluderCount);
+
+        dividerSegmentCount = 0;
+        int hourDividerCount = hourDividerRects.size();
+        int dividerCount = hourDividerCount + halfHourDividerRects.size();
+        for (int i = 0; i < dividerCount; i++) {
+            DirectionalRect rect = i < hourDividerCount
+                    ? hourDividerRects.get(i)
+                    : halfHourDividerRects.get(i - hourDividerCount);
+            int start = rect.getLeft();
+            for (int j = 0; j < occluderCount && start < rect.getRight(); j++) {
+                int index = (int) occluderSortBuffer[j] * 4;
+                if (occluderRects[index + 1] > rect.getTop() || occluderRects[index + 3] < rect.getBottom()) {
+                    continue;
+                }
+
+                if (occluderRects[index] > start) {
+                    addDividerSegment(i, start, Math.min(occluderRects[index], rect.getRight()));
+                }
+                start = Math.max(start, occluderRects[index + 2]);
+            }
+
+            if (start < rect.getRight()) {
+                addDividerSegment(i, start, rect.getRight());
+            }
+        }
+    }
+
+    private void addDividerSegment(int divider, int left, int right) {
+        if (dividerSegments.length < (dividerSegmentCount + 1) * 3) {
+            dividerSegments = Arrays.copyOf(dividerSegments, Math.max(dividerSegmentCount * 2, 64) * 3);
+        }
+
+        dividerSegments[dividerSegmentCount * 3] = divider;
+        dividerSegments[dividerSegmentCount * 3 + 1] = left;
+        dividerSegments[dividerSegmentCount * 3 + 2] = right;
+        dividerSegmentCount++;
+    }
+
+    /**
+     * @return true if the event at the given position is drawn where its rect is, either by its
+     * view or as a bar. Events waiting to be measured or moved by a drag or an animation are left
+     * out of occlusion.
+     */
+    private boolean isEventSettled(int position) {
+        if (isEventHidden(position) || isEventPendingMeasure(position)) {
+            return false;
+        }
+
+        if (!isEventMeasured(position)) {
+            return eventDetailLevels[position] == EVENT_DETAIL_BAR;
+        }
+
+        View view = filteredEventViews.get(position);
+        return view.getVisibility() == VISIBLE
+                && view.getAnimation() == null
+                && view.getTranslationX() == 0
+                && view.getTranslationY() == 0
+                && ViewCompat.getTranslationZ(view) == 0
+                && view.getScaleX() == 1
+                && view.getScaleY() == 1;
+    }
+
+    private boolean isEventOpaque(int position) {
+        View view = filteredEventViews.get(position);
+        if (isEventMeasured(position)) {
+            return view.isOpaque();
+        }
+
+        Drawable background = view.getBackground();
+        return background != null
+                ? background.getOpacity() == PixelFormat.OPAQUE
+                : eventPlaceholderPaint.getAlpha() == 255;
+    }
+
+    private boolean isEventOccluded(int position) {
+        return occlusionCullingEnabled && occludedEventViews.contains(filteredEventViews.get(position));
+    }
+
+    /**
+     * @return true if an opaque event drawn after the event at the given position covers its whole
+     * rect
+     */
+    private boolean isEventCovered(int position) {
+        DirectionalRect rect = eventRects.get(position);
+        for (int i = 0; i < occluderCount; i++) {
+            int index = (int) occluderSortBuffer[i];
+            if (occluderRects[index * 4] > rect.getLeft()) {
+                break;
+            }
+
+            int occluderPosition = occluderPositions[index];
+            if (occluderPosition != position
+                    && occluderRects[index * 4 + 1] <= rect.getTop()
+                    && occluderRects[index * 4 + 2] >= rect.getRight()
+                    && occluderRects[index * 4 + 3] >= rect.getBottom()
+                    && isEventDrawnAfter(occluderPosition, position)) {
+                return true;
+            }
         }
 
+        return false;
+    }
+
+    /**
+     * Bars are drawn before the views of the events, in order of position, and views are drawn in
+     * the order they were added.
+     */
+    private boolean isEventDrawnAfter(int position, int otherPosition) {
+        boolean measured = isEventMeasured(position);
+        if (measured != isEventMeasured(otherPosition)) {
+            return measured;
+        }
+
+        if (!measured) {
+            return position > otherPosition;
+        }
+
+        return indexOfChild(filteredEventViews.get(position)) > indexOfChild(filteredEventViews.get(otherPosition));
+    }
+
+    private static int putRect(@NonNull int[] array, int index, @NonNull DirectionalRect rect) {
+        array[index++] = rect.getLeft();
+        array[index++] = rect.getTop();
+        array[index++] = rect.getRight();
+        array[index++] = rect.getBottom();
+        return index;
+    }
+
+    /**
+     * Sets the hour range and resizes the rect lists to match, drawing from and returning to the
+     * pool of rects.
+     */
+    private void setHourBounds(int startHour, int endHour) {
+        this.startHour = startHour;
+        this.endHour = endHour;
+        startMinute = startHour * MINUTES_PER_HOUR;
+        endMinute = endHour * MINUTES_PER_HOUR;
+        eventGeometry.setHourRange(startHour, endHour);
+
+        // The total number of usable minutes in this day
+        int hourCount = endHour - startHour;
+        minuteCount = hourCount * MINUTES_PER_HOUR;
+
+        // The hour labels and dividers count here is one more than the hours count so we can
+        // include the start of the midnight hour of the next day, setHourLabelViews() expects
+        // exactly this many labels
+        hourLabelsCount = hourCount + 1;
+        hourDividersCount = hourCount + 1;
+        halfHourDividersCount = hourCount;
+
+        if (rectsAllocated) {
+            rectsAllocated = false;
+            allocateRects();
+        }
+        minuteTopsOrigin = 0;
+        minuteOffsets = config.getMinuteOffsets(minuteCount, 2 * hourCount * usableHalfHourHeight);
+    }
+
+    /**
+     * Sizes the rects of the hour labels and dividers for the current hours. They are only
+     * allocated once this view is measured, so creating day views that aren't shown yet, such as
+     * the pages of a pager, stays cheap.
+     */
+    private void allocateRects() {
+        if (rectsAllocated) {
+            return;
+        }
+
+        rectsAllocated = true;
+        resizeRects(hourDividerRects, hourDividersCount);
+        resizeRects(halfHourDividerRects, halfHourDividersCount);
+        resizeRects(hourLabelRects, hourLabelsCount);
+    }
+
+    private void resizeRects(@NonNull List<DirectionalRect> rects, int size) {
+        while (rects.size() > size) {
+            rectPool.add(rects.remove(rects.size() - 1));
+        }
+
+        while (rects.size() < size) {
+            rects.add(!rectPool.isEmpty() ? rectPool.remove(rectPool.size() - 1) : new DirectionalRect());
+        }
+    }
+
+    private boolean isInDay(@NonNull com.linkedin.android.tachyon.EventTimeRange eventTimeRange) {
+        return eventGeometry.isInDay(eventTimeRange);
+    }
+
+    /**
+     * Binds the given events without a new layout pass when their time ranges match the current
+     * ones, which is the case when only the content of the events changed. Only the event views
+     * that were swapped out for new ones are laid out and invalidated. A few of the time ranges
+     * may have changed too, the clusters of those events are then laid out again locally.
+     *
+     * @return true if the events were bound in place
+     */
+    private boolean setEventViewsInPlace(@Nullable List<View> eventViews,
+                                         @Nullable List<? extends com.linkedin.android.tachyon.EventTimeRange> eventTimeRanges) {
+        if (eventViews == null || eventTimeRanges == null || filteredEventViews.isEmpty()
+                || eventViews.size() != eventTimeRanges.size() || !eventOverflows.isEmpty()) {
+            return false;
+        }
+
+        int position = 0;
+        int changedTimeRanges = 0;
+        for (int i = 0; i < eventTimeRanges.size(); i++) {
+            com.linkedin.android.tachyon.EventTimeRange eventTimeRange = eventTimeRanges.get(i);
+            if (isInDay(eventTimeRange)) {
+                if (position >= filteredEventTimeRanges.size()) {
+                    return false;
+                }
+
+                if (!eventTimeRange.equals(filteredEventTimeRanges.get(position))) {
+                    changedTimeRanges++;
+                }
+
+                position++;
+            }
+        }
+
+        if (position != filteredEventTimeRanges.size()) {
+            return false;
+        }
+
+        // A few events moving can be laid out locally, as long as the current layout is up to date
+        if (changedTimeRanges > 0 && (changedTimeRanges > MAX_IN_PLACE_TIME_RANGE_CHANGES || !isLayoutUpToDate())) {
+            return false;
+        }
+
+        // Remove every view being swapped out before adding any, the new events may reuse them at
+        // other positions
+        List<View> swappedOutViews = null;
+        position = 0;
+        for (int i = 0; i < eventTimeRanges.size(); i++) {
+            if (isInDay(eventTimeRanges.get(i))) {
+                View view = filteredEventViews.get(position);
+                if (view != eventViews.get(i)) {
+                    cancelChangeAnimation(view);
+                    removeViewInLayout(view);
+                    if (eventViewPool != null) {
+                        if (swappedOutViews == null) {
+                            swappedOutViews = new ArrayList<>();
+                        }
+                        swappedOutViews.add(view);
+                    }
+                }
+
+                position++;
+            }
+        }
+
+        position = 0;
+        for (int i = 0; i < eventTimeRanges.size(); i++) {
+            com.linkedin.android.tachyon.EventTimeRange eventTimeRange = eventTimeRanges.get(i);
+            if (isInDay(eventTimeRange)) {
+                View view = eventViews.get(i);
+                if (view != filteredEventViews.get(position)) {
+                    filteredEventViews.set(position, view);
+                    if (position < eventFlags.length) {
+                        eventFlags[position] &= ~EVENT_FLAG_PENDING_MEASURE;
+                        reportedEventDetailLevels[position] = EVENT_DETAIL_FULL;
+                    }
+                    reportEventDetailLevel(position);
+                    addEventViewInPlace(view, getEventChildIndex(position), eventRects.get(position),
+                            isEventMeasured(position));
+                }
+
+                if (!eventTimeRange.equals(filteredEventTimeRanges.get(position))) {
+                    setEventTimeRange(position, eventTimeRange);
+                } else {
+                    filteredEventTimeRanges.set(position, eventTimeRange);
+                }
+
+                position++;
+            }
+        }
+
+        this.eventViews.clear();
+        this.eventViews.addAll(eventViews);
+        this.eventTimeRanges.clear();
+        this.eventTimeRanges.addAll(eventTimeRanges);
+
+        if (eventViewPool != null) {
+            // Only the swapped out views that the new events didn't reuse are free
+            if (swappedOutViews != null) {
+                for (View view : swappedOutViews) {
+                    if (view.getParent() != this) {
+                        eventViewPool.release(view);
+                    }
+                }
+            }
+            eventViewPool.onEventsBound(eventViews.size());
+        }
+
+        return true;
+    }
+
+    /**
+     * Lays out an event view at its rect, or at its top start corner if it isn't measured. With
+     * change animations enabled, a view that was already laid out elsewhere is animated from where
+     * it is drawn, including any change animation still running.
+     */
+    @VisibleForTesting
+    void layoutEventView(@NonNull View view, @NonNull DirectionalRect rect, boolean measured) {
+        int left = rect.getLeft();
+        int top = rect.getTop();
+        int right = measured ? rect.getRight() : left;
+        int bottom = measured ? rect.getBottom() : top;
+        if (view.getLeft() == left && view.getTop() == top && view.getRight() == right && view.getBottom() == bottom) {
+            view.layout(left, top, right, bottom);
+            return;
+        }
+
+        // Views laid out without a size were waiting to be measured, they appear right away too
+        if (changeAnimationDuration <= 0 || !measured || !ViewCompat.isLaidOut(view)
+                || view.getWidth() == 0 || view.getHeight() == 0
+                || eventDragHelper != null && eventDragHelper.isDragging(view)) {
+            cancelChangeAnimation(view);
+            view.layout(left, top, right, bottom);
+            return;
+        }
+
+        int width = view.getWidth();
+        int height = view.getHeight();
+        float fromCenterX = view.getLeft() + width / 2f + view.getTranslationX();
+        float fromCenterY = view.getTop() + height / 2f + view.getTranslationY();
+        float fromWidth = width * view.getScaleX();
+        float fromHeight = height * view.getScaleY();
+
+        view.animate().cancel();
+        view.layout(left, top, right, bottom);
+
+        // Scaling happens around the center of the view by default
+        view.setTranslationX(fromCenterX - (left + right) / 2f);
+        view.setTranslationY(fromCenterY - (top + bottom) / 2f);
+        view.setScaleX(fromWidth / (right - left));
+        view.setScaleY(fromHeight / (bottom - top));
+        view.animate()
+                .translationX(0)
+                .translationY(0)
+                .scaleX(1)
+                .scaleY(1)
+                .setDuration(changeAnimationDuration)
+                .setInterpolator(CHANGE_INTERPOLATOR)
+                .start();
+        changeAnimatingEventViews.add(view);
+    }
+
+    /**
+     * Puts a view that may be animating back in place, before it moves without an animation or
+     * leaves this view.
+     */
+    private void cancelChangeAnimation(@NonNull View view) {
+        if (changeAnimatingEventViews.remove(view)) {
+            view.animate().cancel();
+            view.setTranslationX(0);
+            view.setTranslationY(0);
+            view.setScaleX(1);
+            view.setScaleY(1);
+        }
+    }
+
+    /**
+     * @return true if this view has been laid out and no new layout is pending
+     */
+    @VisibleForTesting
+    boolean isLayoutUpToDate() {
+        return ViewCompat.isLaidOut(this) && !isLayoutRequested();
+    }
+
+    /**
+     * @return the child index that keeps the event at the given position drawn above the events
+     * before it and below the ones after it, as touches are routed on that order
+     */
+    private int getEventChildIndex(int position) {
+        if (position > 0) {
+            return indexOfChild(filteredEventViews.get(position - 1)) + 1;
+        }
+
+        for (int i = 1; i < filteredEventViews.size(); i++) {
+            int index = indexOfChild(filteredEventViews.get(i));
+            if (index >= 0) {
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private void addEventViewInPlace(@NonNull View view, int index, @NonNull DirectionalRect rect, boolean measured) {
+        LayoutParams params = view.getLayoutParams();
+        if (params == null) {
+            params = generateDefaultLayoutParams();
+        }
+
+        addViewInLayout(view, index, params);
+        if (measured) {
+            measureExactly(view, rect);
+            view.layout(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+        } else {
+            view.layout(rect.getLeft(), rect.getTop(), rect.getLeft(), rect.getTop());
+        }
+        invalidate(rect.getLeft(), rect.getTop(), rect.getRight(), rect.getBottom());
+    }
+
+    private boolean isCurrentTimeDrawn() {
+        return currentTimeVisible && currentTimeMinute >= startMinute && currentTimeMinute <= endMinute;
+    }
+
+    private void updateCurrentTime() {
+        if (!currentTimeVisible) {
+            return;
+        }
+
+        if (calendar == null) {
+            calendar = Calendar.getInstance();
+        }
+
+        calendar.setTimeInMillis(System.currentTimeMillis());
+        int minute = calendar.get(Calendar.HOUR_OF_DAY) * MINUTES_PER_HOUR + calendar.get(Calendar.MINUTE);
+        if (minute == currentTimeMinute) {
+            return;
+        }
+
+        // Only the strip covering the old and new positions of the line needs to be redrawn
+        int previousTop = currentTimeRect.getTop();
+        int previousBottom = currentTimeRect.getBottom();
+        currentTimeMinute = minute;
+        setCurrentTimeRect();
+
+        invalidateCurrentTimeIfVisible(Math.min(previousTop, currentTimeRect.getTop()),
+                Math.max(previousBottom, currentTimeRect.getBottom()));
+    }
+
+    private void invalidateCurrentTimeIfVisible(int top, int bottom) {
+        // While scrolled out of view, wait until the line scrolls back in before redrawing it
+        ViewTreeObserver observer = getViewTreeObserver();
+        if (getLocalVisibleRect(visibleRect) && visibleRect.top < bottom && visibleRect.bottom > top) {
+            invalidate(currentTimeRect.getLeft(), top, currentTimeRect.getRight(), bottom);
+            if (currentTimeInvalidationPending) {
+                currentTimeInvalidationPending = false;
+                observer.removeOnScrollChangedListener(currentTimeScrollListener);
+            }
+        } else if (!currentTimeInvalidationPending) {
+            currentTimeInvalidationPending = true;
+            observer.addOnScrollChangedListener(currentTimeScrollListener);
+        }
+    }
+
+    private void scheduleCurrentTimeTick() {
+        removeCallbacks(currentTimeTicker);
+
+        if (currentTimeVisible && attachedToWindow && getWindowVisibility() == VISIBLE && isShown()) {
+            long now = System.currentTimeMillis();
+            postDelayed(currentTimeTicker, MILLIS_PER_MINUTE - now % MILLIS_PER_MINUTE);
+        } else if (currentTimeInvalidationPending) {
+            currentTimeInvalidationPending = false;
+            getViewTreeObserver().removeOnScrollChangedListener(currentTimeScrollListener);
+        }
+    }
+
+    /**
+     * @return true if a touch down can skip the default dispatch, which is the only one that
+     * filters touches on obscured windows and routes touches to the accessibility focus
+     */
+    private boolean canDispatchDirectly(@NonNull MotionEvent event) {
+        if (event.getPointerCount() != 1 || !overflowViews.isEmpty() || !onFilterTouchEventForSecurity(event)) {
+            return false;
+        }
+
+        AccessibilityManager accessibilityManager = (AccessibilityManager) getContext().getSystemService(Context.ACCESSIBILITY_SERVICE);
+        return accessibilityManager == null || !accessibilityManager.isTouchExplorationEnabled();
+    }
+
+    private boolean isInTouchTarget(@NonNull MotionEvent event, int pointerIndex) {
+        View target = touchTarget;
+        float x = event.getX(pointerIndex) + getScrollX();
+        float y = event.getY(pointerIndex) + getScrollY();
+        return target != null && x >= target.getLeft() && x < target.getRight() && y >= target.getTop() && y < target.getBottom();
+    }
+
+    @Nullable
+    private View findTouchTarget(@NonNull MotionEvent event) {
+        int index = findEventIndexAt((int) event.getX() + getScrollX(), (int) event.getY() + getScrollY());
+        if (index < 0) {
+            return null;
+        }
+
+        // Only views that are guaranteed to consume the touch and are drawn exactly at their rects
+        // can be dispatched to directly
+        View view = filteredEventViews.get(index);
+        if (isEventPendingMeasure(index) || !isEventMeasured(index) || view.getVisibility() != VISIBLE || !view.isClickable() || view.getAnimation() != null
+                || !view.getMatrix().isIdentity()) {
+            return null;
+        }
+
+        return view;
+    }
+
+    private boolean dispatchToTouchTarget(@NonNull MotionEvent event, boolean cancel) {
+        View target = touchTarget;
+        if (target == null) {
+            return false;
+        }
+
+        int action = event.getAction();
+        if (cancel) {
+            event.setAction(MotionEvent.ACTION_CANCEL);
+        }
+
+        float offsetX = getScrollX() - target.getLeft();
+        float offsetY = getScrollY() - target.getTop();
+        event.offsetLocation(offsetX, offsetY);
+        boolean handled = target.dispatchTouchEvent(event);
+        event.offsetLocation(-offsetX, -offsetY);
+        event.setAction(action);
+
+        return handled;
+    }
+
+    /**
+     * Notified when the user drops an event after dragging or resizing it.
+     */
+    public interface OnEventDragListener {
+
         /**
-         * @param range the time range to compare
-         * @return true if the time range to compare overlaps in any way with this time range
+         * Called on drop, the event is already drawn at its new time range at this point. It's up
+         * to the listener to persist the change and to bind the events again if needed.
+         *
+         * @param eventView         the event view that was dragged
+         * @param previousTimeRange the time range of the event before it was dragged
+         * @param timeRange         the time range the event was dropped at
          */
-        @VisibleForTesting
-        boolean conflicts(@NonNull EventTimeRange range) {
-            return startMinute >= range.startMinute && startMinute < range.endMinute
-                    || endMinute > range.startMinute && endMinute <= range.endMinute
-                    || range.startMinute >= startMinute && range.startMinute < endMinute
-                    || range.endMinute > startMinute && range.endMinute <= endMinute;
+        void onEventDragged(@NonNull View eventView,
+                            @NonNull com.linkedin.android.tachyon.EventTimeRange previousTimeRange,
+                            @NonNull com.linkedin.android.tachyon.EventTimeRange timeRange);
+    }
+
+    /**
+     * Notified when an event is shown with more or less detail than before.
+     *
+     * @see #setEventDetailThresholds(int, int, int)
+     */
+    public interface OnEventDetailLevelChangeListener {
+
+        /**
+         * Called before the event view is measured, views handed to
+         * {@link #setEventViews(List, List)} are assumed to be bound at
+         * {@link #EVENT_DETAIL_FULL}. Views at {@link #EVENT_DETAIL_BAR} or below aren't drawn, so
+         * they can drop anything costly they hold on to.
+         *
+         * @param eventView   the event view
+         * @param detailLevel one of the {@code EVENT_DETAIL} constants
+         */
+        void onEventDetailLevelChanged(@NonNull View eventView, int detailLevel);
+    }
+
+    /**
+     * Creates the event views pooled by {@link #setEventViewFactory(EventViewFactory, Executor)}.
+     */
+    public interface EventViewFactory {
+
+        /**
+         * Called on the inflation executor if there is one, otherwise on the main thread.
+         *
+         * @param parent the day view the event view will be added to, only to be used for layout
+         *               params such as with {@code LayoutInflater.inflate(resource, parent, false)}
+         * @return a new event view
+         */
+        @NonNull
+        View createEventView(@NonNull ViewGroup parent);
+    }
+
+    /**
+     * Provides the views shown in place of the events hidden by {@link #setMaxColumns(int)}.
+     */
+    public interface EventOverflowAdapter {
+
+        /**
+         * @param convertView      a view previously returned by this adapter that can be bound
+         *                         again, or null
+         * @param hiddenEventViews the event views hidden behind the overflow
+         * @return the view to show for the overflow, usually reporting how many events are hidden
+         */
+        @NonNull
+        View getOverflowView(@Nullable View convertView, @NonNull List<View> hiddenEventViews);
+
+        /**
+         * Called when an overflow view is clicked, so the hidden events can be expanded, for
+         * example by showing them in a list or by raising the maximum number of columns.
+         *
+         * @param overflowView     the overflow view that was clicked
+         * @param hiddenEventViews the event views hidden behind the overflow
+         */
+        void onOverflowClick(@NonNull View overflowView, @NonNull List<View> hiddenEventViews);
+    }
+
+    /**
+     * The space taken up in the last column by the events of a cluster that didn't fit.
+     */
+    @VisibleForTesting
+    static class EventOverflow {
+
+        @NonNull
+        final DirectionalRect rect = new DirectionalRect();
+        @NonNull
+        final List<View> hiddenEventViews = new ArrayList<>();
+        int startMinute;
+        int endMinute;
+    }
+
+    /**
+     * Represents the start and end time of a calendar event. Both times are in minutes since the
+     * start of the day.
+     *
+     * @deprecated Use {@link com.linkedin.android.tachyon.EventTimeRange} instead, which this
+     * class is kept as for code written against earlier versions.
+     */
+    @Deprecated
+    public static class EventTimeRange extends com.linkedin.android.tachyon.EventTimeRange {
+
+        public EventTimeRange(int startMinute, int endMinute) {
+            super(startMinute, endMinute);
         }
     }
 
@@ -606,6 +2724,10 @@ public class DayView extends ViewGroup {
 
         int startColumn = -1;
         int endColumn = -1;
+        /**
+         * The number of columns the span is relative to.
+         */
+        int columnCount;
     }
 
     /**
@@ -616,67 +2738,80 @@ public class DayView extends ViewGroup {
 
         @NonNull
         final List<EventColumnSpan> columnSpans;
+        /**
+         * The number of columns of the cluster with the most columns.
+         */
         int columnCount;
+        @NonNull
+        final EventColumnLayout columnLayout;
 
         @NonNull
-        private final List<EventTimeRange> timeRanges;
+        private final List<com.linkedin.android.tachyon.EventTimeRange> timeRanges;
 
         @VisibleForTesting
-        EventColumnSpansHelper(@NonNull List<EventTimeRange> timeRanges) {
+        EventColumnSpansHelper(@NonNull List<com.linkedin.android.tachyon.EventTimeRange> timeRanges) {
+            this(timeRanges, new GreedyEventLayoutStrategy());
+        }
+
+        EventColumnSpansHelper(@NonNull List<com.linkedin.android.tachyon.EventTimeRange> timeRanges,
+                               @NonNull EventLayoutStrategy strategy) {
             this.timeRanges = timeRanges;
-            this.columnSpans = new ArrayList<>(timeRanges.size());
 
-            // Find the start and end columns for each event
-            for (int i = 0; i < this.timeRanges.size(); i++) {
-                findStartColumn(i);
-            }
+            int size = timeRanges.size();
+            columnSpans = new ArrayList<>(size);
+            columnLayout = new EventColumnLayout(strategy);
+            columnLayout.setSize(size);
+            for (int i = 0; i < size; i++) {
+                columnSpans.add(new EventColumnSpan());
 
-            for (int i = 0; i < this.timeRanges.size(); i++) {
-                findEndColumn(i);
+                com.linkedin.android.tachyon.EventTimeRange timeRange = timeRanges.get(i);
+                columnLayout.setTimeRange(i, timeRange.getStartMinute(), timeRange.getEndMinute());
             }
+
+            columnLayout.layout();
+            setColumnSpans(null);
         }
 
-        private void findStartColumn(int position) {
+        /**
+         * Updates the column spans after the time range at the given position has changed. Only
+         * the clusters the event left and joined are laid out again.
+         *
+         * @param position          the position of the time range that changed
+         * @param previousTimeRange the time range that used to be at the given position
+         * @param affected          filled with whether the column span at each position was
+         *                          updated, must be at least as long as the list of time ranges
+         * @return true if every column span was updated, which happens when the clusters share a
+         * column count and it changed
+         */
+        boolean updateColumnSpans(int position,
+                                  @NonNull com.linkedin.android.tachyon.EventTimeRange previousTimeRange,
+                                  @NonNull boolean[] affected) {
+            // The events the previous time range overlapped are in the cluster it left, or in the
+            // clusters that cluster split into
             for (int i = 0; i < timeRanges.size(); i++) {
-                if (isColumnEmpty(i, position)) {
-                    EventColumnSpan columnSpan = new EventColumnSpan();
-                    columnSpan.startColumn = i;
-                    columnSpan.endColumn = i + 1;
-                    columnSpans.add(columnSpan);
-
-                    columnCount = Math.max(columnCount, i + 1);
-
-                    break;
-                }
+                affected[i] = columnLayout.overlaps(i, previousTimeRange.getStartMinute(), previousTimeRange.getEndMinute());
             }
-        }
+            affected[position] = true;
 
-        private void findEndColumn(int position) {
-            EventColumnSpan columnSpan = columnSpans.get(position);
-            for (int i = columnSpan.endColumn; i < columnCount; i++) {
-                if (!isColumnEmpty(i, position)) {
-                    break;
-                }
+            com.linkedin.android.tachyon.EventTimeRange timeRange = timeRanges.get(position);
+            columnLayout.setTimeRange(position, timeRange.getStartMinute(), timeRange.getEndMinute());
 
-                columnSpan.endColumn++;
-            }
+            boolean allAffected = columnLayout.layout(affected);
+            setColumnSpans(allAffected ? null : affected);
+
+            return allAffected;
         }
 
-        private boolean isColumnEmpty(int column, int position) {
-            EventTimeRange timeRange = timeRanges.get(position);
+        private void setColumnSpans(@Nullable boolean[] affected) {
+            columnCount = columnLayout.getColumnCount();
             for (int i = 0; i < columnSpans.size(); i++) {
-                if (position == i) {
-                    continue;
-                }
-
-                EventTimeRange compareTimeRange = timeRanges.get(i);
-                EventColumnSpan compareColumnSpan = columnSpans.get(i);
-                if (compareColumnSpan.startColumn == column && compareTimeRange.conflicts(timeRange)) {
-                    return false;
+                if (affected == null || affected[i]) {
+                    EventColumnSpan columnSpan = columnSpans.get(i);
+                    columnSpan.startColumn = columnLayout.getStartColumn(i);
+                    columnSpan.endColumn = columnLayout.getEndColumn(i);
+                    columnSpan.columnCount = columnLayout.getColumnCount(i);
                 }
             }
-
-            return true;
         }
     }
 }
@@ -0,0 +1,493 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The dimensions, colors and hours of a {@link DayView}, as set by its attributes. Configs are
+ * immutable, so a single one can be shared by every day view of a pager or a week, either built
+ * in code with a {@link Builder} and passed to {@link DayView#DayView(Context, DayViewConfig)}, or
+ * read from the attributes of a layout.
+ * <p>
+ * Day views inflated without any day view attribute set directly on them, only through their
+ * style or the theme, read the attributes once per theme, style and configuration, such as the
+ * night mode, density or font scale, and share the config. Changes made to a theme after a day
+ * view was created with it aren't picked up.
+ */
+public final class DayViewConfig {
+
+    /**
+     * The configs read for a theme, by the style set on the day views and the configuration they
+     * were read in.
+     */
+    @NonNull
+    private static final Map<Resources.Theme, Map<Key, DayViewConfig>> CACHE = new WeakHashMap<>();
+
+    private final int dividerHeight;
+    private final int halfHourHeight;
+    private final int hourLabelWidth;
+    private final int hourLabelMarginEnd;
+    private final int hourLabelHeight;
+    private final int eventMargin;
+    private final int startHour;
+    private final int endHour;
+    private final int currentTimeHeight;
+    private final int maxColumns;
+    private final int compactEventHeight;
+    private final int barEventHeight;
+    private final int barEventWidth;
+    private final long changeAnimationDuration;
+    @ColorInt
+    private final int hourDividerColor;
+    @ColorInt
+    private final int halfHourDividerColor;
+    @ColorInt
+    private final int currentTimeColor;
+    @ColorInt
+    private final int eventPlaceholderColor;
+
+    /**
+     * The offset of each minute from the top of the first one, for each day height and minute
+     * count used by day views with this config.
+     */
+    @NonNull
+    private final Map<Long, int[]> minuteOffsets = new HashMap<>();
+
+    private DayViewConfig(@NonNull Builder builder) {
+        dividerHeight = builder.dividerHeight;
+        halfHourHeight = builder.halfHourHeight;
+        hourLabelWidth = builder.hourLabelWidth;
+        hourLabelMarginEnd = builder.hourLabelMarginEnd;
+        hourLabelHeight = Math.max(builder.hourLabelHeight, 0);
+        eventMargin = builder.eventMargin;
+        startHour = builder.startHour;
+        endHour = builder.endHour;
+        currentTimeHeight = builder.currentTimeHeight >= 0 ? builder.currentTimeHeight : builder.dividerHeight;
+        maxColumns = Math.max(builder.maxColumns, 0);
+        compactEventHeight = builder.compactEventHeight;
+        barEventHeight = builder.barEventHeight;
+        barEventWidth = builder.barEventWidth;
+        changeAnimationDuration = Math.max(builder.changeAnimationDuration, 0);
+        hourDividerColor = builder.hourDividerColor;
+        halfHourDividerColor = builder.halfHourDividerColor;
+        currentTimeColor = builder.currentTimeColor;
+        eventPlaceholderColor = builder.eventPlaceholderColor;
+    }
+
+    /**
+     * Reads the config of a day view from its attributes, or returns the config already read for
+     * the same theme, style and configuration when no attribute is set on the view itself.
+     *
+     * @param context the context of the day view
+     * @param attrs   the attributes of the day view, or null if it isn't inflated
+     * @return the config
+     */
+    @NonNull
+    public static DayViewConfig obtain(@NonNull Context context, @Nullable AttributeSet attrs) {
+        Resources.Theme theme = context.getTheme();
+        if (theme == null || attrs != null && hasDayViewAttributes(attrs)) {
+            return read(context, attrs);
+        }
+
+        Key key = new Key(attrs != null ? attrs.getStyleAttribute() : 0, context.getResources());
+        synchronized (CACHE) {
+            Map<Key, DayViewConfig> configs = CACHE.get(theme);
+            if (configs == null) {
+                configs = new HashMap<>();
+                CACHE.put(theme, configs);
+            }
+
+            DayViewConfig config = configs.get(key);
+            if (config == null) {
+                config = read(context, attrs);
+                configs.put(key, config);
+            }
+
+            return config;
+        }
+    }
+
+    public int getDividerHeight() {
+        return dividerHeight;
+    }
+
+    public int getHalfHourHeight() {
+        return halfHourHeight;
+    }
+
+    public int getHourLabelWidth() {
+        return hourLabelWidth;
+    }
+
+    public int getHourLabelMarginEnd() {
+        return hourLabelMarginEnd;
+    }
+
+    /**
+     * @return the fixed height of the hour labels, or 0 if they are measured
+     */
+    public int getHourLabelHeight() {
+        return hourLabelHeight;
+    }
+
+    public int getEventMargin() {
+        return eventMargin;
+    }
+
+    public int getStartHour() {
+        return startHour;
+    }
+
+    public int getEndHour() {
+        return endHour;
+    }
+
+    public int getCurrentTimeHeight() {
+        return currentTimeHeight;
+    }
+
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    public int getCompactEventHeight() {
+        return compactEventHeight;
+    }
+
+    public int getBarEventHeight() {
+        return barEventHeight;
+    }
+
+    public int getBarEventWidth() {
+        return barEventWidth;
+    }
+
+    public long getChangeAnimationDuration() {
+        return changeAnimationDuration;
+    }
+
+    @ColorInt
+    public int getHourDividerColor() {
+        return hourDividerColor;
+    }
+
+    @ColorInt
+    public int getHalfHourDividerColor() {
+        return halfHourDividerColor;
+    }
+
+    @ColorInt
+    public int getCurrentTimeColor() {
+        return currentTimeColor;
+    }
+
+    @ColorInt
+    public int getEventPlaceholderColor() {
+        return eventPlaceholderColor;
+    }
+
+    /**
+     * Computes the offset of each minute from the top of the first one once, for every day view
+     * with this config that spans as many minutes at the same height.
+     *
+     * @param minuteCount  the number of minutes in the day
+     * @param usableHeight the height the minutes are spread over
+     * @return the offsets of the minutes and of the end of the last one, which must not be
+     * modified
+     */
+    @NonNull
+    int[] getMinuteOffsets(int minuteCount, int usableHeight) {
+        Long key = ((long) minuteCount << 32) | (usableHeight & 0xffffffffL);
+        synchronized (minuteOffsets) {
+            int[] offsets = minuteOffsets.get(key);
+            if (offsets == null) {
+                // Integer math keeps the whole hours exactly on their dividers
+                offsets = new int[minuteCount + 1];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = (int) ((long) i * usableHeight / minuteCount);
+                }
+                minuteOffsets.put(key, offsets);
+            }
+
+            return offsets;
+        }
+    }
+
+    @NonNull
+    private static DayViewConfig read(@NonNull Context context, @Nullable AttributeSet attrs) {
+        TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.DayView);
+        int dividerHeight = array.getDimensionPixelSize(R.styleable.DayView_dividerHeight, 0);
+        DayViewConfig config = new Builder()
+                .setDividerHeight(dividerHeight)
+                .setHalfHourHeight(array.getDimensionPixelSize(R.styleable.DayView_halfHourHeight, 0))
+                .setHourLabelWidth(array.getDimensionPixelSize(R.styleable.DayView_hourLabelWidth, 0))
+                .setHourLabelMarginEnd(array.getDimensionPixelSize(R.styleable.DayView_hourLabelMarginEnd, 0))
+                .setHourLabelHeight(array.getDimensionPixelSize(R.styleable.DayView_hourLabelHeight, 0))
+                .setEventMargin(array.getDimensionPixelSize(R.styleable.DayView_eventMargin, 0))
+                .setHourRange(array.getInt(R.styleable.DayView_startHour, DayView.MIN_START_HOUR),
+                        array.getInt(R.styleable.DayView_endHour, DayView.MAX_END_HOUR))
+                .setCurrentTimeHeight(
+                        array.getDimensionPixelSize(R.styleable.DayView_currentTimeHeight, dividerHeight))
+                .setMaxColumns(array.getInt(R.styleable.DayView_maxColumns, 0))
+                .setEventDetailThresholds(array.getDimensionPixelSize(R.styleable.DayView_compactEventHeight, 0),
+                        array.getDimensionPixelSize(R.styleable.DayView_barEventHeight, 0),
+                        array.getDimensionPixelSize(R.styleable.DayView_barEventWidth, 0))
+                .setChangeAnimationDuration(array.getInt(R.styleable.DayView_changeAnimationDuration, 0))
+                .setHourDividerColor(array.getColor(R.styleable.DayView_hourDividerColor, 0))
+                .setHalfHourDividerColor(array.getColor(R.styleable.DayView_halfHourDividerColor, 0))
+                .setCurrentTimeColor(array.getColor(R.styleable.DayView_currentTimeColor, 0))
+                .setEventPlaceholderColor(array.getColor(R.styleable.DayView_eventPlaceholderColor, 0))
+                .build();
+        array.recycle();
+
+        return config;
+    }
+
+    /**
+     * @return whether any day view attribute is set on the view itself rather than through its
+     * style or the theme
+     */
+    private static boolean hasDayViewAttributes(@NonNull AttributeSet attrs) {
+        for (int i = 0; i < attrs.getAttributeCount(); i++) {
+            int attr = attrs.getAttributeNameResource(i);
+            for (int dayViewAttr : R.styleable.DayView) {
+                if (attr == dayViewAttr) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * The style of day views and the parts of the configuration their attributes can depend on,
+     * a theme resolves to other values when any of them changes.
+     */
+    private static final class Key {
+        private final int style;
+        private final int uiMode;
+        private final int densityDpi;
+        private final float fontScale;
+        private final int orientation;
+        private final int screenWidthDp;
+        private final int screenHeightDp;
+        private final int smallestScreenWidthDp;
+
+        Key(int style, @NonNull Resources resources) {
+            Configuration configuration = resources.getConfiguration();
+            this.style = style;
+            uiMode = configuration.uiMode;
+            // Configuration.densityDpi is only there from API 17
+            densityDpi = resources.getDisplayMetrics().densityDpi;
+            fontScale = configuration.fontScale;
+            orientation = configuration.orientation;
+            screenWidthDp = configuration.screenWidthDp;
+            screenHeightDp = configuration.screenHeightDp;
+            smallestScreenWidthDp = configuration.smallestScreenWidthDp;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return style == key.style
+                    && uiMode == key.uiMode
+                    && densityDpi == key.densityDpi
+                    && Float.compare(fontScale, key.fontScale) == 0
+                    && orientation == key.orientation
+                    && screenWidthDp == key.screenWidthDp
+                    && screenHeightDp == key.screenHeightDp
+                    && smallestScreenWidthDp == key.smallestScreenWidthDp;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = style;
+            result = 31 * result + uiMode;
+            result = 31 * result + densityDpi;
+            result = 31 * result + Float.floatToIntBits(fontScale);
+            result = 31 * result + orientation;
+            result = 31 * result + screenWidthDp;
+            result = 31 * result + screenHeightDp;
+            result = 31 * result + smallestScreenWidthDp;
+            return result;
+        }
+    }
+
+    /**
+     * Builds a config in code, every dimension is in pixels and defaults to 0. The hours default to
+     * the full day, and the current time height to the divider height.
+     */
+    public static class Builder {
+
+        private int dividerHeight;
+        private int halfHourHeight;
+        private int hourLabelWidth;
+        private int hourLabelMarginEnd;
+        private int hourLabelHeight;
+        private int eventMargin;
+        private int startHour = DayView.MIN_START_HOUR;
+        private int endHour = DayView.MAX_END_HOUR;
+        private int currentTimeHeight = -1;
+        private int maxColumns;
+        private int compactEventHeight;
+        private int barEventHeight;
+        private int barEventWidth;
+        private long changeAnimationDuration;
+        @ColorInt
+        private int hourDividerColor;
+        @ColorInt
+        private int halfHourDividerColor;
+        @ColorInt
+        private int currentTimeColor;
+        @ColorInt
+        private int eventPlaceholderColor;
+
+        @NonNull
+        public Builder setDividerHeight(int dividerHeight) {
+            this.dividerHeight = dividerHeight;
+            return this;
+        }
+
+        @NonNull
+        public Builder setHalfHourHeight(int halfHourHeight) {
+            this.halfHourHeight = halfHourHeight;
+            return this;
+        }
+
+        @NonNull
+        public Builder setHourLabelWidth(int hourLabelWidth) {
+            this.hourLabelWidth = hourLabelWidth;
+            return this;
+        }
+
+        @NonNull
+        public Builder setHourLabelMarginEnd(int hourLabelMarginEnd) {
+            this.hourLabelMarginEnd = hourLabelMarginEnd;
+            return this;
+        }
+
+        /**
+         * @param hourLabelHeight the height of every hour label, which lets day views compute
+         *                        their height without measuring any child, or 0 to measure them
+         */
+        @NonNull
+        public Builder setHourLabelHeight(int hourLabelHeight) {
+            this.hourLabelHeight = hourLabelHeight;
+            return this;
+        }
+
+        @NonNull
+        public Builder setEventMargin(int eventMargin) {
+            this.eventMargin = eventMargin;
+            return this;
+        }
+
+        /**
+         * @param startHour the first hour to display, from zero
+         * @param endHour   the hour after the last hour to display, up to 24
+         * @throws IllegalArgumentException thrown when the end hour isn't after the start hour
+         */
+        @NonNull
+        public Builder setHourRange(int startHour, int endHour) throws IllegalArgumentException {
+            startHour = Math.max(startHour, DayView.MIN_START_HOUR);
+            endHour = Math.min(endHour, DayView.MAX_END_HOUR);
+            if (endHour <= startHour) {
+                throw new IllegalArgumentException("The end hour " + endHour + " must be after the start hour " + startHour);
+            }
+
+            this.startHour = startHour;
+            this.endHour = endHour;
+            return this;
+        }
+
+        @NonNull
+        public Builder setCurrentTimeHeight(int currentTimeHeight) {
+            this.currentTimeHeight = currentTimeHeight;
+            return this;
+        }
+
+        /**
+         * @see DayView#setMaxColumns(int)
+         */
+        @NonNull
+        public Builder setMaxColumns(int maxColumns) {
+            this.maxColumns = maxColumns;
+            return this;
+        }
+
+        /**
+         * @see DayView#setEventDetailThresholds(int, int, int)
+         */
+        @NonNull
+        public Builder setEventDetailThresholds(int compactEventHeight, int barEventHeight, int barEventWidth) {
+            this.compactEventHeight = compactEventHeight;
+            this.barEventHeight = barEventHeight;
+            this.barEventWidth = barEventWidth;
+            return this;
+        }
+
+        /**
+         * @see DayView#setChangeAnimationDuration(long)
+         */
+        @NonNull
+        public Builder setChangeAnimationDuration(long changeAnimationDuration) {
+            this.changeAnimationDuration = changeAnimationDuration;
+            return this;
+        }
+
+        @NonNull
+        public Builder setHourDividerColor(@ColorInt int hourDividerColor) {
+            this.hourDividerColor = hourDividerColor;
+            return this;
+        }
+
+        @NonNull
+        public Builder setHalfHourDividerColor(@ColorInt int halfHourDividerColor) {
+            this.halfHourDividerColor = halfHourDividerColor;
+            return this;
+        }
+
+        @NonNull
+        public Builder setCurrentTimeColor(@ColorInt int currentTimeColor) {
+            this.currentTimeColor = currentTimeColor;
+            return this;
+        }
+
+        @NonNull
+        public Builder setEventPlaceholderColor(@ColorInt int eventPlaceholderColor) {
+            this.eventPlaceholderColor = eventPlaceholderColor;
+            return this;
+        }
+
+        @NonNull
+        public DayViewConfig build() {
+            return new DayViewConfig(this);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.database.Cursor;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Creates and binds the views of events read from a database with
+ * {@link DayView#setEventCursor(Cursor, EventCursorBinder, java.util.concurrent.Executor)}. Events
+ * are read in two steps: a layout cursor with only the id and times of every event of the day,
+ * and then details cursors with whatever the views display, for a few events at a time as they are
+ * about to be seen.
+ * <p>
+ * Every method is called on the main thread, except {@link #queryDetails(long[])} when the day
+ * view has a query executor.
+ */
+public interface EventCursorBinder {
+
+    /**
+     * @param cursor either the layout cursor or a details cursor, moved to the row of an event
+     * @return the id of the event, unique within the layout cursor
+     */
+    long getId(@NonNull Cursor cursor);
+
+    /**
+     * @param cursor the layout cursor, moved to the row of an event
+     * @return the time range the event is drawn at
+     */
+    @NonNull
+    EventTimeRange getTimeRange(@NonNull Cursor cursor);
+
+    /**
+     * @param parent the day view the event view will be added to
+     * @return a new event view, it will be bound before being added. Not called when the day
+     * view has an event view factory, views come from its pool instead.
+     */
+    @NonNull
+    View createView(@NonNull ViewGroup parent);
+
+    /**
+     * Binds a view to an event whose details haven't been read yet, the view is laid out at the
+     * event's time right away.
+     *
+     * @param view the view to bind, either a new one or one previously bound to another event
+     */
+    void bindPlaceholder(@NonNull View view);
+
+    /**
+     * Reads the details of some events, the cursor is closed once they are bound.
+     *
+     * @param ids the ids of the events
+     * @return a cursor with a row for each event in any order, or null if they can't be read
+     */
+    @Nullable
+    Cursor queryDetails(@NonNull long[] ids);
+
+    /**
+     * Binds the details of an event to its view.
+     *
+     * @param view    the view of the event
+     * @param details a details cursor, moved to the row of the event
+     */
+    void bindView(@NonNull View view, @NonNull Cursor details);
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.CursorWindow;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Binds the events of a layout cursor to a {@link DayView}, and their details as they become
+ * visible. The layout cursor is read in full when it is set, which only takes the ids and times of
+ * the events, so the day view can lay them out before any details are read. The details are then
+ * queried a window of consecutive rows at a time, for the windows with an event on screen, so how
+ * much is read follows what is seen rather than the size of the day. The layout cursor should be
+ * sorted by time for a window to hold events that are close to each other.
+ * <p>
+ * Setting a new layout cursor keeps the views of the events that are still there, showing their
+ * details until they are read again. When the layout cursors are windowed, like the ones SQLite
+ * queries return, the window of the previous one is filled again by the next one as long as the
+ * previous one was closed, rather than another window being allocated. Only used on the main thread. Without a query executor the
+ * details are queried right there too, in {@link #onPreDraw()}, so each window read holds up the
+ * frame it's read for.
+ */
+class EventCursorBinding implements ViewTreeObserver.OnPreDrawListener {
+
+    /**
+     * The number of consecutive rows whose details are read together.
+     */
+    @VisibleForTesting
+    static final int WINDOW_SIZE = 16;
+
+    private static final byte WINDOW_UNREAD = 0;
+    private static final byte WINDOW_READING = 1;
+    private static final byte WINDOW_READ = 2;
+
+    @NonNull
+    private final DayView dayView;
+    @NonNull
+    private final EventCursorBinder binder;
+    @Nullable
+    private Executor queryExecutor;
+    @NonNull
+    private final Executor mainExecutor;
+
+    /**
+     * The ids and time ranges of the events, in the order of the layout cursor.
+     */
+    @NonNull
+    private long[] ids = new long[0];
+    /**
+     * The arrays the ids of the next layout cursor are read and sorted into, kept between cursors.
+     */
+    @NonNull
+    private long[] nextIds = new long[0];
+    @NonNull
+    private long[] sortedIds = new long[0];
+    @NonNull
+    private final List<EventTimeRange> timeRanges = new ArrayList<>();
+    private int count;
+    @NonNull
+    private byte[] windowStates = new byte[0];
+    @NonNull
+    private Map<Long, View> boundViews = new HashMap<>();
+    @NonNull
+    private final List<View> scrapViews = new ArrayList<>();
+    /**
+     * The last layout cursor, and its window with a reference of its own, so the window outlives
+     * the cursor to be reused by the next one.
+     */
+    @Nullable
+    private Cursor layoutCursor;
+    @Nullable
+    private CursorWindow layoutWindow;
+
+    @NonNull
+    private final Rect visibleRect = new Rect();
+    private int visibleStartMinute;
+    private int visibleEndMinute = -1;
+    private boolean started;
+    /**
+     * Changes whenever the events are set or the binding stops, so details read before are dropped.
+     */
+    private int generation;
+
+    EventCursorBinding(@NonNull DayView dayView,
+                       @NonNull EventCursorBinder binder,
+                       @Nullable Executor queryExecutor) {
+        this(dayView, binder, queryExecutor, new Executor() {
+            @NonNull
+            private final Handler handler = new Handler(Looper.getMainLooper());
+
+            @Override
+            public void execute(@NonNull Runnable command) {
+                handler.post(command);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    EventCursorBinding(@NonNull DayView dayView,
+                       @NonNull EventCursorBinder binder,
+                       @Nullable Executor queryExecutor,
+                       @NonNull Executor mainExecutor) {
+        this.dayView = dayView;
+        this.binder = binder;
+        this.queryExecutor = queryExecutor;
+        this.mainExecutor = mainExecutor;
+    }
+
+    boolean hasBinder(@Nullable EventCursorBinder binder) {
+        return this.binder == binder;
+    }
+
+    void setQueryExecutor(@Nullable Executor queryExecutor) {
+        this.queryExecutor = queryExecutor;
+    }
+
+    /**
+     * Starts reading the details of the events on screen, on every frame from now on.
+     */
+    void start() {
+        started = true;
+        dayView.getViewTreeObserver().addOnPreDrawListener(this);
+    }
+
+    /**
+     * Stops reading details, any being read are dropped and read again once started.
+     */
+    void stop() {
+        started = false;
+        dayView.getViewTreeObserver().removeOnPreDrawListener(this);
+        dropPendingReads();
+        releaseLayoutWindow();
+    }
+
+    /**
+     * Reads the ids and time ranges of the events and binds them to the day view, the cursor isn't
+     * needed afterwards.
+     *
+     * @param cursor the layout cursor, or null to remove the events
+     * @throws IllegalArgumentException if two events have the same id
+     */
+    void setCursor(@Nullable Cursor cursor) throws IllegalArgumentException {
+        if (cursor instanceof AbstractWindowedCursor) {
+            reuseLayoutWindow((AbstractWindowedCursor) cursor);
+        }
+        int count = cursor != null ? cursor.getCount() : 0;
+
+        // Read the cursor in full before touching anything, so an invalid one leaves the events as
+        // they were
+        if (nextIds.length < count) {
+            nextIds = new long[count];
+        }
+        long[] ids = nextIds;
+        List<EventTimeRange> timeRanges = new ArrayList<>(count);
+        for (int i = 0; i < count && cursor.moveToPosition(i); i++) {
+            ids[i] = binder.getId(cursor);
+            timeRanges.add(binder.getTimeRange(cursor));
+        }
+        count = timeRanges.size();
+        keepLayoutWindow(cursor);
+
+        if (sortedIds.length < count) {
+            sortedIds = new long[count];
+        }
+        System.arraycopy(ids, 0, sortedIds, 0, count);
+        Arrays.sort(sortedIds, 0, count);
+        for (int i = 1; i < count; i++) {
+            if (sortedIds[i] == sortedIds[i - 1]) {
+                throw new IllegalArgumentException("Duplicate event id " + sortedIds[i]);
+            }
+        }
+
+        Map<Long, View> views = new HashMap<>(count);
+        List<View> eventViews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = ids[i];
+
+            // The events that are still there keep their views and details until they are read again
+            View view = boundViews.remove(id);
+            if (view == null) {
+                if (!scrapViews.isEmpty()) {
+                    view = scrapViews.remove(scrapViews.size() - 1);
+                } else {
+                    view = dayView.hasEventViewFactory() ? dayView.obtainEventView() : binder.createView(dayView);
+                }
+                binder.bindPlaceholder(view);
+            }
+
+            views.put(id, view);
+            eventViews.add(view);
+        }
+        nextIds = this.ids;
+        this.ids = ids;
+        this.timeRanges.clear();
+        this.timeRanges.addAll(timeRanges);
+        this.count = count;
+
+        // Like an event source binding, the day view's pool takes the views back when it has one
+        if (!dayView.hasEventViewFactory()) {
+            scrapViews.addAll(boundViews.values());
+        }
+        boundViews = views;
+
+        int windowCount = (this.count + WINDOW_SIZE - 1) / WINDOW_SIZE;
+        if (windowStates.length < windowCount) {
+            windowStates = new byte[windowCount];
+        }
+        dropPendingReads();
+        Arrays.fill(windowStates, WINDOW_UNREAD);
+
+        dayView.setEventViews(eventViews, timeRanges);
+
+        // The events on screen are read right away rather than on the next frame
+        if (started && visibleEndMinute >= visibleStartMinute) {
+            readVisibleDetails(visibleStartMinute, visibleEndMinute);
+        }
+    }
+
+    @Override
+    public boolean onPreDraw() {
+        if (dayView.getLocalVisibleRect(visibleRect)) {
+            readVisibleDetails(dayView.getTimeAtY(visibleRect.top), dayView.getTimeAtY(visibleRect.bottom));
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the details of every window with an event in the given time range that hasn't been
+     * read yet, before returning if there is no query executor.
+     */
+    @VisibleForTesting
+    void readVisibleDetails(int startMinute, int endMinute) {
+        visibleStartMinute = startMinute;
+        visibleEndMinute = endMinute;
+
+        for (int window = 0; window * WINDOW_SIZE < count; window++) {
+            if (windowStates[window] != WINDOW_UNREAD) {
+                continue;
+            }
+
+            int end = Math.min(count, (window + 1) * WINDOW_SIZE);
+            for (int i = window * WINDOW_SIZE; i < end; i++) {
+                EventTimeRange timeRange = timeRanges.get(i);
+                if (timeRange.getStartMinute() <= endMinute && timeRange.getEndMinute() >= startMinute) {
+                    readDetails(window);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void readDetails(final int window) {
+        windowStates[window] = WINDOW_READING;
+        int start = window * WINDOW_SIZE;
+        final long[] windowIds = Arrays.copyOfRange(ids, start, Math.min(count, start + WINDOW_SIZE));
+        final int generation = this.generation;
+        if (queryExecutor == null) {
+            onDetailsRead(generation, window, binder.queryDetails(windowIds));
+            return;
+        }
+
+        queryExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Cursor details = binder.queryDetails(windowIds);
+
+                // Counting the rows reads them, so the main thread only binds them
+                if (details != null) {
+                    details.getCount();
+                }
+
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDetailsRead(generation, window, details);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onDetailsRead(int generation, int window, @Nullable Cursor details) {
+        if (details == null) {
+            // Not read again until the events are set again, rather than on every frame
+            if (generation == this.generation) {
+                windowStates[window] = WINDOW_READ;
+            }
+            return;
+        }
+
+        try {
+            if (generation != this.generation) {
+                return;
+            }
+
+            while (details.moveToNext()) {
+                View view = boundViews.get(binder.getId(details));
+                if (view != null) {
+                    binder.bindView(view, details);
+                }
+            }
+            windowStates[window] = WINDOW_READ;
+        } finally {
+            details.close();
+        }
+    }
+
+    /**
+     * Hands the window of the last layout cursor to the given one, to be filled with its rows, if
+     * nothing reads that window anymore and the given cursor hasn't read any rows yet.
+     */
+    private void reuseLayoutWindow(@NonNull AbstractWindowedCursor cursor) {
+        if (layoutWindow != null && layoutCursor != null && layoutCursor.isClosed() && !cursor.hasWindow()) {
+            // The cursor lets go of a reference when it closes or replaces its window
+            layoutWindow.acquireReference();
+            cursor.setWindow(layoutWindow);
+        }
+    }
+
+    private void keepLayoutWindow(@Nullable Cursor cursor) {
+        layoutCursor = cursor;
+        CursorWindow window = cursor instanceof AbstractWindowedCursor
+                ? ((AbstractWindowedCursor) cursor).getWindow()
+                : null;
+        if (window != layoutWindow) {
+            releaseLayoutWindow();
+            if (window != null) {
+                window.acquireReference();
+                layoutWindow = window;
+            }
+        }
+    }
+
+    private void releaseLayoutWindow() {
+        if (layoutWindow != null) {
+            layoutWindow.releaseReference();
+            layoutWindow = null;
+        }
+    }
+
+    private void dropPendingReads() {
+        generation++;
+        for (int i = 0; i < windowStates.length; i++) {
+            if (windowStates[i] == WINDOW_READING) {
+                windowStates[i] = WINDOW_UNREAD;
+            }
+        }
+    }
+}
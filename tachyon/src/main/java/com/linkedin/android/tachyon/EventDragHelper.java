@@ -0,0 +1,241 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+
+/**
+ * Lets the user drag an event of a {@link DayView} to a new time, or resize it by dragging its
+ * bottom edge, after a long press. The dragged event follows the touch through its translation,
+ * while the events around it are only laid out again when the snapped time changes.
+ */
+class EventDragHelper {
+
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final float DRAG_ELEVATION_DP = 8;
+
+    @NonNull
+    private final DayView dayView;
+    @NonNull
+    private final DayView.OnEventDragListener listener;
+    private final int touchSlop;
+    private final float dragElevation;
+    @NonNull
+    private final Runnable startDragRunnable = new Runnable() {
+        @Override
+        public void run() {
+            startDrag();
+        }
+    };
+
+    private int position = -1;
+    @Nullable
+    private View view;
+    @Nullable
+    private EventTimeRange originalTimeRange;
+    @Nullable
+    private EventTimeRange timeRange;
+    private int originalTop;
+    private float downX;
+    private float downY;
+    private boolean resizing;
+    private boolean dragging;
+
+    EventDragHelper(@NonNull DayView dayView, @NonNull DayView.OnEventDragListener listener) {
+        this.dayView = dayView;
+        this.listener = listener;
+        touchSlop = ViewConfiguration.get(dayView.getContext()).getScaledTouchSlop();
+        dragElevation = DRAG_ELEVATION_DP * dayView.getResources().getDisplayMetrics().density;
+    }
+
+    /**
+     * @return true if the given view is being dragged, it follows the touch rather than its rect
+     */
+    boolean isDragging(@NonNull View view) {
+        return dragging && this.view == view;
+    }
+
+    /**
+     * @return true once a drag has started, so the event view stops receiving touches
+     */
+    boolean onInterceptTouchEvent(@NonNull MotionEvent event) {
+        handleTouchEvent(event);
+        return dragging;
+    }
+
+    /**
+     * @return true while a long press on an event may still turn into a drag
+     */
+    boolean onTouchEvent(@NonNull MotionEvent event) {
+        handleTouchEvent(event);
+        return position >= 0;
+    }
+
+    /**
+     * Cancels any drag in progress and moves the dragged event back to where it started.
+     */
+    void cancel() {
+        finish(true);
+    }
+
+    private void handleTouchEvent(@NonNull MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                onDown(event.getX(), event.getY());
+                break;
+            case MotionEvent.ACTION_MOVE:
+                onMove(event.getX(), event.getY());
+                break;
+            case MotionEvent.ACTION_UP:
+                finish(false);
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                finish(true);
+                break;
+        }
+    }
+
+    private void onDown(float x, float y) {
+        // The same down event can arrive through both the intercept and the touch callbacks
+        finish(true);
+
+        position = dayView.findEventIndexAt((int) x, (int) y);
+        if (position < 0) {
+            return;
+        }
+
+        // Touches close to the bottom edge resize the event rather than moving it
+        DirectionalRect rect = dayView.getEventRect(position);
+        resizing = y >= rect.getBottom() - touchSlop * 2 && y - rect.getTop() > touchSlop * 2;
+        originalTop = rect.getTop();
+        originalTimeRange = dayView.getEventTimeRange(position);
+        timeRange = originalTimeRange;
+        downX = x;
+        downY = y;
+
+        dayView.postDelayed(startDragRunnable, ViewConfiguration.getLongPressTimeout());
+    }
+
+    private void onMove(float x, float y) {
+        if (position < 0) {
+            return;
+        }
+
+        if (!dragging) {
+            // Moving before the long press means the user is scrolling or tapping, not dragging
+            if (Math.abs(x - downX) > touchSlop || Math.abs(y - downY) > touchSlop) {
+                finish(true);
+            }
+
+            return;
+        }
+
+        float dy = y - downY;
+        float minuteHeight = dayView.getMinuteHeight();
+        int deltaMinutes = minuteHeight > 0 ? Math.round(dy / minuteHeight) : 0;
+
+        EventTimeRange newTimeRange = getSnappedTimeRange(deltaMinutes);
+        if (newTimeRange.getStartMinute() != timeRange.getStartMinute()
+                || newTimeRange.getEndMinute() != timeRange.getEndMinute()) {
+            timeRange = newTimeRange;
+            dayView.setEventTimeRange(position, newTimeRange);
+        }
+
+        // The view follows the touch exactly, on top of its snapped position
+        if (!resizing) {
+            view.setTranslationY(dy - (dayView.getEventRect(position).getTop() - originalTop));
+        }
+    }
+
+    @NonNull
+    private EventTimeRange getSnappedTimeRange(int deltaMinutes) {
+        int dayStartMinute = dayView.getStartHour() * MINUTES_PER_HOUR;
+        int dayEndMinute = dayView.getEndHour() * MINUTES_PER_HOUR;
+        int originalStart = originalTimeRange.getStartMinute();
+        int originalEnd = originalTimeRange.getEndMinute();
+
+        // The move snaps rather than the times, so events off the steps don't jump on the first move
+        deltaMinutes = snap(deltaMinutes);
+        if (resizing) {
+            int end = originalEnd + deltaMinutes;
+            end = Math.max(end, originalStart + DayView.MIN_DURATION_MINUTES);
+            end = Math.min(end, Math.max(dayEndMinute, originalStart + DayView.MIN_DURATION_MINUTES));
+
+            return new EventTimeRange(originalStart, end);
+        }
+
+        int duration = originalEnd - originalStart;
+        int start = originalStart + deltaMinutes;
+        start = Math.max(start, dayStartMinute);
+        start = Math.min(start, dayEndMinute - DayView.MIN_DURATION_MINUTES);
+
+        return new EventTimeRange(start, start + duration);
+    }
+
+    private void startDrag() {
+        if (position < 0) {
+            return;
+        }
+
+        dragging = true;
+        view = dayView.getEventView(position);
+        ViewCompat.setTranslationZ(view, dragElevation);
+        dayView.performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+
+        // Keep a scrolling parent from taking over the gesture while dragging
+        ViewParent parent = dayView.getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+    }
+
+    private void finish(boolean cancelled) {
+        dayView.removeCallbacks(startDragRunnable);
+
+        int position = this.position;
+        View view = this.view;
+        EventTimeRange originalTimeRange = this.originalTimeRange;
+        EventTimeRange timeRange = this.timeRange;
+        boolean dragging = this.dragging;
+
+        // Reset first, the listener is likely to bind the events again
+        this.position = -1;
+        this.view = null;
+        this.originalTimeRange = null;
+        this.timeRange = null;
+        this.dragging = false;
+
+        if (!dragging) {
+            return;
+        }
+
+        view.setTranslationY(0);
+        ViewCompat.setTranslationZ(view, 0);
+
+        boolean changed = timeRange.getStartMinute() != originalTimeRange.getStartMinute()
+                || timeRange.getEndMinute() != originalTimeRange.getEndMinute();
+        if (cancelled && changed) {
+            dayView.setEventTimeRange(position, originalTimeRange);
+        } else if (changed) {
+            listener.onEventDragged(view, originalTimeRange, timeRange);
+        }
+    }
+
+    private static int snap(int minute) {
+        int step = DayView.MIN_DURATION_MINUTES;
+        return Math.round((float) minute / step) * step;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A thread-safe collection of events that a {@link DayView} can bind to with
+ * {@link DayView#setEventSource(EventSource, Binder)}. Events can be put and removed from any
+ * thread at any rate, bound day views pick up the latest events at most once per frame.
+ * <p>
+ * Events are identified by an id, putting an event with the id of an existing event replaces it
+ * while keeping its position.
+ *
+ * @param <T> the type of the events
+ */
+public class EventSource<T> {
+
+    @NonNull
+    private final Object lock = new Object();
+    @NonNull
+    private final Map<Long, T> events = new LinkedHashMap<>();
+    @NonNull
+    private final List<Observer> observers = new ArrayList<>();
+    private int version;
+
+    /**
+     * Notified whenever the events change.
+     */
+    interface Observer {
+
+        /**
+         * Called on the thread that changed the events.
+         */
+        void onEventsChanged();
+    }
+
+    /**
+     * Creates and binds the views of the events of a source. Always called on the main thread.
+     *
+     * @param <T> the type of the events
+     */
+    public interface Binder<T> {
+
+        /**
+         * @param event the event to get the time range of
+         * @return the time range the event is drawn at
+         */
+        @NonNull
+        EventTimeRange getTimeRange(@NonNull T event);
+
+        /**
+         * @param parent the day view the event view will be added to
+         * @return a new event view, it will be bound before being added. Not called when the day
+         * view has an event view factory, views come from its pool instead.
+         */
+        @NonNull
+        View createView(@NonNull ViewGroup parent);
+
+        /**
+         * Binds an event to a view, either a new one or one previously bound to another event.
+         *
+         * @param view  the view to bind
+         * @param event the event to bind
+         */
+        void bindView(@NonNull View view, @NonNull T event);
+    }
+
+    /**
+     * Adds an event, or replaces the existing event with the same id.
+     *
+     * @param id    the id of the event
+     * @param event the event
+     */
+    public void put(long id, @NonNull T event) {
+        synchronized (lock) {
+            events.put(id, event);
+            version++;
+        }
+
+        notifyObservers();
+    }
+
+    /**
+     * @param id the id of the event to remove, nothing happens if there is no such event
+     */
+    public void remove(long id) {
+        synchronized (lock) {
+            if (events.remove(id) == null) {
+                return;
+            }
+
+            version++;
+        }
+
+        notifyObservers();
+    }
+
+    /**
+     * Replaces all of the events at once.
+     *
+     * @param events the new events mapped by their ids, in order
+     */
+    public void setEvents(@NonNull Map<Long, T> events) {
+        synchronized (lock) {
+            this.events.clear();
+            this.events.putAll(events);
+            version++;
+        }
+
+        notifyObservers();
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            if (events.isEmpty()) {
+                return;
+            }
+
+            events.clear();
+            version++;
+        }
+
+        notifyObservers();
+    }
+
+    /**
+     * @return the number of events
+     */
+    public int size() {
+        synchronized (lock) {
+            return events.size();
+        }
+    }
+
+    /**
+     * Copies the current events, in order, if they changed since the given version.
+     *
+     * @param sinceVersion the version of the last copy, or -1 to always copy
+     * @param ids          cleared and filled with the ids of the events
+     * @param events       cleared and filled with the events
+     * @return the version of the events that were copied, or the given version if nothing changed
+     */
+    int copyEvents(int sinceVersion, @NonNull List<Long> ids, @NonNull List<T> events) {
+        synchronized (lock) {
+            if (sinceVersion == version) {
+                return sinceVersion;
+            }
+
+            ids.clear();
+            events.clear();
+            for (Map.Entry<Long, T> entry : this.events.entrySet()) {
+                ids.add(entry.getKey());
+                events.add(entry.getValue());
+            }
+
+            return version;
+        }
+    }
+
+    void registerObserver(@NonNull Observer observer) {
+        synchronized (lock) {
+            observers.add(observer);
+        }
+    }
+
+    void unregisterObserver(@NonNull Observer observer) {
+        synchronized (lock) {
+            observers.remove(observer);
+        }
+    }
+
+    private void notifyObservers() {
+        Observer[] observers;
+        synchronized (lock) {
+            observers = this.observers.toArray(new Observer[0]);
+        }
+
+        for (Observer observer : observers) {
+            observer.onEventsChanged();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Keeps the event views of a {@link DayView} in sync with an {@link EventSource}. Changes to the
+ * source are coalesced, however many arrive in between, the latest events are bound once per
+ * frame through a single call to {@link DayView#setEventViews(List, List)}.
+ *
+ * @param <T> the type of the events
+ */
+class EventSourceBinding<T> implements EventSource.Observer {
+
+    /**
+     * The delay between frames before Jelly Bean, which has no {@link Choreographer}.
+     */
+    private static final long FALLBACK_FRAME_DELAY_MS = 16;
+
+    @NonNull
+    private final DayView dayView;
+    @NonNull
+    private final EventSource<T> source;
+    @NonNull
+    private final EventSource.Binder<T> binder;
+    @NonNull
+    private final Executor frameExecutor;
+    @NonNull
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    @NonNull
+    private final Runnable bindRunnable = new Runnable() {
+        @Override
+        public void run() {
+            bind();
+        }
+    };
+    /**
+     * Only read and written on the main thread, a bind scheduled by a change that arrived after
+     * the binding stopped doesn't touch the day view.
+     */
+    private boolean started;
+
+    private int version = -1;
+    @NonNull
+    private final List<Long> ids = new ArrayList<>();
+    @NonNull
+    private final List<T> events = new ArrayList<>();
+    @NonNull
+    private Map<Long, View> boundViews = new HashMap<>();
+    @NonNull
+    private Map<Long, T> boundEvents = new HashMap<>();
+    @NonNull
+    private final List<View> scrapViews = new ArrayList<>();
+
+    EventSourceBinding(@NonNull DayView dayView,
+                       @NonNull EventSource<T> source,
+                       @NonNull EventSource.Binder<T> binder) {
+        this(dayView, source, binder, new FrameExecutor());
+    }
+
+    /**
+     * @param frameExecutor runs the binds on the main thread on a following frame, it is handed
+     *                      them from any thread
+     */
+    @VisibleForTesting
+    EventSourceBinding(@NonNull DayView dayView,
+                       @NonNull EventSource<T> source,
+                       @NonNull EventSource.Binder<T> binder,
+                       @NonNull Executor frameExecutor) {
+        this.dayView = dayView;
+        this.source = source;
+        this.binder = binder;
+        this.frameExecutor = frameExecutor;
+    }
+
+    /**
+     * Starts listening to the source, and binds its current events on the next frame.
+     */
+    void start() {
+        started = true;
+        source.registerObserver(this);
+        onEventsChanged();
+    }
+
+    /**
+     * Stops listening to the source, the views bound so far are left as is. A bind that is still
+     * scheduled does nothing unless the binding is started again before it runs.
+     */
+    void stop() {
+        started = false;
+        source.unregisterObserver(this);
+    }
+
+    @Override
+    public void onEventsChanged() {
+        // Only the first change of each frame schedules a bind, the rest are picked up by it
+        if (scheduled.compareAndSet(false, true)) {
+            frameExecutor.execute(bindRunnable);
+        }
+    }
+
+    private void bind() {
+        // Changes arriving from now on need another frame
+        scheduled.set(false);
+
+        // A writer may still notify the binding after it stopped, from a copy of the observers
+        if (!started) {
+            return;
+        }
+
+        int version = source.copyEvents(this.version, ids, events);
+        if (version == this.version) {
+            return;
+        }
+        this.version = version;
+
+        Map<Long, View> views = new HashMap<>(ids.size());
+        Map<Long, T> boundEvents = new HashMap<>(ids.size());
+        List<View> eventViews = new ArrayList<>(ids.size());
+        List<EventTimeRange> eventTimeRanges = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            T event = events.get(i);
+
+            // Events that haven't changed keep their views as they are
+            View view = boundViews.remove(id);
+            T previousEvent = this.boundEvents.get(id);
+            if (view == null) {
+                if (!scrapViews.isEmpty()) {
+                    view = scrapViews.remove(scrapViews.size() - 1);
+                } else {
+                    view = dayView.hasEventViewFactory() ? dayView.obtainEventView() : binder.createView(dayView);
+                }
+                binder.bindView(view, event);
+            } else if (previousEvent != event && (previousEvent == null || !previousEvent.equals(event))) {
+                binder.bindView(view, event);
+            }
+
+            views.put(id, view);
+            boundEvents.put(id, event);
+            eventViews.add(view);
+            eventTimeRanges.add(binder.getTimeRange(event));
+        }
+
+        // The views of removed events can be bound to new events later on, the day view's pool
+        // takes them back instead if it has one
+        if (!dayView.hasEventViewFactory()) {
+            scrapViews.addAll(boundViews.values());
+        }
+        boundViews = views;
+        this.boundEvents = boundEvents;
+
+        dayView.setEventViews(eventViews, eventTimeRanges);
+    }
+
+    /**
+     * Runs commands on the main thread on the next frame.
+     */
+    private static class FrameExecutor implements Executor {
+
+        @NonNull
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull final Runnable command) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                postFrame(command);
+            } else {
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        postFrame(command);
+                    }
+                });
+            }
+        }
+
+        private void postFrame(@NonNull Runnable command) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                FrameCallbackCompat.post(FrameCallbackCompat.create(command));
+            } else {
+                mainHandler.postDelayed(command, FALLBACK_FRAME_DELAY_MS);
+            }
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class FrameCallbackCompat {
+
+        @NonNull
+        static Object create(@NonNull final Runnable runnable) {
+            return new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    runnable.run();
+                }
+            };
+        }
+
+        static void post(@NonNull Object frameCallback) {
+            Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) frameCallback);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Keeps event views created ahead of time by a {@link DayView.EventViewFactory}, so binding a day
+ * doesn't have to create its views while the first frame waits. Views are created on an executor
+ * when there is one, or on the main thread while it is idle otherwise, or when the factory fails
+ * off the main thread.
+ * <p>
+ * The pool aims to hold as many free views as the most events bound recently, so a day as busy as
+ * the busiest of the last few can be bound from the pool alone. Only used on the main thread.
+ */
+class EventViewPool {
+
+    /**
+     * The number of views created before any events are bound.
+     */
+    private static final int INITIAL_TARGET_SIZE = 8;
+    /**
+     * The number of recent event counts the target follows the peak of.
+     */
+    private static final int RECENT_EVENT_COUNTS = 8;
+
+    @NonNull
+    private final ViewGroup parent;
+    @NonNull
+    private final DayView.EventViewFactory factory;
+    @Nullable
+    private Executor inflationExecutor;
+    @NonNull
+    private final Executor mainExecutor;
+
+    @NonNull
+    private final List<View> freeViews = new ArrayList<>();
+    /**
+     * Every view created by the pool, so only those are taken back.
+     */
+    @NonNull
+    private final Set<View> ownedViews = Collections.newSetFromMap(new WeakHashMap<View, Boolean>());
+    @NonNull
+    private final int[] recentEventCounts = new int[RECENT_EVENT_COUNTS];
+    private int recentEventCountIndex;
+    private int targetSize = INITIAL_TARGET_SIZE;
+    private int pendingCount;
+    private boolean started;
+    private boolean idleHandlerAdded;
+    /**
+     * Changes whenever the pool stops, so views created for an earlier start are dropped.
+     */
+    private int generation;
+
+    @NonNull
+    private final MessageQueue.IdleHandler idleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            // One view per idle pass, so input arriving in between isn't held up
+            idleHandlerAdded = started && getMissingCount() > 0;
+            if (idleHandlerAdded) {
+                addFreeView(factory.createEventView(parent));
+                idleHandlerAdded = getMissingCount() > 0;
+            }
+
+            return idleHandlerAdded;
+        }
+    };
+
+    EventViewPool(@NonNull ViewGroup parent,
+                  @NonNull DayView.EventViewFactory factory,
+                  @Nullable Executor inflationExecutor) {
+        this(parent, factory, inflationExecutor, new Executor() {
+            @NonNull
+            private final Handler handler = new Handler(Looper.getMainLooper());
+
+            @Override
+            public void execute(@NonNull Runnable command) {
+                handler.post(command);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    EventViewPool(@NonNull ViewGroup parent,
+                  @NonNull DayView.EventViewFactory factory,
+                  @Nullable Executor inflationExecutor,
+                  @NonNull Executor mainExecutor) {
+        this.parent = parent;
+        this.factory = factory;
+        this.inflationExecutor = inflationExecutor;
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Starts filling the pool up to its target.
+     */
+    void start() {
+        started = true;
+        fill();
+    }
+
+    /**
+     * Stops filling the pool, the views in it are kept.
+     */
+    void stop() {
+        started = false;
+        generation++;
+        pendingCount = 0;
+        if (idleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(idleHandler);
+            idleHandlerAdded = false;
+        }
+    }
+
+    /**
+     * @return a free view, or a new one if the pool is empty
+     */
+    @NonNull
+    View obtain() {
+        View view;
+        if (!freeViews.isEmpty()) {
+            view = freeViews.remove(freeViews.size() - 1);
+        } else {
+            view = factory.createEventView(parent);
+            ownedViews.add(view);
+        }
+
+        fill();
+        return view;
+    }
+
+    /**
+     * Takes back a view that was removed from the day view, if the pool created it and has room.
+     */
+    void release(@NonNull View view) {
+        if (owns(view) && freeViews.size() < targetSize && !freeViews.contains(view)) {
+            freeViews.add(view);
+        }
+    }
+
+    /**
+     * Moves the target towards the peak of the recent event counts.
+     */
+    void onEventsBound(int eventCount) {
+        recentEventCounts[recentEventCountIndex] = eventCount;
+        recentEventCountIndex = (recentEventCountIndex + 1) % RECENT_EVENT_COUNTS;
+
+        int peak = 0;
+        for (int count : recentEventCounts) {
+            peak = Math.max(peak, count);
+        }
+
+        targetSize = Math.max(peak, 1);
+        while (freeViews.size() > targetSize) {
+            freeViews.remove(freeViews.size() - 1);
+        }
+
+        fill();
+    }
+
+    /**
+     * @return whether the pool created the given view
+     */
+    boolean owns(@NonNull View view) {
+        return ownedViews.contains(view);
+    }
+
+    @VisibleForTesting
+    int getFreeCount() {
+        return freeViews.size();
+    }
+
+    @VisibleForTesting
+    int getTargetSize() {
+        return targetSize;
+    }
+
+    private int getMissingCount() {
+        return targetSize - freeViews.size() - pendingCount;
+    }
+
+    private void fill() {
+        if (!started || getMissingCount() <= 0) {
+            return;
+        }
+
+        if (inflationExecutor == null) {
+            if (!idleHandlerAdded) {
+                Looper.myQueue().addIdleHandler(idleHandler);
+                idleHandlerAdded = true;
+            }
+            return;
+        }
+
+        final int generation = this.generation;
+        for (int i = getMissingCount(); i > 0; i--) {
+            pendingCount++;
+            inflationExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    View view = null;
+                    try {
+                        view = factory.createEventView(parent);
+                    } catch (RuntimeException e) {
+                        // Some views can only be created on the main thread, those are made while
+                        // it is idle from now on
+                    }
+
+                    final View createdView = view;
+                    mainExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            onViewCreated(generation, createdView);
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private void onViewCreated(int generation, @Nullable View view) {
+        if (generation != this.generation) {
+            return;
+        }
+
+        pendingCount--;
+        if (view == null) {
+            inflationExecutor = null;
+            fill();
+        } else if (freeViews.size() < targetSize) {
+            addFreeView(view);
+        }
+    }
+
+    private void addFreeView(@NonNull View view) {
+        ownedViews.add(view);
+        freeViews.add(view);
+    }
+}
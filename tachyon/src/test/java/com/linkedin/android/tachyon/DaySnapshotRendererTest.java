@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DaySnapshotRendererTest {
+    private static final int DIVIDER_HEIGHT = 2;
+    private static final int EVENT_MARGIN = 1;
+    private static final int TEXT_HEIGHT = 20;
+    private static final int WIDTH = 300;
+    // Leaves 240 pixels for the two hours, so each minute is 2 pixels tall
+    private static final int HEIGHT = 240 + TEXT_HEIGHT + DIVIDER_HEIGHT;
+
+    private DaySnapshotRenderer renderer;
+
+    @Before
+    public void setup() {
+        renderer = new DaySnapshotRenderer(8, 10, DIVIDER_HEIGHT, EVENT_MARGIN);
+        renderer.setHourLabels(Arrays.asList("8 AM", "9 AM", "10 AM"), 50);
+    }
+
+    @Test
+    public void layout() {
+        List<EventTimeRange> timeRanges = Arrays.asList(
+                new EventTimeRange(480, 540),
+                new EventTimeRange(510, 570),
+                new EventTimeRange(420, 450));
+        renderer.layout(WIDTH, HEIGHT, TEXT_HEIGHT, timeRanges);
+
+        assertThat(renderer.dividerStart, is(50));
+        assertThat(renderer.dividerEnd, is(WIDTH));
+        assertThat(renderer.dividerTops, is(new int[]{10, 70, 130, 190, 250}));
+
+        assertRect(renderer.eventRects.get(0), 51, 13, 174, 129);
+        assertRect(renderer.eventRects.get(1), 176, 73, 299, 189);
+        assertThat(renderer.eventRects.get(2), is(nullValue()));
+    }
+
+    @Test
+    public void layoutWithoutHourLabels() {
+        renderer.setHourLabels(null, 50);
+        renderer.layout(WIDTH, 240 + DIVIDER_HEIGHT, TEXT_HEIGHT,
+                Collections.singletonList(new EventTimeRange(480, 600)));
+
+        assertThat(renderer.dividerStart, is(0));
+        assertThat(renderer.dividerTops, is(new int[]{0, 60, 120, 180, 240}));
+        assertRect(renderer.eventRects.get(0), 1, 3, 299, 239);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setHourLabelsForOtherHourRange() {
+        renderer.setHourLabels(Arrays.asList("8 AM", "9 AM"), 50);
+    }
+
+    @Test
+    public void fingerprint() {
+        List<EventTimeRange> timeRanges = Collections.singletonList(new EventTimeRange(480, 540));
+        List<DaySnapshotRenderer.EventDescriptor> descriptors =
+                Collections.singletonList(new DaySnapshotRenderer.EventDescriptor("Standup", 0xff0000ff));
+        DaySnapshotRenderer.Fingerprint fingerprint = new DaySnapshotRenderer.Fingerprint(WIDTH, HEIGHT, timeRanges,
+                descriptors);
+
+        assertThat(fingerprint, is(new DaySnapshotRenderer.Fingerprint(WIDTH, HEIGHT,
+                Collections.singletonList(new EventTimeRange(480, 540)),
+                Collections.singletonList(new DaySnapshotRenderer.EventDescriptor("Standup", 0xff0000ff)))));
+        assertThat(fingerprint.hashCode(), is(new DaySnapshotRenderer.Fingerprint(WIDTH, HEIGHT, timeRanges,
+                descriptors).hashCode()));
+        assertThat(fingerprint, is(not(new DaySnapshotRenderer.Fingerprint(WIDTH, HEIGHT + 1, timeRanges,
+                descriptors))));
+        assertThat(fingerprint, is(not(new DaySnapshotRenderer.Fingerprint(WIDTH, HEIGHT, timeRanges,
+                Collections.singletonList(new DaySnapshotRenderer.EventDescriptor("Retro", 0xff0000ff))))));
+        assertThat(fingerprint, is(not(new DaySnapshotRenderer.Fingerprint(WIDTH, HEIGHT,
+                Collections.singletonList(new EventTimeRange(480, 570)), descriptors))));
+    }
+
+    private static void assertRect(DirectionalRect rect, int left, int top, int right, int bottom) {
+        assertThat(rect.getLeft(), is(left));
+        assertThat(rect.getTop(), is(top));
+        assertThat(rect.getRight(), is(right));
+        assertThat(rect.getBottom(), is(bottom));
+    }
+}
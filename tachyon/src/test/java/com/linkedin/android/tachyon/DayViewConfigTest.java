@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DayViewConfigTest {
+
+    @Test
+    public void builderDefaults() {
+        DayViewConfig config = new DayViewConfig.Builder()
+                .setDividerHeight(3)
+                .setHourRange(-2, 30)
+                .setMaxColumns(-1)
+                .build();
+
+        assertThat(config.getCurrentTimeHeight(), is(3));
+        assertThat(config.getStartHour(), is(DayView.MIN_START_HOUR));
+        assertThat(config.getEndHour(), is(DayView.MAX_END_HOUR));
+        assertThat(config.getMaxColumns(), is(0));
+        assertThat(config.getHourLabelHeight(), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderRejectsEmptyHourRange() {
+        new DayViewConfig.Builder().setHourRange(12, 12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderRejectsHourRangeEmptyOnceClamped() {
+        new DayViewConfig.Builder().setHourRange(24, 30);
+    }
+
+    @Test
+    public void shareMinuteOffsets() {
+        DayViewConfig config = new DayViewConfig.Builder().build();
+        int[] offsets = config.getMinuteOffsets(1440, 48 * 35);
+
+        // Whole hours land exactly on their dividers
+        assertThat(offsets.length, is(1441));
+        assertThat(offsets[60], is(70));
+        assertThat(offsets[1440], is(48 * 35));
+        assertThat(config.getMinuteOffsets(1440, 48 * 35), is(sameInstance(offsets)));
+    }
+
+    @Test
+    public void allocateRectsWhenNeeded() {
+        DayViewConfig config = new DayViewConfig.Builder().setHourRange(9, 17).build();
+        DayView dayView = new DayView(mock(Context.class), null, 0, config, false);
+        assertThat(dayView.hourLabelRects.size(), is(0));
+        assertThat(dayView.hourDividerRects.size(), is(0));
+
+        dayView.getHourTop(9);
+        assertThat(dayView.hourLabelRects.size(), is(9));
+        assertThat(dayView.hourDividerRects.size(), is(9));
+        assertThat(dayView.halfHourDividerRects.size(), is(8));
+    }
+
+    @Test
+    public void cacheByConfiguration() {
+        Context context = mock(Context.class);
+        Resources resources = mock(Resources.class);
+        Configuration configuration = new Configuration();
+        when(context.getTheme()).thenReturn(mock(Resources.Theme.class));
+        when(context.getResources()).thenReturn(resources);
+        when(resources.getConfiguration()).thenReturn(configuration);
+        when(resources.getDisplayMetrics()).thenReturn(new DisplayMetrics());
+        TypedArray array = mock(TypedArray.class);
+        when(array.getInt(R.styleable.DayView_startHour, DayView.MIN_START_HOUR)).thenReturn(DayView.MIN_START_HOUR);
+        when(array.getInt(R.styleable.DayView_endHour, DayView.MAX_END_HOUR)).thenReturn(DayView.MAX_END_HOUR);
+        when(context.obtainStyledAttributes(null, R.styleable.DayView)).thenReturn(array);
+
+        DayViewConfig config = DayViewConfig.obtain(context, null);
+        assertThat(DayViewConfig.obtain(context, null), is(sameInstance(config)));
+        verify(context, times(1)).obtainStyledAttributes(null, R.styleable.DayView);
+
+        // The theme resolves to other values in night mode, so they are read again
+        configuration.uiMode = Configuration.UI_MODE_NIGHT_YES;
+        assertThat(DayViewConfig.obtain(context, null), is(not(sameInstance(config))));
+        verify(context, times(2)).obtainStyledAttributes(null, R.styleable.DayView);
+    }
+
+    @Test
+    public void readAttributesWithoutTheme() {
+        Context context = mock(Context.class);
+        AttributeSet attrs = mock(AttributeSet.class);
+        TypedArray array = mock(TypedArray.class);
+        when(context.obtainStyledAttributes(attrs, R.styleable.DayView)).thenReturn(array);
+        when(array.getDimensionPixelSize(R.styleable.DayView_dividerHeight, 0)).thenReturn(2);
+        when(array.getDimensionPixelSize(R.styleable.DayView_currentTimeHeight, 2)).thenReturn(2);
+        when(array.getInt(R.styleable.DayView_startHour, DayView.MIN_START_HOUR)).thenReturn(8);
+        when(array.getInt(R.styleable.DayView_endHour, DayView.MAX_END_HOUR)).thenReturn(18);
+
+        // Without a theme to key the cache by, the attributes are read every time
+        DayViewConfig config = DayViewConfig.obtain(context, attrs);
+        DayViewConfig.obtain(context, attrs);
+        verify(context, times(2)).obtainStyledAttributes(attrs, R.styleable.DayView);
+        verify(array, times(2)).recycle();
+
+        assertThat(config.getDividerHeight(), is(2));
+        assertThat(config.getCurrentTimeHeight(), is(2));
+        assertThat(config.getStartHour(), is(8));
+        assertThat(config.getEndHour(), is(18));
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.Invocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the work done by the layout passes of scripted scenarios, so a change that adds a pass,
+ * measures a child twice or adds back a child that didn't change fails here rather than going
+ * unnoticed on a device.
+ */
+public class DayViewPassCountTest {
+    private static final int DIVIDER_HEIGHT = 7;
+    private static final int HALF_HOUR_HEIGHT = 28;
+    private static final int HOUR_LABEL_WIDTH = 50;
+    private static final int HOUR_LABEL_MARGIN_END = 17;
+    private static final int PARENT_WIDTH = 400;
+
+    @Mock
+    Context context;
+    @Mock
+    AttributeSet attrs;
+    @Mock
+    TypedArray array;
+
+    private CountingDayView dayView;
+    private final List<View> hourLabelViews = new ArrayList<>();
+    private final List<View> eventViews = new ArrayList<>();
+    private final List<EventTimeRange> eventTimeRanges = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+
+        when(context.obtainStyledAttributes(attrs, R.styleable.DayView)).thenReturn(array);
+        when(array.getDimensionPixelSize(R.styleable.DayView_dividerHeight, 0)).thenReturn(DIVIDER_HEIGHT);
+        when(array.getDimensionPixelSize(R.styleable.DayView_halfHourHeight, 0)).thenReturn(HALF_HOUR_HEIGHT);
+        when(array.getDimensionPixelSize(R.styleable.DayView_hourLabelWidth, 0)).thenReturn(HOUR_LABEL_WIDTH);
+        when(array.getDimensionPixelSize(R.styleable.DayView_hourLabelMarginEnd, 0)).thenReturn(
+                HOUR_LABEL_MARGIN_END);
+        when(array.getInt(R.styleable.DayView_startHour, DayView.MIN_START_HOUR)).thenReturn(DayView.MIN_START_HOUR);
+        when(array.getInt(R.styleable.DayView_endHour, DayView.MAX_END_HOUR)).thenReturn(DayView.MAX_END_HOUR);
+
+        dayView = new CountingDayView(context, attrs);
+        dayView.resetCounts();
+
+        for (int i = dayView.getStartHour(); i <= dayView.getEndHour(); i++) {
+            View view = mock(View.class);
+            when(view.getMeasuredHeight()).thenReturn(20);
+            hourLabelViews.add(view);
+        }
+
+        eventTimeRanges.addAll(Arrays.asList(
+                new EventTimeRange(30, 180),
+                new EventTimeRange(90, 120),
+                new EventTimeRange(150, 300),
+                new EventTimeRange(600, 660)));
+        for (int i = 0; i < eventTimeRanges.size(); i++) {
+            eventViews.add(mock(View.class));
+        }
+    }
+
+    @Test
+    public void initialBind() {
+        dayView.setHourLabelViews(hourLabelViews);
+        dayView.setEventViews(eventViews, eventTimeRanges);
+        assertCounts(hourLabelViews.size() + eventViews.size(), 0, 0, 0);
+        assertThat(dayView.helperCount, is(1));
+        assertThat(dayView.requestLayoutCount, is(1));
+        assertThat(dayView.invalidateCount, is(1));
+        resetCounts();
+
+        // The hour labels are measured twice to find their heights, the events once
+        layoutPass(PARENT_WIDTH);
+        assertThat(dayView.measureChildCount, is(hourLabelViews.size()));
+        assertThat(dayView.measureExactlyCount, is(hourLabelViews.size() + eventViews.size()));
+        assertThat(getLayoutCount(), is(hourLabelViews.size() + eventViews.size()));
+        assertCounts(0, 0, 0, 0);
+        assertThat(dayView.helperCount, is(0));
+        assertThat(dayView.requestLayoutCount, is(0));
+        assertThat(dayView.invalidateCount, is(0));
+    }
+
+    @Test
+    public void rebindIdenticalEvents() {
+        bindAndLayout();
+
+        dayView.setEventViews(new ArrayList<>(eventViews), new ArrayList<>(eventTimeRanges));
+        assertNothingDone();
+    }
+
+    @Test
+    public void replaceOneEventView() {
+        bindAndLayout();
+
+        // An edit that binds a new view to the same time range only touches that view
+        View replacedView = eventViews.get(1);
+        View newView = mock(View.class);
+        eventViews.set(1, newView);
+        dayView.setEventViews(eventViews, eventTimeRanges);
+
+        assertCounts(1, 1, 0, 0);
+        assertThat(dayView.measureExactlyCount, is(1));
+        assertThat(getLayoutCount(newView), is(1));
+        assertThat(getLayoutCount(replacedView), is(0));
+        assertThat(getLayoutCount(), is(1));
+        assertThat(dayView.helperCount, is(0));
+        assertThat(dayView.requestLayoutCount, is(0));
+        assertThat(dayView.invalidateCount, is(1));
+    }
+
+    @Test
+    public void moveOneEventBeforeLaidOut() {
+        bindAndLayout();
+
+        // The time range of an event changing can't be laid out in place until this view has
+        // been laid out, so the views that are kept are only detached and attached again
+        eventTimeRanges.set(3, new EventTimeRange(660, 720));
+        dayView.setEventViews(eventViews, eventTimeRanges);
+
+        assertCounts(0, 0, eventViews.size(), eventViews.size());
+        assertThat(dayView.helperCount, is(1));
+        assertThat(dayView.requestLayoutCount, is(1));
+        assertThat(dayView.invalidateCount, is(1));
+    }
+
+    @Test
+    public void moveOneEventInPlace() {
+        bindAndLayout();
+        dayView.laidOut = true;
+
+        // Only the event that moved is measured and laid out again, alone in its cluster
+        View movedView = eventViews.get(3);
+        eventTimeRanges.set(3, new EventTimeRange(660, 720));
+        dayView.setEventViews(eventViews, eventTimeRanges);
+
+        assertCounts(0, 0, 0, 0);
+        assertThat(dayView.measureChildCount, is(0));
+        assertThat(dayView.measureExactlyCount, is(1));
+        assertThat(getLayoutCount(movedView), is(1));
+        assertThat(getLayoutCount(), is(1));
+        assertThat(dayView.helperCount, is(0));
+        assertThat(dayView.requestLayoutCount, is(0));
+        assertThat(dayView.invalidateCount, is(0));
+    }
+
+    @Test
+    public void resize() {
+        bindAndLayout();
+
+        layoutPass(PARENT_WIDTH / 2);
+        assertThat(dayView.measureChildCount, is(hourLabelViews.size()));
+        assertThat(dayView.measureExactlyCount, is(hourLabelViews.size() + eventViews.size()));
+        assertThat(getLayoutCount(), is(hourLabelViews.size() + eventViews.size()));
+        assertCounts(0, 0, 0, 0);
+        assertThat(dayView.helperCount, is(0));
+        assertThat(dayView.requestLayoutCount, is(0));
+        assertThat(dayView.invalidateCount, is(0));
+    }
+
+    @Test
+    public void layoutWithoutChanges() {
+        bindAndLayout();
+
+        // Laying out again without measuring first doesn't measure or rebind anything
+        dayView.onLayout(false, 0, 0, PARENT_WIDTH, 0);
+        assertThat(getLayoutCount(), is(hourLabelViews.size() + eventViews.size()));
+        assertThat(dayView.measureChildCount, is(0));
+        assertThat(dayView.measureExactlyCount, is(0));
+        assertCounts(0, 0, 0, 0);
+        assertThat(dayView.invalidateCount, is(0));
+    }
+
+    @Test
+    public void fixedHourLabelHeight() {
+        when(array.getDimensionPixelSize(R.styleable.DayView_hourLabelHeight, 0)).thenReturn(20);
+        CountingDayView fixedDayView = new CountingDayView(context, attrs);
+        fixedDayView.setHourLabelViews(hourLabelViews);
+        fixedDayView.setEventViews(eventViews, eventTimeRanges);
+        fixedDayView.resetCounts();
+
+        // Measuring only takes arithmetic, however many times it happens
+        for (int i = 0; i < 3; i++) {
+            fixedDayView.measureHeight(PARENT_WIDTH, 0, 0);
+        }
+        assertThat(fixedDayView.measureChildCount, is(0));
+        assertThat(fixedDayView.measureExactlyCount, is(0));
+
+        // The children are measured once for the layout that follows
+        fixedDayView.onLayout(true, 0, 0, PARENT_WIDTH, 0);
+        assertThat(fixedDayView.measureChildCount, is(0));
+        assertThat(fixedDayView.measureExactlyCount, is(hourLabelViews.size() + eventViews.size()));
+        assertThat(getLayoutCount(), is(hourLabelViews.size() + eventViews.size()));
+
+        fixedDayView.resetCounts();
+        fixedDayView.onLayout(false, 0, 0, PARENT_WIDTH, 0);
+        assertThat(fixedDayView.measureExactlyCount, is(0));
+
+        // The height matches hour labels measured at the fixed height
+        dayView.setHourLabelViews(hourLabelViews);
+        dayView.setEventViews(eventViews, eventTimeRanges);
+        assertThat(fixedDayView.getHeightForHourLabels(20, 20), is(dayView.measureChildViews(PARENT_WIDTH, 0, 0)));
+    }
+
+    private void bindAndLayout() {
+        dayView.setHourLabelViews(hourLabelViews);
+        dayView.setEventViews(eventViews, eventTimeRanges);
+        layoutPass(PARENT_WIDTH);
+        resetCounts();
+    }
+
+    /**
+     * Runs the measure and layout of a frame, the measured width can't be set on a view outside
+     * of a device so it's handed to the measure directly.
+     */
+    private void layoutPass(int width) {
+        int height = dayView.measureChildViews(width, 0, 0);
+        dayView.onLayout(true, 0, 0, width, height);
+    }
+
+    private void assertCounts(int additions, int removals, int attachments, int detachments) {
+        assertThat(dayView.addCount, is(additions));
+        assertThat(dayView.removeCount, is(removals));
+        assertThat(dayView.attachCount, is(attachments));
+        assertThat(dayView.detachCount, is(detachments));
+    }
+
+    private void assertNothingDone() {
+        assertCounts(0, 0, 0, 0);
+        assertThat(dayView.measureChildCount, is(0));
+        assertThat(dayView.measureExactlyCount, is(0));
+        assertThat(getLayoutCount(), is(0));
+        assertThat(dayView.helperCount, is(0));
+        assertThat(dayView.requestLayoutCount, is(0));
+        assertThat(dayView.invalidateCount, is(0));
+    }
+
+    private int getLayoutCount() {
+        int count = 0;
+        for (View view : hourLabelViews) {
+            count += getLayoutCount(view);
+        }
+        for (View view : eventViews) {
+            count += getLayoutCount(view);
+        }
+
+        return count;
+    }
+
+    private int getLayoutCount(View view) {
+        int count = 0;
+        for (Invocation invocation : mockingDetails(view).getInvocations()) {
+            if (invocation.getMethod().getName().equals("layout")) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private void resetCounts() {
+        dayView.resetCounts();
+        clearInvocations(hourLabelViews.toArray());
+        clearInvocations(eventViews.toArray());
+    }
+
+    /**
+     * Counts the calls that make up the work of a pass instead of doing it, keeping track of its
+     * children itself since the framework isn't there to.
+     */
+    private static class CountingDayView extends DayView {
+        final List<View> children = new ArrayList<>();
+        int measureChildCount;
+        int measureExactlyCount;
+        int addCount;
+        int removeCount;
+        int attachCount;
+        int detachCount;
+        int helperCount;
+        int requestLayoutCount;
+        int invalidateCount;
+        boolean laidOut;
+
+        CountingDayView(Context context, AttributeSet attrs) {
+            super(context, attrs, 0, false);
+        }
+
+        void resetCounts() {
+            measureChildCount = 0;
+            measureExactlyCount = 0;
+            addCount = 0;
+            removeCount = 0;
+            attachCount = 0;
+            detachCount = 0;
+            helperCount = 0;
+            requestLayoutCount = 0;
+            invalidateCount = 0;
+        }
+
+        @Override
+        protected void measureChild(View child, int parentWidthMeasureSpec, int parentHeightMeasureSpec) {
+            measureChildCount++;
+        }
+
+        @Override
+        protected void measureExactly(@NonNull View view, @NonNull DirectionalRect rect) {
+            measureExactlyCount++;
+        }
+
+        @Override
+        public void addView(View child) {
+            addCount++;
+            children.add(child);
+        }
+
+        @Override
+        protected boolean addViewInLayout(View child, int index, ViewGroup.LayoutParams params) {
+            addCount++;
+            children.add(index < 0 ? children.size() : index, child);
+            return true;
+        }
+
+        @Override
+        public void removeView(View view) {
+            removeCount++;
+            children.remove(view);
+        }
+
+        @Override
+        public void removeViewInLayout(View view) {
+            removeCount++;
+            children.remove(view);
+        }
+
+        @Override
+        protected void removeDetachedView(View child, boolean animate) {
+            removeCount++;
+        }
+
+        @Override
+        protected void attachViewToParent(View child, int index, ViewGroup.LayoutParams params) {
+            attachCount++;
+            children.add(index < 0 ? children.size() : index, child);
+        }
+
+        @Override
+        protected void detachViewFromParent(View child) {
+            detachCount++;
+            children.remove(child);
+        }
+
+        @Override
+        public boolean removeCallbacks(Runnable action) {
+            return true;
+        }
+
+        @Override
+        public int getPaddingLeft() {
+            return 0;
+        }
+
+        @Override
+        public int getPaddingTop() {
+            return 0;
+        }
+
+        @Override
+        public int getPaddingRight() {
+            return 0;
+        }
+
+        @Override
+        public int getPaddingBottom() {
+            return 0;
+        }
+
+        @Override
+        protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
+            return new ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        }
+
+        @Override
+        public int getChildCount() {
+            return children.size();
+        }
+
+        @Override
+        public View getChildAt(int index) {
+            return index >= 0 && index < children.size() ? children.get(index) : null;
+        }
+
+        @Override
+        public int indexOfChild(View child) {
+            return children.indexOf(child);
+        }
+
+        @NonNull
+        @Override
+        EventColumnSpansHelper createEventColumnSpansHelper() {
+            helperCount++;
+            return super.createEventColumnSpansHelper();
+        }
+
+        /**
+         * The size of a view can't be set outside of a device, so whether it's laid out as far as
+         * the framework can tell is up to the test.
+         */
+        @Override
+        boolean isLayoutUpToDate() {
+            return laidOut;
+        }
+
+        @Override
+        public void requestLayout() {
+            requestLayoutCount++;
+        }
+
+        @Override
+        public void invalidate() {
+            invalidateCount++;
+        }
+
+        @Override
+        public void invalidate(int l, int t, int r, int b) {
+            invalidateCount++;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import android.content.Context;
 import android.content.res.TypedArray;
 import android.util.AttributeSet;
 import android.view.View;
+import android.view.ViewPropertyAnimator;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -24,6 +25,11 @@ import java.util.List;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DayViewTest {
@@ -31,6 +37,7 @@ public class DayViewTest {
     private static final int HALF_HOUR_HEIGHT = 28;
     private static final int HOUR_LABEL_MARGIN_END = 17;
     private static final int EVENT_MARGIN = 3;
+    private static final int CURRENT_TIME_HEIGHT = 4;
     private static final float MINUTE_HEIGHT = HALF_HOUR_HEIGHT / 30f;
     private static final int PARENT_WIDTH = 200;
 
@@ -59,6 +66,8 @@ public class DayViewTest {
         when(array.getDimensionPixelSize(R.styleable.DayView_hourLabelMarginEnd, 0)).thenReturn(
                 HOUR_LABEL_MARGIN_END);
         when(array.getDimensionPixelSize(R.styleable.DayView_eventMargin, 0)).thenReturn(EVENT_MARGIN);
+        when(array.getDimensionPixelSize(R.styleable.DayView_currentTimeHeight, DIVIDER_HEIGHT)).thenReturn(
+                CURRENT_TIME_HEIGHT);
         when(array.getInt(R.styleable.DayView_startHour, DayView.MIN_START_HOUR)).thenReturn(DayView.MIN_START_HOUR);
         when(array.getInt(R.styleable.DayView_endHour, DayView.MAX_END_HOUR)).thenReturn(DayView.MAX_END_HOUR);
 
@@ -72,11 +81,11 @@ public class DayViewTest {
             hourLabelViews.add(hourLabelView);
         }
 
-        List<DayView.EventTimeRange> eventTimeRanges = new ArrayList<>();
-        eventTimeRanges.add(new DayView.EventTimeRange(30, 180));
-        eventTimeRanges.add(new DayView.EventTimeRange(90, 120));
-        eventTimeRanges.add(new DayView.EventTimeRange(150, 300));
-        eventTimeRanges.add(new DayView.EventTimeRange(150, 300));
+        List<EventTimeRange> eventTimeRanges = new ArrayList<>();
+        eventTimeRanges.add(new EventTimeRange(30, 180));
+        eventTimeRanges.add(new EventTimeRange(90, 120));
+        eventTimeRanges.add(new EventTimeRange(150, 300));
+        eventTimeRanges.add(new EventTimeRange(150, 300));
 
         List<View> eventViews = new ArrayList<>();
         for (int i = 0; i < eventTimeRanges.size(); i++) {
@@ -146,6 +155,25 @@ public class DayViewTest {
         assertThat(dayView.halfHourDividerRects.get(22).getBottom(), is(1592));
     }
 
+    @Test
+    public void hourOffsetsWithStartHour() {
+        when(array.getInt(R.styleable.DayView_startHour, DayView.MIN_START_HOUR)).thenReturn(8);
+        when(array.getInt(R.styleable.DayView_endHour, DayView.MAX_END_HOUR)).thenReturn(18);
+        DayView dayView = new DayView(context, attrs, 0, false);
+        dayView.setDividerRects(10, 5, 195);
+
+        assertThat(dayView.getHourTop(8), is(17));
+        assertThat(dayView.getHourBottom(8), is(80));
+        assertThat(dayView.getHourTop(12), is(297));
+        assertThat(dayView.getHourBottom(18), is(717));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void hourBeforeStartHour() {
+        when(array.getInt(R.styleable.DayView_startHour, DayView.MIN_START_HOUR)).thenReturn(8);
+        new DayView(context, attrs, 0, false).getHourTop(7);
+    }
+
     @Test
     public void setEventRects() {
         dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
@@ -174,43 +202,229 @@ public class DayViewTest {
     }
 
     @Test
-    public void setRect() {
+    public void setEventRectsWithMaxColumns() {
+        dayView.maxColumns = 2;
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+
+        assertThat(dayView.eventFlags[0], is(DayView.EVENT_FLAG_OVERFLOW_CLUSTER));
+        assertThat(dayView.eventFlags[1], is(DayView.EVENT_FLAG_HIDDEN));
+        assertThat(dayView.eventFlags[2], is(DayView.EVENT_FLAG_HIDDEN));
+        assertThat(dayView.eventFlags[3], is(DayView.EVENT_FLAG_HIDDEN));
+
+        assertThat(dayView.eventRects.get(0).getLeft(), is(8));
+        assertThat(dayView.eventRects.get(0).getTop(), is(48));
+        assertThat(dayView.eventRects.get(0).getRight(), is(97));
+        assertThat(dayView.eventRects.get(0).getBottom(), is(175));
+
+        assertThat(dayView.eventOverflows.size(), is(1));
+        DayView.EventOverflow overflow = dayView.eventOverflows.get(0);
+        assertThat(overflow.hiddenEventViews.size(), is(3));
+        assertThat(overflow.rect.getLeft(), is(103));
+        assertThat(overflow.rect.getTop(), is(104));
+        assertThat(overflow.rect.getRight(), is(192));
+        assertThat(overflow.rect.getBottom(), is(287));
+
+        // Hidden events can't be hit
+        dayView.buildEventIndex();
+        assertThat(dayView.findEventIndexAt(150, 200), is(-1));
+
+        // Clusters that fit aren't affected
+        dayView.maxColumns = 3;
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+
+        assertThat(dayView.eventOverflows.size(), is(0));
+        assertThat(dayView.eventFlags[3], is(0));
+        assertThat(dayView.eventRects.get(3).getLeft(), is(134));
+        assertThat(dayView.eventRects.get(3).getRight(), is(191));
+    }
+
+    @Test
+    public void setMeasureOrder() {
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+
+        // Only the first event overlaps the visible area, the others are ordered by distance
+        assertThat(dayView.setMeasureOrder(0, 100), is(1));
+        assertThat(dayView.measureOrderSize, is(4));
+        assertThat(dayView.measureOrder[0], is(0));
+        assertThat(dayView.measureOrder[1], is(1));
+        assertThat(dayView.measureOrder[2], is(2));
+        assertThat(dayView.measureOrder[3], is(3));
+
+        assertThat(dayView.setMeasureOrder(200, 400), is(2));
+        assertThat(dayView.measureOrder[0], is(2));
+        assertThat(dayView.measureOrder[1], is(3));
+        assertThat(dayView.measureOrder[2], is(0));
+        assertThat(dayView.measureOrder[3], is(1));
+
+        // Hidden events are never measured
+        dayView.maxColumns = 2;
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+        assertThat(dayView.setMeasureOrder(0, 1000), is(1));
+        assertThat(dayView.measureOrderSize, is(1));
+    }
+
+    @Test
+    public void setEventRectsWithDetailLevels() {
+        dayView.compactEventHeight = 150;
+        dayView.barEventHeight = 20;
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+
+        assertThat(dayView.eventRects.get(0).getBottom() - dayView.eventRects.get(0).getTop(), is(127));
+        assertThat(dayView.eventRects.get(1).getBottom() - dayView.eventRects.get(1).getTop(), is(15));
+        assertThat(dayView.eventDetailLevels[0], is(DayView.EVENT_DETAIL_COMPACT));
+        assertThat(dayView.eventDetailLevels[1], is(DayView.EVENT_DETAIL_BAR));
+        assertThat(dayView.eventDetailLevels[2], is(DayView.EVENT_DETAIL_COMPACT));
+        assertThat(dayView.eventDetailLevels[3], is(DayView.EVENT_DETAIL_COMPACT));
+
+        // Events drawn as bars are never measured
+        assertThat(dayView.setMeasureOrder(0, 1000), is(3));
+        assertThat(dayView.measureOrderSize, is(3));
+
+        // Narrow events are drawn as bars too
+        dayView.barEventWidth = 60;
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+        assertThat(dayView.eventDetailLevels[0], is(DayView.EVENT_DETAIL_BAR));
+        assertThat(dayView.eventDetailLevels[2], is(DayView.EVENT_DETAIL_BAR));
+
+        // Levels follow the size of the events
+        dayView.setEventRects(10, MINUTE_HEIGHT * 2, 5, 395);
+        assertThat(dayView.eventDetailLevels[0], is(DayView.EVENT_DETAIL_FULL));
+        assertThat(dayView.eventDetailLevels[1], is(DayView.EVENT_DETAIL_COMPACT));
+        assertThat(dayView.eventDetailLevels[2], is(DayView.EVENT_DETAIL_FULL));
+
         DirectionalRect rect = new DirectionalRect();
-        rect.set(false, 20, 1, 2, 3, 4);
+        rect.set(false, PARENT_WIDTH, 10, 10, 100, 10);
+        assertThat(dayView.getEventDetailLevel(rect), is(DayView.EVENT_DETAIL_NONE));
+    }
+
+    @Test
+    public void setUncoveredDividerSegments() {
+        dayView.setDividerRects(10, 5, 195);
+        dayView.addOccluder(rect(20, 0, 100, 90), 0);
+        dayView.addOccluder(rect(60, 40, 150, 60), 1);
+        // Starts below the first half-hour divider, so it only covers the second hour divider
+        dayView.addOccluder(rect(150, 46, 190, 100), 2);
+        dayView.setUncoveredDividerSegments();
+
+        // The first hour divider, then the second one
+        assertDividerSegment(0, 0, 5, 20);
+        assertDividerSegment(1, 0, 100, 195);
+        assertDividerSegment(2, 1, 5, 20);
+        assertDividerSegment(3, 1, 100, 150);
+        assertDividerSegment(4, 1, 190, 195);
+
+        // The first half-hour divider follows every hour divider
+        int hourDividerCount = dayView.hourDividerRects.size();
+        int firstHalfHourSegment = 5 + hourDividerCount - 2;
+        assertDividerSegment(firstHalfHourSegment - 1, hourDividerCount - 1, 5, 195);
+        assertDividerSegment(firstHalfHourSegment, hourDividerCount, 5, 20);
+        assertDividerSegment(firstHalfHourSegment + 1, hourDividerCount, 150, 195);
+        assertDividerSegment(firstHalfHourSegment + 2, hourDividerCount + 1, 5, 195);
+        assertThat(dayView.dividerSegmentCount,
+                is(firstHalfHourSegment + 2 + dayView.halfHourDividerRects.size() - 1));
+    }
+
+    @Test
+    public void layoutEventViewAnimated() {
+        View view = mockLaidOutView();
+        ViewPropertyAnimator animator = mock(ViewPropertyAnimator.class, RETURNS_SELF);
+        when(view.animate()).thenReturn(animator);
+        dayView.setChangeAnimationDuration(200);
+
+        dayView.layoutEventView(view, rect(30, 20, 130, 220), true);
+
+        // Laid out once at the new rect, then drawn where it was and animated back
+        verify(view).layout(30, 20, 130, 220);
+        verify(view).setTranslationX(-45f);
+        verify(view).setTranslationY(-50f);
+        verify(view).setScaleX(0.5f);
+        verify(view).setScaleY(0.5f);
+        verify(animator).translationX(0);
+        verify(animator).translationY(0);
+        verify(animator).scaleX(1);
+        verify(animator).scaleY(1);
+        verify(animator).setDuration(200);
+        verify(animator).start();
+    }
+
+    @Test
+    public void layoutEventViewWithoutAnimation() {
+        View view = mockLaidOutView();
 
-        assertThat(rect.getLeft(), is(1));
-        assertThat(rect.getTop(), is(2));
-        assertThat(rect.getRight(), is(3));
-        assertThat(rect.getBottom(), is(4));
+        dayView.layoutEventView(view, rect(30, 20, 130, 220), true);
+        verify(view).layout(30, 20, 130, 220);
 
-        rect.set(true, 20, 1, 2, 3, 4);
+        // Unmeasured events are never animated
+        dayView.setChangeAnimationDuration(200);
+        dayView.layoutEventView(view, rect(30, 20, 130, 220), false);
+        verify(view).layout(30, 20, 30, 20);
 
-        assertThat(rect.getLeft(), is(17));
-        assertThat(rect.getTop(), is(2));
-        assertThat(rect.getRight(), is(19));
-        assertThat(rect.getBottom(), is(4));
+        verify(view, never()).animate();
+        verify(view, never()).setTranslationX(anyFloat());
     }
 
     @Test
-    public void timeRanges() {
-        DayView.EventTimeRange range = new DayView.EventTimeRange(20, 40);
+    public void setMinuteTops() {
+        dayView.setMinuteTops(10, (HALF_HOUR_HEIGHT + DIVIDER_HEIGHT) * 48);
+
+        assertThat(dayView.getYForTime(0), is(17));
+        assertThat(dayView.getYForTime(15), is(34));
+        assertThat(dayView.getYForTime(60), is(87));
+        assertThat(dayView.getYForTime(1440), is(1697));
+        assertThat(dayView.getYForTime(-30), is(17));
+        assertThat(dayView.getYForTime(1500), is(1697));
+
+        assertThat(dayView.getTimeAtY(0), is(0));
+        assertThat(dayView.getTimeAtY(17), is(0));
+        assertThat(dayView.getTimeAtY(34), is(15));
+        assertThat(dayView.getTimeAtY(86), is(59));
+        assertThat(dayView.getTimeAtY(87), is(60));
+        assertThat(dayView.getTimeAtY(5000), is(1440));
+    }
 
-        assertThat(range.conflicts(new DayView.EventTimeRange(5, 15)), is(false));
-        assertThat(range.conflicts(new DayView.EventTimeRange(50, 90)), is(false));
-        assertThat(range.conflicts(new DayView.EventTimeRange(5, 20)), is(false));
-        assertThat(range.conflicts(new DayView.EventTimeRange(40, 90)), is(false));
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedEventTimeRange() {
+        List<DayView.EventTimeRange> timeRanges = Collections.singletonList(new DayView.EventTimeRange(30, 60));
+        List<? extends EventTimeRange> eventTimeRanges = timeRanges;
 
-        assertThat(range.conflicts(new DayView.EventTimeRange(20, 40)), is(true));
-        assertThat(range.conflicts(new DayView.EventTimeRange(10, 60)), is(true));
-        assertThat(range.conflicts(new DayView.EventTimeRange(25, 35)), is(true));
-        assertThat(range.conflicts(new DayView.EventTimeRange(10, 35)), is(true));
-        assertThat(range.conflicts(new DayView.EventTimeRange(25, 50)), is(true));
+        assertThat(eventTimeRanges.get(0).equals(new EventTimeRange(30, 60)), is(true));
+        assertThat(new EventTimeRange(30, 60).equals(eventTimeRanges.get(0)), is(true));
+    }
+
+    @Test
+    public void findEventIndexAt() {
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+        dayView.buildEventIndex();
+
+        assertThat(dayView.findEventIndexAt(20, 48), is(0));
+        assertThat(dayView.findEventIndexAt(20, 174), is(0));
+        assertThat(dayView.findEventIndexAt(20, 175), is(-1));
+        assertThat(dayView.findEventIndexAt(100, 110), is(1));
+        assertThat(dayView.findEventIndexAt(100, 130), is(-1));
+        assertThat(dayView.findEventIndexAt(100, 200), is(2));
+        assertThat(dayView.findEventIndexAt(150, 200), is(3));
+        assertThat(dayView.findEventIndexAt(4, 100), is(-1));
+        assertThat(dayView.findEventIndexAt(100, 10), is(-1));
+    }
+
+    @Test
+    public void setCurrentTimeRect() {
+        dayView.setEventRects(10, MINUTE_HEIGHT, 5, 195);
+        dayView.setMinuteTops(10, (HALF_HOUR_HEIGHT + DIVIDER_HEIGHT) * 48);
+        dayView.currentTimeMinute = 90;
+        dayView.setCurrentTimeRect();
+
+        assertThat(dayView.currentTimeRect.getLeft(), is(5));
+        assertThat(dayView.currentTimeRect.getTop(), is(120));
+        assertThat(dayView.currentTimeRect.getRight(), is(195));
+        assertThat(dayView.currentTimeRect.getBottom(), is(124));
     }
 
     @Test
     public void singleEventColumnSpan() {
-        List<DayView.EventTimeRange> timeRanges =
-                Collections.singletonList(new DayView.EventTimeRange(55, 133));
+        List<EventTimeRange> timeRanges =
+                Collections.singletonList(new EventTimeRange(55, 133));
 
         DayView.EventColumnSpansHelper columnSpansHelper =
                 new DayView.EventColumnSpansHelper(timeRanges);
@@ -223,11 +437,11 @@ public class DayViewTest {
 
     @Test
     public void multipleEventColumnSpans() {
-        List<DayView.EventTimeRange> timeRanges = new ArrayList<>();
-        timeRanges.add(new DayView.EventTimeRange(30, 180));
-        timeRanges.add(new DayView.EventTimeRange(90, 120));
-        timeRanges.add(new DayView.EventTimeRange(150, 300));
-        timeRanges.add(new DayView.EventTimeRange(150, 300));
+        List<EventTimeRange> timeRanges = new ArrayList<>();
+        timeRanges.add(new EventTimeRange(30, 180));
+        timeRanges.add(new EventTimeRange(90, 120));
+        timeRanges.add(new EventTimeRange(150, 300));
+        timeRanges.add(new EventTimeRange(150, 300));
 
         DayView.EventColumnSpansHelper columnSpansHelper =
                 new DayView.EventColumnSpansHelper(timeRanges);
@@ -246,4 +460,70 @@ public class DayViewTest {
 
         assertThat(columnSpansHelper.columnCount, is(3));
     }
+
+    @Test
+    public void updateColumnSpans() {
+        List<EventTimeRange> timeRanges = new ArrayList<>();
+        timeRanges.add(new EventTimeRange(30, 180));
+        timeRanges.add(new EventTimeRange(90, 120));
+        timeRanges.add(new EventTimeRange(150, 300));
+        timeRanges.add(new EventTimeRange(150, 300));
+        timeRanges.add(new EventTimeRange(600, 660));
+        timeRanges.add(new EventTimeRange(630, 690));
+
+        DayView.EventColumnSpansHelper columnSpansHelper =
+                new DayView.EventColumnSpansHelper(timeRanges);
+        boolean[] affected = new boolean[timeRanges.size()];
+
+        // Moving an event into the later cluster only updates the two clusters involved
+        EventTimeRange previousTimeRange = timeRanges.set(1, new EventTimeRange(600, 630));
+        assertThat(columnSpansHelper.updateColumnSpans(1, previousTimeRange, affected), is(false));
+        assertThat(affected[0], is(true));
+        assertThat(affected[1], is(true));
+        assertThat(affected[4], is(true));
+
+        assertColumnSpansEqual(columnSpansHelper, new DayView.EventColumnSpansHelper(timeRanges));
+
+        // Moving it away from everything frees up a column
+        previousTimeRange = timeRanges.set(3, new EventTimeRange(900, 960));
+        assertThat(columnSpansHelper.updateColumnSpans(3, previousTimeRange, affected), is(true));
+        assertThat(columnSpansHelper.columnCount, is(2));
+
+        assertColumnSpansEqual(columnSpansHelper, new DayView.EventColumnSpansHelper(timeRanges));
+    }
+
+    private static View mockLaidOutView() {
+        View view = mock(View.class);
+        when(view.getLeft()).thenReturn(10);
+        when(view.getTop()).thenReturn(20);
+        when(view.getRight()).thenReturn(60);
+        when(view.getBottom()).thenReturn(120);
+        when(view.getWidth()).thenReturn(50);
+        when(view.getHeight()).thenReturn(100);
+        when(view.getScaleX()).thenReturn(1f);
+        when(view.getScaleY()).thenReturn(1f);
+        return view;
+    }
+
+    private static DirectionalRect rect(int left, int top, int right, int bottom) {
+        DirectionalRect rect = new DirectionalRect();
+        rect.set(false, PARENT_WIDTH, left, top, right, bottom);
+        return rect;
+    }
+
+    private void assertDividerSegment(int segment, int divider, int left, int right) {
+        assertThat(dayView.dividerSegments[segment * 3], is(divider));
+        assertThat(dayView.dividerSegments[segment * 3 + 1], is(left));
+        assertThat(dayView.dividerSegments[segment * 3 + 2], is(right));
+    }
+
+    private static void assertColumnSpansEqual(DayView.EventColumnSpansHelper actual,
+                                               DayView.EventColumnSpansHelper expected) {
+        assertThat(actual.columnCount, is(expected.columnCount));
+        assertThat(actual.columnSpans.size(), is(expected.columnSpans.size()));
+        for (int i = 0; i < expected.columnSpans.size(); i++) {
+            assertThat(actual.columnSpans.get(i).startColumn, is(expected.columnSpans.get(i).startColumn));
+            assertThat(actual.columnSpans.get(i).endColumn, is(expected.columnSpans.get(i).endColumn));
+        }
+    }
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.CursorWindow;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventCursorBindingTest {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private DayView dayView;
+    private final List<long[]> queries = new ArrayList<>();
+    private final List<Cursor> detailsCursors = new ArrayList<>();
+    private final List<Long> boundIds = new ArrayList<>();
+    private int placeholderCount;
+    private EventCursorBinder binder;
+
+    @Before
+    public void setup() {
+        dayView = mock(DayView.class);
+        binder = new EventCursorBinder() {
+            @Override
+            public long getId(Cursor cursor) {
+                return cursor.getLong(0);
+            }
+
+            @Override
+            public EventTimeRange getTimeRange(Cursor cursor) {
+                return new EventTimeRange(cursor.getInt(1), cursor.getInt(2));
+            }
+
+            @Override
+            public View createView(ViewGroup parent) {
+                return mock(View.class);
+            }
+
+            @Override
+            public void bindPlaceholder(View view) {
+                placeholderCount++;
+            }
+
+            @Override
+            public Cursor queryDetails(long[] ids) {
+                queries.add(ids);
+
+                // The details rows only need the ids here
+                long[][] rows = new long[ids.length][];
+                for (int i = 0; i < ids.length; i++) {
+                    rows[i] = new long[]{ids[i]};
+                }
+                Cursor cursor = mockCursor(rows);
+                detailsCursors.add(cursor);
+                return cursor;
+            }
+
+            @Override
+            public void bindView(View view, Cursor details) {
+                boundIds.add(details.getLong(0));
+            }
+        };
+    }
+
+    @Test
+    public void layoutBeforeDetails() {
+        EventCursorBinding binding = new EventCursorBinding(dayView, binder, null, DIRECT_EXECUTOR);
+        binding.setCursor(mockLayoutCursor(0, 40));
+
+        List<EventTimeRange> timeRanges = captureTimeRanges(1);
+        assertThat(timeRanges.size(), is(40));
+        assertThat(timeRanges.get(3), is(new EventTimeRange(90, 120)));
+        assertThat(placeholderCount, is(40));
+        assertThat(queries.size(), is(0));
+    }
+
+    @Test
+    public void readOnlyVisibleWindows() {
+        EventCursorBinding binding = new EventCursorBinding(dayView, binder, null, DIRECT_EXECUTOR);
+        binding.setCursor(mockLayoutCursor(0, 40));
+
+        // Only the first window has events in the morning
+        binding.readVisibleDetails(0, 300);
+        assertThat(queries.size(), is(1));
+        assertThat(queries.get(0).length, is(EventCursorBinding.WINDOW_SIZE));
+        assertThat(boundIds.size(), is(EventCursorBinding.WINDOW_SIZE));
+        verify(detailsCursors.get(0)).close();
+
+        // Windows already read aren't read again
+        binding.readVisibleDetails(0, 300);
+        assertThat(queries.size(), is(1));
+
+        // Scrolling to the last events reads the last window, which is smaller
+        binding.readVisibleDetails(1100, 1200);
+        assertThat(queries.size(), is(2));
+        assertThat(queries.get(1)[0], is(32L));
+        assertThat(queries.get(1).length, is(8));
+    }
+
+    @Test
+    public void setCursorAgainKeepsViews() {
+        EventCursorBinding binding = new EventCursorBinding(dayView, binder, null, DIRECT_EXECUTOR);
+        binding.setCursor(mockLayoutCursor(0, 4));
+        List<View> views = captureViews(1);
+
+        binding.setCursor(mockLayoutCursor(1, 5));
+        List<View> nextViews = captureViews(2);
+        assertThat(nextViews.get(0), is(sameInstance(views.get(1))));
+        assertThat(nextViews.get(2), is(sameInstance(views.get(3))));
+        assertThat(placeholderCount, is(5));
+
+        // The view of the removed event is bound to the next new event
+        binding.setCursor(mockLayoutCursor(2, 6));
+        assertThat(captureViews(3).get(3), is(sameInstance(views.get(0))));
+
+        // The events that were kept are read again as they may have changed
+        binding.readVisibleDetails(0, 1440);
+        assertThat(queries.size(), is(1));
+        assertThat(boundIds, is(Arrays.asList(2L, 3L, 4L, 5L)));
+    }
+
+    @Test
+    public void duplicateIdKeepsEvents() {
+        EventCursorBinding binding = new EventCursorBinding(dayView, binder, null, DIRECT_EXECUTOR);
+        binding.setCursor(mockLayoutCursor(0, 4));
+
+        try {
+            binding.setCursor(mockCursor(new long[][]{{0, 0, 30}, {5, 30, 60}, {5, 60, 90}}));
+            fail("Duplicate ids should be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // Nothing was bound, and the details read are still those of the previous events
+        captureViews(1);
+        assertThat(placeholderCount, is(4));
+        binding.readVisibleDetails(0, 1440);
+        assertThat(queries.size(), is(1));
+        assertThat(queries.get(0), is(new long[]{0, 1, 2, 3}));
+    }
+
+    @Test
+    public void reuseLayoutWindow() {
+        EventCursorBinding binding = new EventCursorBinding(dayView, binder, null, DIRECT_EXECUTOR);
+        CursorWindow window = mock(CursorWindow.class);
+        AbstractWindowedCursor cursor = mockWindowedLayoutCursor(window);
+        binding.setCursor(cursor);
+        verify(window).acquireReference();
+
+        // The window of a closed cursor is filled again by the next one
+        when(cursor.isClosed()).thenReturn(true);
+        AbstractWindowedCursor nextCursor = mockWindowedLayoutCursor(window);
+        binding.setCursor(nextCursor);
+        verify(nextCursor).setWindow(window);
+        verify(window, times(2)).acquireReference();
+        verify(window, never()).releaseReference();
+
+        // A window still in use by an open cursor is left to it
+        CursorWindow otherWindow = mock(CursorWindow.class);
+        AbstractWindowedCursor otherCursor = mockWindowedLayoutCursor(otherWindow);
+        binding.setCursor(otherCursor);
+        verify(otherCursor, never()).setWindow(any(CursorWindow.class));
+        verify(window).releaseReference();
+        verify(otherWindow).acquireReference();
+
+        binding.setCursor(null);
+        verify(otherWindow).releaseReference();
+    }
+
+    @Test
+    public void dropDetailsOfPreviousCursor() {
+        final List<Runnable> queryRunnables = new ArrayList<>();
+        Executor queryExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queryRunnables.add(command);
+            }
+        };
+        EventCursorBinding binding = new EventCursorBinding(dayView, binder, queryExecutor, DIRECT_EXECUTOR);
+        binding.setCursor(mockLayoutCursor(0, 4));
+        binding.readVisibleDetails(0, 1440);
+        assertThat(queries.size(), is(0));
+
+        // The details finish reading after the events were set again
+        binding.setCursor(mockLayoutCursor(0, 4));
+        queryRunnables.remove(0).run();
+        assertThat(boundIds.size(), is(0));
+        verify(detailsCursors.get(0)).close();
+
+        binding.readVisibleDetails(0, 1440);
+        queryRunnables.remove(0).run();
+        assertThat(boundIds.size(), is(4));
+    }
+
+    private List<View> captureViews(int calls) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<View>> captor = ArgumentCaptor.forClass((Class) List.class);
+        verify(dayView, times(calls)).setEventViews(captor.capture(), ArgumentMatchers.<EventTimeRange>anyList());
+        return captor.getValue();
+    }
+
+    private List<EventTimeRange> captureTimeRanges(int calls) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventTimeRange>> captor = ArgumentCaptor.forClass((Class) List.class);
+        verify(dayView, times(calls)).setEventViews(ArgumentMatchers.<View>anyList(), captor.capture());
+        return captor.getValue();
+    }
+
+    /**
+     * @return a layout cursor with half-hour events for the ids from start to end, sorted by time
+     */
+    private static Cursor mockLayoutCursor(int start, int end) {
+        long[][] rows = new long[end - start][];
+        for (int id = start; id < end; id++) {
+            rows[id - start] = new long[]{id, id * 30, id * 30 + 30};
+        }
+
+        return mockCursor(rows);
+    }
+
+    /**
+     * @return a layout cursor with a few events, whose window is the given one once it is read
+     */
+    private static AbstractWindowedCursor mockWindowedLayoutCursor(CursorWindow window) {
+        AbstractWindowedCursor cursor = mockCursor(AbstractWindowedCursor.class,
+                new long[][]{{0, 0, 30}, {1, 30, 60}, {2, 60, 90}});
+        when(cursor.getWindow()).thenReturn(window);
+        return cursor;
+    }
+
+    private static Cursor mockCursor(long[][] rows) {
+        return mockCursor(Cursor.class, rows);
+    }
+
+    private static <T extends Cursor> T mockCursor(Class<T> type, final long[][] rows) {
+        final T cursor = mock(type);
+        final int[] position = {-1};
+        when(cursor.getCount()).thenReturn(rows.length);
+        when(cursor.moveToPosition(anyInt())).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                position[0] = invocation.getArgument(0);
+                return position[0] >= 0 && position[0] < rows.length;
+            }
+        });
+        when(cursor.moveToNext()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                return cursor.moveToPosition(position[0] + 1);
+            }
+        });
+        when(cursor.getLong(anyInt())).thenAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(InvocationOnMock invocation) {
+                return rows[position[0]][invocation.<Integer>getArgument(0)];
+            }
+        });
+        when(cursor.getInt(anyInt())).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) {
+                return (int) rows[position[0]][invocation.<Integer>getArgument(0)];
+            }
+        });
+
+        return cursor;
+    }
+}
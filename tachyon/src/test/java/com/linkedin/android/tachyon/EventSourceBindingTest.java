@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EventSourceBindingTest {
+    private final List<Runnable> frames = new ArrayList<>();
+    private final Executor frameExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            frames.add(command);
+        }
+    };
+
+    private DayView dayView;
+    private EventSource<Integer> source;
+    private EventSourceBinding<Integer> binding;
+
+    @Before
+    public void setup() {
+        dayView = mock(DayView.class);
+        source = new EventSource<>();
+        binding = new EventSourceBinding<>(dayView, source, new EventSource.Binder<Integer>() {
+            @Override
+            public EventTimeRange getTimeRange(Integer event) {
+                return new EventTimeRange(event, event + 30);
+            }
+
+            @Override
+            public View createView(ViewGroup parent) {
+                return mock(View.class);
+            }
+
+            @Override
+            public void bindView(View view, Integer event) {
+            }
+        }, frameExecutor);
+    }
+
+    @Test
+    public void coalesceChanges() {
+        binding.start();
+        for (int i = 0; i < 100; i++) {
+            source.put(i, i * 10);
+        }
+
+        // Every change of the frame is bound at once
+        assertThat(frames.size(), is(1));
+        runFrames();
+        verify(dayView, times(1)).setEventViews(ArgumentMatchers.<View>anyList(),
+                ArgumentMatchers.<EventTimeRange>anyList());
+
+        source.remove(0);
+        source.remove(1);
+        assertThat(frames.size(), is(1));
+        runFrames();
+        verify(dayView, times(2)).setEventViews(ArgumentMatchers.<View>anyList(),
+                ArgumentMatchers.<EventTimeRange>anyList());
+    }
+
+    @Test
+    public void ignoreChangesAfterStop() {
+        binding.start();
+        runFrames();
+        binding.stop();
+
+        // A writer that copied the observers before the binding stopped still notifies it
+        source.put(1, 10);
+        binding.onEventsChanged();
+        runFrames();
+        verify(dayView, times(1)).setEventViews(ArgumentMatchers.<View>anyList(),
+                ArgumentMatchers.<EventTimeRange>anyList());
+
+        // Starting again picks the changes up
+        binding.start();
+        runFrames();
+        verify(dayView, times(2)).setEventViews(ArgumentMatchers.<View>anyList(),
+                ArgumentMatchers.<EventTimeRange>anyList());
+    }
+
+    @Test
+    public void scheduledBindRunsAfterRestart() {
+        binding.start();
+        binding.stop();
+        binding.start();
+
+        // The bind scheduled before the binding stopped is the one that binds
+        assertThat(frames.size(), is(1));
+        runFrames();
+        verify(dayView, times(1)).setEventViews(ArgumentMatchers.<View>anyList(),
+                ArgumentMatchers.<EventTimeRange>anyList());
+    }
+
+    private void runFrames() {
+        List<Runnable> frames = new ArrayList<>(this.frames);
+        this.frames.clear();
+        for (Runnable frame : frames) {
+            frame.run();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EventSourceTest {
+
+    @Test
+    public void copyEvents() {
+        EventSource<String> source = new EventSource<>();
+        List<Long> ids = new ArrayList<>();
+        List<String> events = new ArrayList<>();
+
+        source.put(1, "a");
+        source.put(2, "b");
+        source.put(3, "c");
+        int version = source.copyEvents(-1, ids, events);
+        assertThat(ids, is(Arrays.asList(1L, 2L, 3L)));
+        assertThat(events, is(Arrays.asList("a", "b", "c")));
+
+        // Nothing is copied when nothing changed
+        assertThat(source.copyEvents(version, ids, events), is(version));
+
+        // Replacing an event keeps its position
+        source.put(2, "d");
+        source.remove(1);
+        int nextVersion = source.copyEvents(version, ids, events);
+        assertThat(nextVersion == version, is(false));
+        assertThat(ids, is(Arrays.asList(2L, 3L)));
+        assertThat(events, is(Arrays.asList("d", "c")));
+
+        Map<Long, String> replacement = new LinkedHashMap<>();
+        replacement.put(5L, "e");
+        source.setEvents(replacement);
+        source.copyEvents(nextVersion, ids, events);
+        assertThat(ids, is(Arrays.asList(5L)));
+        assertThat(source.size(), is(1));
+    }
+
+    @Test
+    public void observers() {
+        EventSource<String> source = new EventSource<>();
+        final AtomicInteger changes = new AtomicInteger();
+        EventSource.Observer observer = new EventSource.Observer() {
+            @Override
+            public void onEventsChanged() {
+                changes.incrementAndGet();
+            }
+        };
+
+        source.registerObserver(observer);
+        source.put(1, "a");
+        source.remove(2);
+        source.remove(1);
+        source.clear();
+        assertThat(changes.get(), is(2));
+
+        source.unregisterObserver(observer);
+        source.put(1, "a");
+        assertThat(changes.get(), is(2));
+    }
+
+    @Test
+    public void concurrentChanges() throws InterruptedException {
+        final EventSource<Integer> source = new EventSource<>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int offset = i * 1000;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        source.put(offset + j, j);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(source.size(), is(4000));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 LinkedIn Corporation
+ * All Rights Reserved.
+ *
+ * Licensed under the BSD 2-Clause License (the "License").  See License in the project root for
+ * license information.
+ */
+package com.linkedin.android.tachyon;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class EventViewPoolTest {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final List<View> createdViews = new ArrayList<>();
+    private final List<Runnable> inflations = new ArrayList<>();
+    private EventViewPool pool;
+
+    @Before
+    public void setup() {
+        DayView.EventViewFactory factory = new DayView.EventViewFactory() {
+            @Override
+            public View createEventView(ViewGroup parent) {
+                View view = mock(View.class);
+                createdViews.add(view);
+                return view;
+            }
+        };
+
+        // Inflations are queued so tests can run them as if on a background thread
+        Executor inflationExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                inflations.add(command);
+            }
+        };
+        pool = new EventViewPool(mock(ViewGroup.class), factory, inflationExecutor, DIRECT_EXECUTOR);
+    }
+
+    @Test
+    public void fillsOnlyOnceStarted() {
+        pool.onEventsBound(3);
+        assertThat(inflations.size(), is(0));
+
+        pool.start();
+        runInflations();
+        assertThat(pool.getFreeCount(), is(3));
+
+        // Obtaining a view doesn't create one, the pool refills in the background instead
+        View view = pool.obtain();
+        assertThat(createdViews.size(), is(3));
+        assertThat(pool.owns(view), is(true));
+        runInflations();
+        assertThat(pool.getFreeCount(), is(3));
+    }
+
+    @Test
+    public void targetFollowsRecentPeak() {
+        pool.start();
+        pool.onEventsBound(12);
+        runInflations();
+        assertThat(pool.getTargetSize(), is(12));
+        assertThat(pool.getFreeCount(), is(12));
+
+        // The peak is kept until enough quieter days were bound after it
+        for (int i = 0; i < 7; i++) {
+            pool.onEventsBound(2);
+        }
+        assertThat(pool.getTargetSize(), is(12));
+
+        pool.onEventsBound(2);
+        assertThat(pool.getTargetSize(), is(2));
+        assertThat(pool.getFreeCount(), is(2));
+    }
+
+    @Test
+    public void releaseOnlyTakesBackOwnViews() {
+        pool.onEventsBound(1);
+        View view = pool.obtain();
+        pool.release(mock(View.class));
+        assertThat(pool.getFreeCount(), is(0));
+
+        pool.release(view);
+        pool.release(view);
+        assertThat(pool.getFreeCount(), is(1));
+        assertThat(pool.obtain(), is(sameInstance(view)));
+    }
+
+    @Test
+    public void stopDropsPendingViews() {
+        pool.start();
+        pool.stop();
+        runInflations();
+
+        assertThat(pool.getFreeCount(), is(0));
+    }
+
+    private void runInflations() {
+        while (!inflations.isEmpty()) {
+            inflations.remove(0).run();
+        }
+    }
+}